@@ -0,0 +1,69 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import cards.Card;
+import cards.Default;
+import game.Game;
+
+// Games used across benchmarks
+class Decks {
+  /** Ranks of large registry, so 8192 distinct cards */
+  static final int LARGE_RANKS = 2048;
+  /** Decks in shoe of large registry, so 131072 cards in total */
+  static final int LARGE_SHOE = 16;
+
+  /** Game with default 52 cards */
+  static Game standard() {
+    return new Game();
+  }
+
+  /**
+   * Game with only 3 registered cards, so 12 cards in total. Almost every
+   * comparison is a draw and rounds are mostly wars.
+   */
+  static Game warHeavy() {
+    return new Game(Arrays.copyOf(new Default().cards, 3));
+  }
+
+  /** Casino shoe of 6 default decks, 312 cards */
+  static Game shoe() {
+    var game = new Game();
+    game.setDecksInShoe(6);
+    return game;
+  }
+
+  /**
+   * Registry of {@link #LARGE_RANKS} ranks in shoe of {@link #LARGE_SHOE}
+   * decks. Default cards are registered over and over, so ranks differ only
+   * by their index.
+   */
+  static Game large() {
+    var game = new Game(largeCards());
+    game.setDecksInShoe(LARGE_SHOE);
+    return game;
+  }
+
+  static List<Card> largeCards() {
+    var defaults = new Default().cards;
+    var cards = new ArrayList<Card>(LARGE_RANKS);
+    for (var i = 0; i < LARGE_RANKS; i++)
+      cards.add(defaults[i % defaults.length]);
+    return cards;
+  }
+
+  static Game create(String decks) {
+    switch (decks) {
+      case "warHeavy":
+        return warHeavy();
+      case "shoe":
+        return shoe();
+      case "large":
+        return large();
+      default:
+        return standard();
+    }
+  }
+}
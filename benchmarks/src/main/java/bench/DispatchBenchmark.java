@@ -0,0 +1,50 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.Game;
+
+/** Cost of {@link Game#dispatchDecks(int)} and {@link Game#dispatchDecks(java.util.SplittableRandom)} */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+  @Param({ "standard", "shoe", "large" })
+  public String decks;
+
+  private Game game;
+  private int seed = 0;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    game = Decks.create(decks);
+  }
+
+  @Benchmark
+  public Game.Table dispatchDecks() {
+    game.dispatchDecks(seed++);
+    return game.getTable();
+  }
+
+  @Benchmark
+  public Game.Table dispatchDecksSplittable() {
+    game.dispatchDecks(Game.dealRandom(42, seed++));
+    return game.getTable();
+  }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import game.EventQueue;
+import game.Game;
+
+/** Cost of playing a round and draining all of it's events */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+  private Game game;
+  private int seed = 0;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    game = Decks.standard();
+    game.setCycleDetection(true);
+    game.dispatchDecks(seed++);
+  }
+
+  private void nextRound() {
+    if (game.getTable().isFinished())
+      game.dispatchDecks(seed++);
+    game.playRound();
+  }
+
+  /** Packed events read with cursor */
+  @Benchmark
+  public void drainCursor(Blackhole bh) {
+    nextRound();
+    var c = game.events.cursor();
+    while (c.next()) {
+      bh.consume(c.type());
+      bh.consume(c.winner());
+      bh.consume(c.amount());
+    }
+    game.events.clear();
+  }
+
+  /** Events read as entries, the way GUI does it */
+  @Benchmark
+  public void drainEnums(Blackhole bh) {
+    nextRound();
+    game.events.forEach(e -> {
+      bh.consume(e);
+      bh.consume(e.winner());
+    });
+  }
+
+  /** Only game over events are stored */
+  @Benchmark
+  public void drainMasked(Blackhole bh) {
+    game.events.setMask(EventQueue.mask(EventQueue.Event.GAME_FINISH));
+    nextRound();
+    bh.consume(game.events.size());
+    game.events.clear();
+  }
+}
@@ -0,0 +1,21 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run benchmarks with allocation profiling, so every result also reports
+ * bytes allocated per operation ({@code gc.alloc.rate.norm}). <br>
+ * Accepts usual JMH arguments, e.g. {@code java -jar benchmarks.jar Round -rf json}
+ */
+public class Main {
+  public static void main(String[] args) throws Exception {
+    var options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,51 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.MultiGame;
+
+/**
+ * Cost of single {@link MultiGame#playRound()} by amount of players, which
+ * should grow linearly. Compare 2 players with {@link RoundBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiGameBenchmark {
+  @Param({ "2", "4", "8" })
+  public int players;
+
+  private MultiGame game;
+  private int seed = 0;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    game = new MultiGame(players);
+    game.setCycleDetection(true);
+    game.dispatchDecks(seed++);
+  }
+
+  @Benchmark
+  public MultiGame.Table playRound() {
+    if (game.getTable().isFinished())
+      game.dispatchDecks(seed++);
+    game.playRound();
+    return game.getTable();
+  }
+}
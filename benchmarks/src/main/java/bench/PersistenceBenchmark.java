@@ -0,0 +1,73 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cards.Card;
+import cards.Default;
+import game.Game;
+import game.EventQueue.Player;
+
+/** Cost of {@link Game#save(String, String)} and {@link Game#load(String)} */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+  @Param({ "standard", "large" })
+  public String decks;
+
+  private Path dir;
+  private Game game;
+  private List<Card> cards;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    dir = Files.createTempDirectory("cardGame-bench");
+    game = Decks.create(decks);
+    cards = (decks.equals("large")) ? Decks.largeCards() : Arrays.asList(new Default().cards);
+    game.setUsername(Player.WHITE, "Player 1");
+    game.dispatchDecks(42);
+    // Save game in the middle, so war pile and both decks are used
+    game.playRounds(100);
+    game.save(dir.toString(), "saved");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    try (var files = Files.walk(dir)) {
+      files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+    }
+  }
+
+  @Benchmark
+  public Path save() throws Exception {
+    game.save(dir.toString(), "bench");
+    return dir;
+  }
+
+  @Benchmark
+  public Game load() throws Exception {
+    return Game.load(dir.resolve("saved").toString(), cards);
+  }
+}
@@ -0,0 +1,54 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.Game;
+
+/**
+ * Cost of single {@link Game#playRound()}, including generation of events.
+ * <br>
+ * Once game is over, next seed is dealt, so cost of dealing is spread over
+ * all rounds of the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundBenchmark {
+  @Param({ "standard", "warHeavy", "shoe", "large" })
+  public String decks;
+
+  private Game game;
+  private int seed = 0;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    game = Decks.create(decks);
+    // War heavy decks loop forever quite often
+    game.setCycleDetection(true);
+    game.dispatchDecks(seed++);
+  }
+
+  @Benchmark
+  public Game.Table playRound() {
+    if (game.getTable().isFinished())
+      game.dispatchDecks(seed++);
+    game.playRound();
+    return game.getTable();
+  }
+}
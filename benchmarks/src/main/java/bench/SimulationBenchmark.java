@@ -0,0 +1,55 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.Game;
+import game.GameResult;
+import game.Rules;
+
+/** Cost of dealing and playing whole game without events */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+  @Param({ "standard", "warHeavy", "shoe", "large" })
+  public String decks;
+
+  @Param({ "true", "false" })
+  public boolean cycleDetection;
+
+  // Anything but standard plays variant round, see Game.setRules
+  @Param({ "standard", "face-down=2,low-beats-ace" })
+  public String rules;
+
+  private Game game;
+  private int seed = 0;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    game = Decks.create(decks);
+    game.setCycleDetection(cycleDetection);
+    game.setRules(Rules.parse(rules));
+  }
+
+  @Benchmark
+  public GameResult playToCompletion() {
+    game.dispatchDecks(seed++);
+    return game.playToCompletion(10_000);
+  }
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.Game;
+import game.Solver;
+import game.TranspositionTable;
+
+/**
+ * Cost of {@link Solver}: solving new seeds compared to
+ * {@link SimulationBenchmark}, and asking about the same game after every round
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+  private Solver solver;
+  private Game game;
+  private int seed = 0;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    solver = new Solver(new TranspositionTable(1 << 20));
+    game = Decks.standard();
+    game.setCycleDetection(true);
+    game.dispatchDecks(seed);
+  }
+
+  @Benchmark
+  public Solver.Outcome solveNewSeed() {
+    return solver.solve(seed++);
+  }
+
+  @Benchmark
+  public Solver.Outcome solveAfterRound() {
+    if (game.getTable().isFinished())
+      game.dispatchDecks(seed++);
+    game.playRound();
+    return solver.solve(game);
+  }
+}
@@ -0,0 +1,135 @@
+package app;
+
+import java.awt.Component;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+import game.Game;
+
+/**
+ * Decoded images shared by the whole GUI. <br>
+ * Every image is decoded from PNG only once, and scaled only once for every
+ * requested size. {@link #preload(Game)} decodes all card faces and
+ * backgrounds in parallel, so rounds and repaints never wait for decoding.
+ * Only the latest scaled size of every image is kept, so resizing the window
+ * does not keep all sizes it went through.
+ */
+public class AssetCache {
+  // Images which are not cards
+  public static final String BACKGROUND = "assets/images/background.png";
+  public static final String BACKGROUND_WAR = "assets/images/backgroundw.png";
+  public static final String CARD_BACK = "assets/images/cardbg.png";
+  public static final String WIN = "assets/images/win.png";
+  public static final String LOSE = "assets/images/lose.png";
+  public static final String TIE = "assets/images/tie.png";
+  public static final String USER = "assets/images/user.png";
+  public static final String AI = "assets/images/ai.png";
+  public static final String COMPUTER = "assets/images/computer.png";
+
+  // Size of card back on table
+  public static final int CARD_WIDTH = 250;
+  public static final int CARD_HEIGHT = 320;
+
+  // Original size is requested with -1 as width and height
+  private record Key(String path, int width, int height) {
+  }
+
+  private static final Map<Key, CompletableFuture<ImageIcon>> icons = new ConcurrentHashMap<Key, CompletableFuture<ImageIcon>>();
+  // Latest scaled size of every image
+  private static final Map<String, Key> scaledSizes = new ConcurrentHashMap<String, Key>();
+
+  /** Get icon of image in original size */
+  public static ImageIcon getIcon(String path) {
+    return getIcon(path, -1, -1);
+  }
+
+  /** Get icon of image scaled to given size */
+  public static ImageIcon getIcon(String path, int width, int height) {
+    return load(new Key(path, width, height)).join();
+  }
+
+  /** Get image in original size */
+  public static Image getImage(String path) {
+    return getIcon(path).getImage();
+  }
+
+  /**
+   * Get image scaled to given size without waiting for it. <br>
+   * If it is not scaled yet, returns null and scales it in background, given
+   * component is repainted once it is done.
+   */
+  public static Image getScaledImage(String path, int width, int height, Component component) {
+    var icon = load(new Key(path, width, height));
+    if (icon.isDone())
+      return icon.join().getImage();
+    icon.thenRun(component::repaint);
+    return null;
+  }
+
+  /**
+   * Start decoding of all card faces of given game and all other images of
+   * GUI in parallel. Returned future completes once all of them are decoded.
+   */
+  public static CompletableFuture<Void> preload(Game game) {
+    var loading = new ArrayList<CompletableFuture<ImageIcon>>();
+
+    for (var path : new String[] { BACKGROUND, BACKGROUND_WAR, WIN, LOSE, TIE, USER, AI, COMPUTER })
+      loading.add(load(new Key(path, -1, -1)));
+    loading.add(load(new Key(CARD_BACK, CARD_WIDTH, CARD_HEIGHT)));
+
+    // Cards of the same class share interned paths, so they are decoded once
+    var assets = game.getRegistry().assets();
+    for (var code = 0; code < assets.size(); code++)
+      if (assets.path((short) code) != null)
+        loading.add(load(new Key(assets.path((short) code), -1, -1)));
+
+    return CompletableFuture.allOf(loading.toArray(new CompletableFuture<?>[0]));
+  }
+
+  /** Scale image to given size, so it can be drawn without scaling */
+  public static BufferedImage scale(Image image, int width, int height) {
+    // Scaled instance is produced asynchronously, ImageIcon waits until it is done
+    var smooth = new ImageIcon(image.getScaledInstance(width, height, Image.SCALE_SMOOTH)).getImage();
+    var scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    var g = scaled.createGraphics();
+    g.drawImage(smooth, 0, 0, null);
+    g.dispose();
+    return scaled;
+  }
+
+  private static CompletableFuture<ImageIcon> load(Key key) {
+    if (key.width() <= 0 || key.height() <= 0)
+      return icons.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> decode(k)));
+
+    var previous = scaledSizes.put(key.path(), key);
+    if (previous != null && !previous.equals(key))
+      icons.remove(previous);
+    // Scaled from decoded original, which is shared with all other sizes
+    var original = load(new Key(key.path(), -1, -1));
+    return icons.computeIfAbsent(key, k -> original.thenApplyAsync(icon -> (icon.getIconWidth() > 0)
+        ? new ImageIcon(scale(icon.getImage(), k.width(), k.height()))
+        : icon));
+  }
+
+  private static ImageIcon decode(Key key) {
+    try {
+      Image image = ImageIO.read(new File(key.path()));
+      if (image == null)
+        throw new IOException("Can not decode " + key.path());
+      return new ImageIcon(image);
+    } catch (IOException e) {
+      e.printStackTrace(); // Print any errors
+      // Empty icon, the same way ImageIcon behaves for missing files
+      return new ImageIcon();
+    }
+  }
+}
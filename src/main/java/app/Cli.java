@@ -0,0 +1,472 @@
+package app;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import cards.Default;
+import game.Game;
+import game.GameJournal;
+import game.GameResult;
+import game.MultiGame;
+import game.Rules;
+import game.sim.SeedSearch;
+import game.sim.SeedSearch.Objective;
+import game.sim.TournamentStats;
+import game.stats.GameStats;
+
+/**
+ * Headless launcher of the game engine. <br>
+ * Plays single game, range of seeds, or finishes a saved game or journal, and
+ * streams result of every game to stdout or a file. Only {@code game} and
+ * {@code cards} are used, so no AWT, Swing or sound classes are ever loaded.
+ *
+ * <pre>
+ * Usage: app.Cli game SEED [options]
+ *        app.Cli range FROM TO [options]     (TO is exclusive)
+ *        app.Cli replay FILE [options]       (save or journal)
+ *        app.Cli search FROM TO [options]    (extremal 32-bit seeds, CSV only)
+ *        app.Cli stats FILE...               (merge files of --stats)
+ * Options:
+ *   --format csv|binary   (default csv)
+ *   --out FILE            (default stdout)
+ *   --max-rounds N        (default 100000)
+ *   --no-cycle-detection  (not search)
+ *   --master-seed N       (not search, deal with Game.dealRandom(N, seed))
+ *   --rules LIST          (not search, e.g. face-down=3,low-beats-ace,last-card-face-up,shuffle-collected)
+ *   --shoe N              (game and range, deal N decks shuffled together, default 1)
+ *   --players N           (game and range, 2 to 8 players, default 2)
+ *   --stats FILE          (range only, write sketches of all games to FILE)
+ * Options of search:
+ *   --top K               (default 10)
+ *   --objectives LIST     (default longest,shortest,most_wars,deepest_war)
+ *   --checkpoint FILE     (resume from and save progress to FILE)
+ * </pre>
+ *
+ * CSV has a header line and one line per game:
+ * {@code seed,winner,rounds,wars,longest_war,capped,loop}. Winner is
+ * {@code WHITE}, {@code BLACK} or empty for a draw. More than 2 players play
+ * {@link MultiGame}, and winner is index of the player. <br>
+ *
+ * <pre>
+ * Binary output:
+ * int    magic, "WARR"
+ * short  version
+ * Followed by records of 22 bytes:
+ * long   seed, Long.MIN_VALUE for replayed file
+ * byte   winner, 0 - draw, 1 - white, 2 - black, index + 1 of more players
+ * int    rounds
+ * int    wars
+ * int    longest war
+ * byte   flags, 1 - capped, 2 - loop
+ * </pre>
+ */
+public class Cli {
+  public static final int MAGIC = 0x57415252;
+  public static final short VERSION = 1;
+  // Seed of game which was not dealt from seed
+  public static final long NO_SEED = Long.MIN_VALUE;
+
+  private static final String USAGE = String.join("\n",
+      "Usage: app.Cli game SEED [options]",
+      "       app.Cli range FROM TO [options]     (TO is exclusive)",
+      "       app.Cli replay FILE [options]       (save or journal)",
+      "       app.Cli search FROM TO [options]    (extremal 32-bit seeds, CSV only)",
+      "       app.Cli stats FILE...               (merge files of --stats)",
+      "Options:",
+      "  --format csv|binary   (default csv)",
+      "  --out FILE            (default stdout)",
+      "  --max-rounds N        (default 100000)",
+      "  --no-cycle-detection  (not search)",
+      "  --master-seed N       (not search, deal with Game.dealRandom(N, seed))",
+      "  --rules LIST          (not search, e.g. face-down=3,low-beats-ace,last-card-face-up,shuffle-collected)",
+      "  --shoe N              (game and range, deal N decks shuffled together, default 1)",
+      "  --players N           (game and range, 2 to 8 players, default 2)",
+      "  --stats FILE          (range only, write sketches of all games to FILE)",
+      "Options of search:",
+      "  --top K               (default 10)",
+      "  --objectives LIST     (default longest,shortest,most_wars,deepest_war)",
+      "  --checkpoint FILE     (resume from and save progress to FILE)");
+
+  // Commands of options which do not apply to all of them
+  private static final Map<String, List<String>> COMMANDS_OF_OPTIONS = Map.of(
+      "--master-seed", List.of("game", "range", "replay"),
+      "--no-cycle-detection", List.of("game", "range", "replay"),
+      "--rules", List.of("game", "range", "replay"),
+      "--shoe", List.of("game", "range"),
+      "--players", List.of("game", "range"),
+      "--stats", List.of("range"),
+      "--top", List.of("search"),
+      "--objectives", List.of("search"),
+      "--checkpoint", List.of("search"));
+
+  // Receives results of played games
+  private interface Sink extends AutoCloseable {
+    void write(long seed, GameResult result) throws IOException;
+
+    void write(long seed, MultiGame.Result result) throws IOException;
+
+    @Override
+    void close() throws IOException;
+  }
+
+  private static class CsvSink implements Sink {
+    private final PrintStream out;
+
+    CsvSink(OutputStream out) {
+      this.out = new PrintStream(out, false, StandardCharsets.UTF_8);
+      this.out.print("seed,winner,rounds,wars,longest_war,capped,loop\n");
+    }
+
+    @Override
+    public void write(long seed, GameResult result) {
+      out.print(seed == NO_SEED ? "" : Long.toString(seed));
+      out.print(',');
+      out.print(result.winner() == null ? "" : result.winner().name());
+      write(result.rounds(), result.wars(), result.longestWar(), result.capped(), result.loop());
+    }
+
+    @Override
+    public void write(long seed, MultiGame.Result result) {
+      out.print(seed == NO_SEED ? "" : Long.toString(seed));
+      out.print(',');
+      out.print(result.winner() < 0 ? "" : Integer.toString(result.winner()));
+      write(result.rounds(), result.wars(), result.longestWar(), result.capped(), result.loop());
+    }
+
+    private void write(int rounds, int wars, int longestWar, boolean capped, boolean loop) {
+      out.print(',');
+      out.print(rounds);
+      out.print(',');
+      out.print(wars);
+      out.print(',');
+      out.print(longestWar);
+      out.print(',');
+      out.print(capped);
+      out.print(',');
+      out.print(loop);
+      out.print('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.flush();
+      if (out.checkError())
+        throw new IOException("Can not write results");
+    }
+  }
+
+  private static class BinarySink implements Sink {
+    private final DataOutputStream out;
+
+    BinarySink(OutputStream out) throws IOException {
+      this.out = new DataOutputStream(out);
+      this.out.writeInt(MAGIC);
+      this.out.writeShort(VERSION);
+    }
+
+    @Override
+    public void write(long seed, GameResult result) throws IOException {
+      out.writeLong(seed);
+      out.writeByte(result.winner() == null ? 0 : result.winner().ordinal() + 1);
+      write(result.rounds(), result.wars(), result.longestWar(), result.capped(), result.loop());
+    }
+
+    @Override
+    public void write(long seed, MultiGame.Result result) throws IOException {
+      out.writeLong(seed);
+      out.writeByte(result.winner() + 1);
+      write(result.rounds(), result.wars(), result.longestWar(), result.capped(), result.loop());
+    }
+
+    private void write(int rounds, int wars, int longestWar, boolean capped, boolean loop) throws IOException {
+      out.writeInt(rounds);
+      out.writeInt(wars);
+      out.writeInt(longestWar);
+      out.writeByte((capped ? 1 : 0) | (loop ? 2 : 0));
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.flush();
+    }
+  }
+
+  public static void main(String[] args) {
+    System.exit(run(args, System.out, System.err));
+  }
+
+  /**
+   * Run CLI with given arguments, write results to {@code out} unless
+   * {@code --out} is given. Returns exit code.
+   */
+  static int run(String[] args, OutputStream out, PrintStream err) {
+    if (args.length < 2) {
+      err.println(USAGE);
+      return 2;
+    }
+
+    var command = args[0];
+    if (command.equals("stats"))
+      return stats(Arrays.copyOfRange(args, 1, args.length), out, err);
+    var positional = (command.equals("range") || command.equals("search")) ? 3 : 2;
+    var format = "csv";
+    String file = null;
+    var maxRounds = 100_000;
+    var cycleDetection = true;
+    Long masterSeed = null;
+    var top = 10;
+    var objectives = Objective.values();
+    String checkpoint = null;
+    String statsFile = null;
+    var rules = Rules.STANDARD;
+    var shoe = 1;
+    var players = 2;
+    long from = 0, to = 0;
+    var given = new HashSet<String>();
+
+    try {
+      if (args.length < positional)
+        throw new IllegalArgumentException("Missing arguments of " + command);
+      for (var i = positional; i < args.length; i++) {
+        given.add(args[i]);
+        switch (args[i]) {
+          case "--format" -> format = value(args, ++i);
+          case "--out" -> file = value(args, ++i);
+          case "--max-rounds" -> maxRounds = Integer.parseInt(value(args, ++i));
+          case "--no-cycle-detection" -> cycleDetection = false;
+          case "--master-seed" -> masterSeed = Long.parseLong(value(args, ++i));
+          case "--top" -> top = Integer.parseInt(value(args, ++i));
+          case "--objectives" -> objectives = objectives(value(args, ++i));
+          case "--checkpoint" -> checkpoint = value(args, ++i);
+          case "--stats" -> statsFile = value(args, ++i);
+          case "--rules" -> rules = Rules.parse(value(args, ++i));
+          case "--shoe" -> shoe = Integer.parseInt(value(args, ++i));
+          case "--players" -> players = Integer.parseInt(value(args, ++i));
+          default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+        }
+      }
+      if (shoe < 1)
+        throw new IllegalArgumentException("Shoe needs at least one deck");
+      if (players < 2 || players > MultiGame.MAX_PLAYERS)
+        throw new IllegalArgumentException("From 2 to " + MultiGame.MAX_PLAYERS + " players can play");
+      // Statistics count wins of white and black only
+      if (players > 2 && given.contains("--stats"))
+        throw new IllegalArgumentException("Option --stats does not apply to more than 2 players");
+      if (!format.equals("csv") && !format.equals("binary"))
+        throw new IllegalArgumentException("Unknown format " + format);
+      if (!List.of("game", "range", "replay", "search").contains(command))
+        throw new IllegalArgumentException("Unknown command " + command);
+      if (!command.equals("replay"))
+        from = Long.parseLong(args[1]);
+      to = (positional == 3) ? Long.parseLong(args[2]) : from + 1;
+      checkOptions(given, command);
+      if (command.equals("search"))
+        checkSearch(format, top, from, to);
+    } catch (IllegalArgumentException e) {
+      err.println(e.getMessage());
+      err.println(USAGE);
+      return 2;
+    }
+
+    if (command.equals("search"))
+      return search(from, to, top, objectives, maxRounds, checkpoint, file, out, err);
+    if (players > 2)
+      return multi(command, players, from, to, masterSeed, cycleDetection, rules, shoe, maxRounds, format, file, out,
+          err);
+
+    try {
+      var stream = new BufferedOutputStream(file == null ? out : new FileOutputStream(file), 1 << 16);
+      try (Sink sink = format.equals("csv") ? new CsvSink(stream) : new BinarySink(stream)) {
+        switch (command) {
+          case "game" -> {
+            var game = newGame(cycleDetection, rules, shoe);
+            deal(game, masterSeed, from);
+            sink.write(from, game.playToCompletion(maxRounds));
+          }
+          case "range" -> {
+            var game = newGame(cycleDetection, rules, shoe);
+            var stats = new TournamentStats(maxRounds, 50);
+            var sketch = (statsFile == null) ? null : new GameStats();
+            if (sketch != null)
+              sketch.attach(game);
+            for (var seed = from; seed < to; seed++) {
+              deal(game, masterSeed, seed);
+              var result = game.playToCompletion(maxRounds);
+              stats.add(result);
+              // Capped games never finish, so listener does not see them
+              if (sketch != null && result.capped())
+                sketch.add(result, game.getTable().hash());
+              sink.write(seed, result);
+            }
+            err.println(stats);
+            if (sketch != null) {
+              sketch.write(Paths.get(statsFile));
+              err.println(sketch);
+            }
+          }
+          case "replay" -> {
+            var game = replay(args[1]);
+            game.setCycleDetection(cycleDetection);
+            // Saves keep their rules, older ones are played by given rules
+            if (given.contains("--rules"))
+              game.setRules(rules);
+            sink.write(NO_SEED, game.playToCompletion(maxRounds));
+          }
+        }
+      } finally {
+        if (file != null)
+          stream.close();
+      }
+    } catch (Exception e) {
+      err.println(e);
+      return 1;
+    }
+    return 0;
+  }
+
+  // Game or range of MultiGame, written the same way as of Game
+  private static int multi(String command, int players, long from, long to, Long masterSeed, boolean cycleDetection,
+      Rules rules, int shoe, int maxRounds, String format, String file, OutputStream out, PrintStream err) {
+    try {
+      var stream = new BufferedOutputStream(file == null ? out : new FileOutputStream(file), 1 << 16);
+      try (Sink sink = format.equals("csv") ? new CsvSink(stream) : new BinarySink(stream)) {
+        var game = new MultiGame(players, Arrays.asList(new Default().cards), shoe);
+        game.setCycleDetection(cycleDetection);
+        game.setRules(rules);
+        for (var seed = from; seed < to; seed++) {
+          if (masterSeed == null)
+            game.dispatchDecks((int) seed);
+          else
+            game.dispatchDecks(Game.dealRandom(masterSeed, seed));
+          sink.write(seed, game.playToCompletion(maxRounds));
+        }
+      } finally {
+        if (file != null)
+          stream.close();
+      }
+    } catch (Exception e) {
+      err.println(e);
+      return 1;
+    }
+    return 0;
+  }
+
+  private static int search(long from, long to, int top, Objective[] objectives, int maxRounds, String checkpoint,
+      String file, OutputStream out, PrintStream err) {
+    var search = new SeedSearch(top, objectives);
+    search.setMaxRounds(maxRounds);
+    if (checkpoint != null)
+      search.setCheckpoint(Paths.get(checkpoint));
+    search.setProgress(next -> err.printf("Searched %d of %d seeds%n", next - from, to - from));
+
+    try {
+      var result = search.run(from, to);
+      if (file != null) {
+        result.export(Paths.get(file));
+      } else {
+        var writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        result.export(writer);
+        writer.flush();
+      }
+    } catch (Exception e) {
+      err.println(e);
+      return 1;
+    }
+    return 0;
+  }
+
+  // Merge statistics written by range with --stats, print the summary
+  private static int stats(String[] files, OutputStream out, PrintStream err) {
+    try {
+      var merged = new GameStats();
+      for (var file : files)
+        merged.merge(GameStats.read(Paths.get(file)));
+      var print = new PrintStream(out, true, StandardCharsets.UTF_8);
+      print.println(merged);
+      print.flush();
+    } catch (Exception e) {
+      err.println(e);
+      return 1;
+    }
+    return 0;
+  }
+
+  private static Objective[] objectives(String list) {
+    var names = list.split(",");
+    var objectives = new Objective[names.length];
+    for (var i = 0; i < names.length; i++)
+      objectives[i] = Objective.valueOf(names[i].trim().toUpperCase(Locale.ROOT));
+    return objectives;
+  }
+
+  private static String value(String[] args, int i) {
+    if (i >= args.length)
+      throw new IllegalArgumentException("Missing value of " + args[i - 1]);
+    return args[i];
+  }
+
+  private static void deal(Game game, Long masterSeed, long seed) {
+    if (masterSeed == null)
+      game.dispatchDecks((int) seed);
+    else
+      game.dispatchDecks(Game.dealRandom(masterSeed, seed));
+  }
+
+  // Options given to command they do not apply to are rejected, not ignored
+  private static void checkOptions(Set<String> given, String command) {
+    for (var entry : COMMANDS_OF_OPTIONS.entrySet())
+      if (given.contains(entry.getKey()) && !entry.getValue().contains(command))
+        throw new IllegalArgumentException("Option " + entry.getKey() + " does not apply to " + command);
+  }
+
+  // Search plays 32-bit seeds of standard game with cycle detection, writes
+  // CSV only
+  private static void checkSearch(String format, int top, long from, long to) {
+    if (!format.equals("csv"))
+      throw new IllegalArgumentException("Search writes CSV only");
+    if (top < 1)
+      throw new IllegalArgumentException("Top needs at least one seed");
+    if (from < Integer.MIN_VALUE || to > Integer.MAX_VALUE + 1L)
+      throw new IllegalArgumentException("Search seeds must be 32-bit");
+  }
+
+  private static Game newGame(boolean cycleDetection, Rules rules, int shoe) {
+    var game = new Game();
+    game.setDecksInShoe(shoe);
+    game.setCycleDetection(cycleDetection);
+    game.setRules(rules);
+    return game;
+  }
+
+  // Load saved game, or last snapshot of journal
+  private static Game replay(String path) throws Exception {
+    byte[] magic;
+    try (var in = Files.newInputStream(Paths.get(path))) {
+      magic = in.readNBytes(4);
+    }
+    if (magic.length < 4 || ByteBuffer.wrap(magic).getInt() != GameJournal.MAGIC)
+      return Game.load(path);
+
+    try (var journal = GameJournal.openReadOnly(Paths.get(path))) {
+      var game = journal.restore(journal.lastRound());
+      // Journal is closed here, and replay must not write into its input
+      game.setJournal(null);
+      return game;
+    }
+  }
+}
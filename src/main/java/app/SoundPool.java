@@ -0,0 +1,121 @@
+package app;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+
+/**
+ * Preloaded sounds of the game. <br>
+ * Every sound is decoded once, and played by one of few {@link Clip}s opened
+ * in advance, so playing a sound never opens new audio line. Everything
+ * happens on a separate thread, so caller (usually EDT) never waits for audio
+ * system. <br>
+ * If audio is not available, sounds are silently skipped.
+ */
+public class SoundPool implements AutoCloseable {
+  public static final String PLAY = "assets/sounds/play.wav";
+  public static final String WIN = "assets/sounds/win.wav";
+  public static final String LOSE = "assets/sounds/lose.wav";
+  public static final String TIE = "assets/sounds/tie.wav";
+  public static final String START = "assets/sounds/start.wav";
+
+  // Clips of single sound, reused in round robin
+  private static class Pool {
+    final Clip[] clips;
+    int next = 0;
+
+    Pool(Clip[] clips) {
+      this.clips = clips;
+    }
+
+    // Prefer clip which is not playing, otherwise restart the oldest one
+    Clip take() {
+      for (var i = 0; i < clips.length; i++) {
+        var clip = clips[(next + i) % clips.length];
+        if (!clip.isRunning()) {
+          next = (next + i + 1) % clips.length;
+          return clip;
+        }
+      }
+      var clip = clips[next];
+      next = (next + 1) % clips.length;
+      clip.stop();
+      return clip;
+    }
+  }
+
+  // Only accessed from audio thread
+  private final Map<String, Pool> pools = new HashMap<String, Pool>();
+
+  private final ExecutorService audio = Executors.newSingleThreadExecutor(r -> {
+    var thread = new Thread(r, "sound-pool");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /** Decode all sounds of the game, with given amount of clips for each */
+  public SoundPool(int clipsPerSound) {
+    this(clipsPerSound, PLAY, WIN, LOSE, TIE, START);
+  }
+
+  /** Decode given sounds, with given amount of clips for each */
+  public SoundPool(int clipsPerSound, String... paths) {
+    // Decoding is the first task of audio thread, so sounds played early wait
+    // for it
+    audio.execute(() -> {
+      for (var path : paths)
+        try {
+          pools.put(path, decode(path, clipsPerSound));
+        } catch (Exception e) {
+          e.printStackTrace(); // Print any errors
+        }
+    });
+  }
+
+  private static Pool decode(String path, int clipsPerSound) throws Exception {
+    byte[] data;
+    AudioFormat format;
+    try (AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(path))) {
+      format = audioIn.getFormat();
+      data = audioIn.readAllBytes();
+    }
+
+    var clips = new Clip[clipsPerSound];
+    for (var i = 0; i < clipsPerSound; i++) {
+      clips[i] = AudioSystem.getClip();
+      clips[i].open(format, data, 0, data.length);
+    }
+    return new Pool(clips);
+  }
+
+  /** Play sound from the beginning. Returns immediately */
+  public void play(String path) {
+    audio.execute(() -> {
+      var pool = pools.get(path);
+      if (pool == null)
+        return;
+      var clip = pool.take();
+      clip.setFramePosition(0);
+      clip.start();
+    });
+  }
+
+  /** Close all clips */
+  @Override
+  public void close() {
+    audio.execute(() -> {
+      for (var pool : pools.values())
+        for (var clip : pool.clips)
+          clip.close();
+      pools.clear();
+    });
+    audio.shutdown();
+  }
+}
@@ -0,0 +1,17 @@
+package app;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Single refresh of the GUI after round */
+@Name("cardGame.GuiUpdate")
+@Label("GUI Update")
+@Category({ "Card Game", "GUI" })
+class UpdateEvent extends jdk.jfr.Event {
+  @Label("Round")
+  int round;
+
+  @Label("War")
+  boolean war;
+}
@@ -1,18 +1,15 @@
 package app;
 
 import game.Game;
-import game.EventQueue.Event;
+import game.EventQueue.Entry;
 import game.EventQueue.Player;
 
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 
 public class WarCardGameGUI extends JFrame {
@@ -34,6 +31,7 @@ public class WarCardGameGUI extends JFrame {
   private ImageIcon loseIcon;
   private ImageIcon tieIcon;
   private Game game = null; // Instance of the game logic
+  private final SoundPool sounds = new SoundPool(3); // Preloaded sounds
   Image backgroundImg; // Background image
   private JTextField player1NameField;
   private JTextField player2NameField;
@@ -46,12 +44,25 @@ public class WarCardGameGUI extends JFrame {
     setLayout(new BorderLayout());
     setResizable(true); // Disallow resizing
 
-    // Load icons with better image quality and set resizing hints
-    cardBackIcon = new ImageIcon("assets/images/cardbg.png");
-    cardBackIcon.setImage(cardBackIcon.getImage().getScaledInstance(250, 320, Image.SCALE_SMOOTH)); // Resize card image
-    winIcon = new ImageIcon("assets/images/win.png");
-    loseIcon = new ImageIcon("assets/images/lose.png");
-    tieIcon = new ImageIcon("assets/images/tie.png");
+    // Initialize the game
+    initGame(null);
+
+    // Fail at once, instead of showing empty cards in the middle of a game
+    try {
+      game.getRegistry().assets().validate();
+    } catch (IOException e) {
+      JOptionPane.showMessageDialog(this, e.getMessage(), "War Card Game", JOptionPane.ERROR_MESSAGE);
+      System.exit(1);
+    }
+
+    // Decode all images in parallel, while the rest of UI is being built
+    AssetCache.preload(game);
+
+    // Load icons with better image quality, card back is resized once
+    cardBackIcon = AssetCache.getIcon(AssetCache.CARD_BACK, AssetCache.CARD_WIDTH, AssetCache.CARD_HEIGHT);
+    winIcon = AssetCache.getIcon(AssetCache.WIN);
+    loseIcon = AssetCache.getIcon(AssetCache.LOSE);
+    tieIcon = AssetCache.getIcon(AssetCache.TIE);
 
     // Calculate height based on 16:9 aspect ratio
     int width = 1080;
@@ -63,12 +74,14 @@ public class WarCardGameGUI extends JFrame {
       protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         // Switch background based on game state (war or normal)
-        if (game.getTable().isWar()) {
-          backgroundImg = new ImageIcon("assets/images/backgroundw.png").getImage();
-        } else {
-          backgroundImg = new ImageIcon("assets/images/background.png").getImage();
-        }
-        g.drawImage(backgroundImg, 0, 0, getWidth(), getHeight(), this);
+        var path = (game.getTable().isWar()) ? AssetCache.BACKGROUND_WAR : AssetCache.BACKGROUND;
+        backgroundImg = AssetCache.getImage(path);
+        // Background is scaled in background once for every size of panel,
+        // until then original is scaled while drawn
+        var scaledImg = (getWidth() > 0 && getHeight() > 0)
+            ? AssetCache.getScaledImage(path, getWidth(), getHeight(), this)
+            : null;
+        g.drawImage((scaledImg != null) ? scaledImg : backgroundImg, 0, 0, getWidth(), getHeight(), this);
       }
     };
 
@@ -165,14 +178,11 @@ public class WarCardGameGUI extends JFrame {
     playButton.addActionListener(new ActionListener() {
       @Override
       public void actionPerformed(ActionEvent e) {
-        playSound("assets/sounds/play.wav");
+        playSound(SoundPool.PLAY);
         playRound();
       }
     });
 
-    // Initialize the game
-    initGame();
-
     // Adding scorePanel and playButton to bottomPanel
     bottomPanel.add(scorePanel, BorderLayout.CENTER);
     bottomPanel.add(playButton, BorderLayout.SOUTH);
@@ -181,10 +191,10 @@ public class WarCardGameGUI extends JFrame {
     mainPanel.add(bottomPanel, BorderLayout.SOUTH);
 
     // User and computer panels with padding and titles
-    JPanel whitePanel = createUserPanelWithTitle("assets/images/user.png", player1CardLabel, "Player 1");
+    JPanel whitePanel = createUserPanelWithTitle(AssetCache.USER, player1CardLabel, "Player 1");
     whitePanel.setBorder(new EmptyBorder(10, 10, 10, 10)); // Add padding
 
-    JPanel blackPanel = createUserPanelWithTitle("assets/images/ai.png", player2CardLabel, "Computer");
+    JPanel blackPanel = createUserPanelWithTitle(AssetCache.AI, player2CardLabel, "Computer");
     blackPanel.setBorder(new EmptyBorder(10, 10, 10, 10)); // Add padding
     player2IconLabel = (JLabel) blackPanel.getComponent(1);
     toggleBlackIcon(false);
@@ -196,7 +206,7 @@ public class WarCardGameGUI extends JFrame {
     createMenuBar();
 
     // Play the start sound
-    playSound("assets/sounds/start.wav");
+    playSound(SoundPool.START);
 
     // Adding mainPanel to the frame
     add(mainPanel, BorderLayout.CENTER);
@@ -224,7 +234,7 @@ public class WarCardGameGUI extends JFrame {
       player2NameField = titleField;
     }
   
-    JLabel imageLabel = new JLabel(new ImageIcon(imagePath));
+    JLabel imageLabel = new JLabel(AssetCache.getIcon(imagePath));
     imageLabel.setHorizontalAlignment(JLabel.CENTER);
   
     // Adding components to the panel
@@ -238,13 +248,15 @@ public class WarCardGameGUI extends JFrame {
 
   private void toggleBlackIcon(boolean isRobot) {
     if (isRobot)
-      player2IconLabel.setIcon(new ImageIcon("assets/images/computer.png"));
+      player2IconLabel.setIcon(AssetCache.getIcon(AssetCache.COMPUTER));
     else
     // Computer is actually player 2 (black)
-      player2IconLabel.setIcon(new ImageIcon("assets/images/ai.png"));
+      player2IconLabel.setIcon(AssetCache.getIcon(AssetCache.AI));
   }
   // Method to update the UI based on game state
   private void Update() {
+    var event = new UpdateEvent(); // Flight recorder event of the repaint cycle
+    event.begin();
     resultLabel.setText(null); // Clear previous result text
     System.err.println(game.getUsername(Player.WHITE)); // Debugging output
     player1NameField.setText((game.getUsername(Player.WHITE).equals("")) ? "Player 1" : game.getUsername(Player.WHITE));
@@ -266,8 +278,8 @@ public class WarCardGameGUI extends JFrame {
     var blackCard = game.getTable().getCardBlack();
 
     // Update card labels based on the current cards
-    player1CardLabel.setIcon((whiteCard != null) ? new ImageIcon(game.getAssetPath(whiteCard)) : cardBackIcon);
-    player2CardLabel.setIcon((blackCard != null) ? new ImageIcon(game.getAssetPath(blackCard)) : cardBackIcon);
+    player1CardLabel.setIcon((whiteCard != null) ? AssetCache.getIcon(game.getAssetPath(whiteCard)) : cardBackIcon);
+    player2CardLabel.setIcon((blackCard != null) ? AssetCache.getIcon(game.getAssetPath(blackCard)) : cardBackIcon);
 
     
     // Check if the game is in a tie state
@@ -283,18 +295,24 @@ public class WarCardGameGUI extends JFrame {
     } else {
       resultLabel.setIcon((game.getTable().getCardWhite().cardIdx > game.getTable().getCardBlack().cardIdx) ? winIcon : loseIcon);
     }
+
+    if (event.shouldCommit()) {
+      event.round = game.getTable().getRounds();
+      event.war = isTie;
+      event.commit();
+    }
   }
 
   // Method to update the game state when the game is finished
-  private void GameFinishedSate(Event e) {
-    backgroundImg = new ImageIcon("assets/images/background.png").getImage(); // Set background image to default
+  private void GameFinishedSate(Entry e) {
+    backgroundImg = AssetCache.getImage(AssetCache.BACKGROUND); // Set background image to default
     revalidate();
     repaint();
-    if (e.winner == null) {
+    if (e.winner() == null) {
       resultLabel.setIcon(tieIcon); // Show tie icon if the game ends in a tie
     } else {
       // Update UI based on the winner
-      switch (e.winner) {
+      switch (e.winner()) {
         case WHITE:
           resultLabel.setIcon(winIcon);
           player2CardLabel.setIcon(null); // Clear Player 2's card
@@ -313,10 +331,13 @@ public class WarCardGameGUI extends JFrame {
     }
   }
 
-  // Method to initialize the game
-  private void initGame() {
+  // Method to initialize the game, random deal if seed is null
+  private void initGame(Integer seed) {
     game = new Game(); // Create a new game instance
-    game.dispatchDecks(); // Distribute the decks to players
+    if (seed == null)
+      game.dispatchDecks(); // Distribute the decks to players
+    else
+      game.dispatchDecks(seed); // Replay deal of given seed, e.g. found by app.Cli search
     game.setUsername(Player.WHITE, "Player 1"); // Set username for Player 1
     game.setUsername(Player.BLACK, "Computer"); // Set username for Player 2
     
@@ -329,25 +350,25 @@ public class WarCardGameGUI extends JFrame {
     System.out.println(game.getEvents()); // Debugging output
     for (var e : game.getEvents()) {
       // Handle different types of game events
-      switch (e) {
+      switch (e.type()) {
         case POLL_CARDS:
           Update(); // Update UI when cards are polled
           break;
         case COMPARE_CARDS:
-          System.out.println(e.winner); // Debugging output
-          if (e.winner == null) {
+          System.out.println(e.winner()); // Debugging output
+          if (e.winner() == null) {
             resultLabel.setIcon(tieIcon); // Show tie icon if there's no winner
-            playSound("assets/sounds/tie.wav"); // Play tie sound
+            playSound(SoundPool.TIE); // Play tie sound
           } else {
             // Update UI based on the winner
-            switch (e.winner) {
+            switch (e.winner()) {
               case WHITE:
-                playSound("assets/sounds/win.wav"); // Play win sound
+                playSound(SoundPool.WIN); // Play win sound
                 resultLabel.setIcon(winIcon); // Show win icon for Player 1
                 break;
               case BLACK:
                 resultLabel.setIcon(loseIcon); // Show lose icon for Player 1
-                playSound("assets/sounds/lose.wav"); // Play lose sound
+                playSound(SoundPool.LOSE); // Play lose sound
                 break;
             }
           }
@@ -366,29 +387,31 @@ public class WarCardGameGUI extends JFrame {
   private void createMenuBar() {
     JMenuBar menuBar = new JMenuBar(); // Create a menu bar
 
-    // File menu with New Game, Save, and Load options
+    // File menu with New Game, Play Seed, Save, and Load options
     JMenu fileMenu = new JMenu("File");
     JMenuItem newGameItem = new JMenuItem("New Game");
+    JMenuItem playSeedItem = new JMenuItem("Play Seed...");
     JMenuItem saveButtonItem = new JMenuItem("Save");
     JMenuItem loadButtonItem = new JMenuItem("Load");
 
     // Action listener for new game
     newGameItem.addActionListener(e -> {
-      initGame(); // Initialize a new game
-      player1NameField.setText(game.getUsername(Player.WHITE)); // Update Player 1's name
-      player2NameField.setText(game.getUsername(Player.BLACK)); // Update Player 2's name
-      playButton.setEnabled(true); // Enable the play button
-      player1ScoreLabel.setText("Cards left: 26"); // Reset score label
-      player2ScoreLabel.setText("Cards left: 26"); // Reset score label
-      resultLabel.setText(""); // Clear result text
-      resultLabel.setIcon(null); // Clear result icon
-      player1CardLabel.setIcon(cardBackIcon); // Reset Player 1's card
-      player2CardLabel.setIcon(cardBackIcon); // Reset Player 2's card
-      player1TieCardsLabel.setVisible(false); //hide tie cards
-      player2TieCardsLabel.setVisible(false); //hide tie cards
-      player1TieCardsTextLabel.setVisible(false); //hide tie cards
-      player2TieCardsTextLabel.setVisible(false); //hide tie cards
-      toggleBlackIcon((game.getUsername(Player.BLACK)).toLowerCase().equals("computer")? false:true);
+      initGame(null); // Initialize a new game
+      resetView();
+    });
+
+    // Action listener for playing deal of given seed
+    playSeedItem.addActionListener(e -> {
+      var input = JOptionPane.showInputDialog(this, "Seed:", "Play Seed", JOptionPane.QUESTION_MESSAGE);
+      if (input == null)
+        return; // Cancelled
+      try {
+        initGame(Integer.parseInt(input.trim()));
+      } catch (NumberFormatException e1) {
+        JOptionPane.showMessageDialog(this, "Seed must be a 32-bit integer", "Play Seed", JOptionPane.ERROR_MESSAGE);
+        return;
+      }
+      resetView();
     });
 
     // Action listener for save game
@@ -410,7 +433,7 @@ public class WarCardGameGUI extends JFrame {
         e1.printStackTrace(); // Print any errors
       }
 
-      backgroundImg = new ImageIcon("assets/images/background.png").getImage(); // Reset background image
+      backgroundImg = AssetCache.getImage(AssetCache.BACKGROUND); // Reset background image
       revalidate();
       repaint();
       Update(); // Update UI
@@ -427,6 +450,7 @@ public class WarCardGameGUI extends JFrame {
 
     // Add items to file menu
     fileMenu.add(newGameItem);
+    fileMenu.add(playSeedItem);
     fileMenu.add(saveButtonItem);
     fileMenu.add(loadButtonItem);
     menuBar.add(fileMenu);
@@ -482,17 +506,27 @@ public class WarCardGameGUI extends JFrame {
     setJMenuBar(menuBar);
   }
 
+  // Method to reset the view after new game was dealt
+  private void resetView() {
+    player1NameField.setText(game.getUsername(Player.WHITE)); // Update Player 1's name
+    player2NameField.setText(game.getUsername(Player.BLACK)); // Update Player 2's name
+    playButton.setEnabled(true); // Enable the play button
+    player1ScoreLabel.setText("Cards left: 26"); // Reset score label
+    player2ScoreLabel.setText("Cards left: 26"); // Reset score label
+    resultLabel.setText(""); // Clear result text
+    resultLabel.setIcon(null); // Clear result icon
+    player1CardLabel.setIcon(cardBackIcon); // Reset Player 1's card
+    player2CardLabel.setIcon(cardBackIcon); // Reset Player 2's card
+    player1TieCardsLabel.setVisible(false); //hide tie cards
+    player2TieCardsLabel.setVisible(false); //hide tie cards
+    player1TieCardsTextLabel.setVisible(false); //hide tie cards
+    player2TieCardsTextLabel.setVisible(false); //hide tie cards
+    toggleBlackIcon((game.getUsername(Player.BLACK)).toLowerCase().equals("computer")? false:true);
+  }
+
   // Method to play a sound
   private void playSound(String soundFile) {
-    try {
-      File f = new File(soundFile);
-      AudioInputStream audioIn = AudioSystem.getAudioInputStream(f.toURI().toURL());
-      Clip clip = AudioSystem.getClip();
-      clip.open(audioIn);
-      clip.start(); // Play the sound
-    } catch (Exception e) {
-      e.printStackTrace(); // Print any errors
-    }
+    sounds.play(soundFile); // Played on audio thread with preloaded clip
   }
 
   // Main method to start the GUI
@@ -0,0 +1,85 @@
+package cards;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * Immutable table of images of all cards in a {@link CardRegistry}, indexed
+ * by card code. <br>
+ * Built once per registry (see {@link CardRegistry#assets()}), so finding
+ * image of a card is a single array load instead of building its path with
+ * {@link Card#getAssetPath(Suit)}. Paths are interned and cards of the same
+ * class share both path and file handle.
+ */
+public final class AssetCatalogue {
+  // First bytes of every PNG file
+  private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n' };
+
+  private final String[] paths;
+  private final File[] files;
+
+  AssetCatalogue(CardRegistry registry) {
+    var count = registry.codeCount();
+    paths = new String[count];
+    files = new File[count];
+    var shared = new HashMap<String, File>();
+    for (var code = 0; code < count; code++) {
+      var card = registry.getCard(VCard.cardIdx((short) code));
+      var path = card.getAssetPath(VCard.suit((short) code));
+      if (path == null)
+        continue;
+      paths[code] = path.intern();
+      files[code] = shared.computeIfAbsent(paths[code], File::new);
+    }
+  }
+
+  /** Amount of card codes in catalogue */
+  public int size() {
+    return paths.length;
+  }
+
+  /** Path to PNG image of card with given code */
+  public String path(short code) {
+    return paths[code];
+  }
+
+  /** File of PNG image of card with given code */
+  public File file(short code) {
+    return files[code];
+  }
+
+  /**
+   * Check that image of every card is a PNG file. <br>
+   * Every distinct file is checked once, exception lists all which are
+   * missing or are not PNG.
+   */
+  public void validate() throws IOException {
+    var invalid = new LinkedHashSet<String>();
+    var checked = new HashMap<File, Boolean>();
+    for (var code = 0; code < paths.length; code++) {
+      if (files[code] == null) {
+        invalid.add("card code " + code + " has no image");
+        continue;
+      }
+      if (!checked.computeIfAbsent(files[code], AssetCatalogue::isPng))
+        invalid.add(paths[code]);
+    }
+    if (!invalid.isEmpty())
+      throw new IOException("Missing or invalid card images: " + String.join(", ", invalid));
+  }
+
+  private static boolean isPng(File file) {
+    if (!file.isFile())
+      return false;
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      return Arrays.equals(PNG_SIGNATURE, in.readNBytes(PNG_SIGNATURE.length));
+    } catch (IOException e) {
+      return false;
+    }
+  }
+}
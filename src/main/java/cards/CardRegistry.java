@@ -0,0 +1,80 @@
+package cards;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Immutable table of registered cards. <br>
+ * Index of card in registry is also it's precedence. Every pair of registered
+ * card and {@link Suit} is represented with single canonical {@link VCard}
+ * and packed short code, see {@link VCard#code(int, Suit)}. <br>
+ * Engine works with codes, and turns them back into {@link VCard} only when
+ * someone asks.
+ */
+public class CardRegistry implements Serializable {
+  private final Card[] cards;
+  // Identifies set of registered cards, see fingerprint()
+  private final long fingerprint;
+  // Built on first use, since simulations never draw cards
+  private transient volatile AssetCatalogue assets = null;
+
+  public CardRegistry(Card[] cards) {
+    if (cards.length > VCard.MAX_RANKS)
+      throw new IllegalArgumentException("Can not register more than " + VCard.MAX_RANKS + " ranks of cards");
+    this.cards = cards.clone();
+    VCard.grow(cards.length);
+
+    // FNV-1a over names of registered cards in their order
+    var hash = 0xCBF29CE484222325L;
+    for (var card : cards)
+      for (var c : card.getClass().getName().toCharArray()) {
+        hash ^= c;
+        hash *= 0x100000001B3L;
+      }
+    fingerprint = hash ^ cards.length;
+  }
+
+  public CardRegistry(List<Card> cards) {
+    this(cards.toArray(new Card[0]));
+  }
+
+  /** Amount of registered cards, not counting suits */
+  public int size() {
+    return cards.length;
+  }
+
+  /** Amount of all distinct cards, including suits */
+  public int codeCount() {
+    return cards.length * Suit.values().length;
+  }
+
+  public Card getCard(int cardIdx) {
+    return cards[cardIdx];
+  }
+
+  /**
+   * Hash of names and order of registered cards. <br>
+   * Registries with the same fingerprint give the same meaning to card codes.
+   */
+  public long fingerprint() {
+    return fingerprint;
+  }
+
+  /** Images of all cards, built once for this registry */
+  public AssetCatalogue assets() {
+    var catalogue = assets;
+    if (catalogue == null)
+      assets = catalogue = new AssetCatalogue(this);
+    return catalogue;
+  }
+
+  /** Get canonical {@link VCard} of given code */
+  public VCard get(short code) {
+    return VCard.of(code);
+  }
+
+  /** Get canonical {@link VCard} of given card and suit */
+  public VCard get(int cardIdx, Suit suit) {
+    return VCard.of(cardIdx, suit);
+  }
+}
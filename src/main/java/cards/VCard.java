@@ -5,12 +5,85 @@ import java.io.Serializable;
 import cards.Suit;
 
 public class VCard implements Serializable{
+  private static final long serialVersionUID = -6839550833011373998L;
+
+  // Every card can be packed into short code
+  // Code keeps precedence of cards, suit takes lowest bits
+  // Amount of ranks which fit into code, every rank has a card of each suit
+  public static final int MAX_RANKS = Short.MAX_VALUE / 4;
+
+  // Canonical instances of all cards, indexed by code
+  // Table only grows, so once created instance is shared forever
+  private static volatile VCard[] canonical = new VCard[0];
+
   // Index of card among registered cards
   public final int cardIdx;
   public final Suit suit;
+  // Packed card, see VCard.code()
+  public final short code;
 
   public VCard(int cardIdx, Suit suit) {
     this.cardIdx = cardIdx;
     this.suit = suit;
+    this.code = code(cardIdx, suit);
+  }
+
+  /** Pack card into code */
+  public static short code(int cardIdx, Suit suit) {
+    if (cardIdx < 0 || cardIdx >= MAX_RANKS)
+      throw new IllegalArgumentException("Card index " + cardIdx + " can not be packed");
+    return (short) (cardIdx * 4 + suit.id);
+  }
+
+  public static int cardIdx(short code) {
+    return code >> 2;
+  }
+
+  public static Suit suit(short code) {
+    return Suit.fromId(code & 3);
+  }
+
+  /** Get canonical instance of card */
+  public static VCard of(int cardIdx, Suit suit) {
+    return of(code(cardIdx, suit));
+  }
+
+  /** Get canonical instance of packed card */
+  public static VCard of(short code) {
+    var table = canonical;
+    if (code >= 0 && code < table.length)
+      return table[code];
+    if (code < 0)
+      throw new IllegalArgumentException("Card code " + code + " is negative");
+    return grow(cardIdx(code) + 1)[code];
+  }
+
+  /** Make sure canonical instances exist for given amount of registered cards */
+  static synchronized VCard[] grow(int cards) {
+    var table = canonical;
+    if (cards * 4 <= table.length)
+      return table;
+
+    var grown = new VCard[cards * 4];
+    System.arraycopy(table, 0, grown, 0, table.length);
+    for (var code = table.length; code < grown.length; code++)
+      grown[code] = new VCard(cardIdx((short) code), suit((short) code));
+    canonical = grown;
+    return grown;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return (o instanceof VCard) && ((VCard) o).code == code;
+  }
+
+  @Override
+  public int hashCode() {
+    return code;
+  }
+
+  // Keep deserialized cards canonical as well
+  private Object readResolve() {
+    return of(cardIdx, suit);
   }
 }
@@ -0,0 +1,97 @@
+package game;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Detects games which never end. <br>
+ * Remembers hash of every state of table seen between rounds. Since the rest
+ * of the game is fully determined by the table, once some state repeats, game
+ * is going to loop forever. <br>
+ * Hashes of decks are updated incrementally as cards move (see
+ * {@link Deck#setKeys(long[])}), so every round costs single lookup in set of
+ * longs.
+ */
+public class CycleDetector implements Serializable {
+  // Keys are the same for every game, so hashes are comparable between games
+  private static final long SEED = 0x5DEECE66DL;
+
+  // Zobrist keys of card codes
+  final long[] keys;
+
+  // Open addressing set of seen hashes, 0 marks empty slot
+  private long[] seen = new long[1024];
+  private int count = 0;
+  private boolean seenZero = false;
+
+  public CycleDetector(int codeCount) {
+    keys = new long[codeCount];
+    var random = new SplittableRandom(SEED);
+    for (var i = 0; i < codeCount; i++)
+      keys[i] = random.nextLong();
+  }
+
+  /** Combine hashes of decks into hash of table */
+  public static long hash(long white, long black, long invisible, boolean isWar) {
+    // Rotate hashes, so decks swapped between players give different hash
+    var hash = white ^ Long.rotateLeft(black, 21) ^ Long.rotateLeft(invisible, 42);
+    return (isWar) ? ~hash : hash;
+  }
+
+  /** Remember state of table. Returns true if it was already seen */
+  public boolean visit(long hash) {
+    if (hash == 0) {
+      var wasSeen = seenZero;
+      seenZero = true;
+      return wasSeen;
+    }
+
+    // Keep set at most half full
+    if (count * 2 >= seen.length)
+      grow();
+
+    var mask = seen.length - 1;
+    var i = (int) mix(hash) & mask;
+    while (seen[i] != 0) {
+      if (seen[i] == hash)
+        return true;
+      i = (i + 1) & mask;
+    }
+    seen[i] = hash;
+    count++;
+    return false;
+  }
+
+  /** Amount of distinct states seen */
+  public int size() {
+    return count + ((seenZero) ? 1 : 0);
+  }
+
+  /** Forget all seen states */
+  public void reset() {
+    if (count > 0)
+      Arrays.fill(seen, 0);
+    count = 0;
+    seenZero = false;
+  }
+
+  private void grow() {
+    var old = seen;
+    seen = new long[old.length * 2];
+    var mask = seen.length - 1;
+    for (var hash : old)
+      if (hash != 0) {
+        var i = (int) mix(hash) & mask;
+        while (seen[i] != 0)
+          i = (i + 1) & mask;
+        seen[i] = hash;
+      }
+  }
+
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    return hash ^ (hash >>> 33);
+  }
+}
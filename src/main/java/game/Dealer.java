@@ -0,0 +1,82 @@
+package game;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import cards.CardRegistry;
+import cards.Suit;
+import cards.VCard;
+
+/**
+ * Shuffles and deals cards of a shoe to any amount of players, shared by
+ * {@link Game} and {@link MultiGame}. <br>
+ * Order of cards is computed once, and copied into array reused between
+ * deals, so dealing allocates nothing.
+ */
+final class Dealer {
+  // Codes of all cards, ordered by suit and then by precedence, once for
+  // every deck in the shoe
+  private final short[] orderedCodes;
+  private final short[] dealCodes;
+  private Random seedRandom = null;
+
+  Dealer(CardRegistry registry, int decksInShoe) {
+    orderedCodes = new short[registry.codeCount() * decksInShoe];
+    dealCodes = new short[orderedCodes.length];
+    var i = 0;
+    for (var deck = 0; deck < decksInShoe; deck++)
+      // Iterate over all types of same card.
+      for (var suitId = 0; suitId < 4; suitId++)
+        // Iterate over all cards.
+        for (var cardPrecendence = 0; cardPrecendence < registry.size(); cardPrecendence++)
+          orderedCodes[i++] = VCard.code(cardPrecendence, Suit.fromId(suitId));
+  }
+
+  /** Codes of all cards in order, valid until next deal */
+  short[] ordered() {
+    System.arraycopy(orderedCodes, 0, dealCodes, 0, orderedCodes.length);
+    return dealCodes;
+  }
+
+  /** Codes of all cards shuffled by given seed, valid until next deal */
+  short[] shuffled(int seed) {
+    var codes = ordered();
+    // Same swaps as Collections.shuffle(cards, new Random(seed)) did, so
+    // every seed still deals the same cards
+    if (seedRandom == null)
+      seedRandom = new Random();
+    seedRandom.setSeed(seed);
+    for (var i = codes.length; i > 1; i--)
+      swap(codes, i - 1, seedRandom.nextInt(i));
+    return codes;
+  }
+
+  /** Codes of all cards shuffled by given random stream, valid until next deal */
+  short[] shuffled(SplittableRandom random) {
+    // Fisher-Yates shuffle in place
+    var codes = ordered();
+    for (var i = codes.length - 1; i > 0; i--)
+      swap(codes, i, random.nextInt(i + 1));
+    return codes;
+  }
+
+  /**
+   * Cut codes into one part per deck, the last deck gets the first part. First
+   * parts get one card more, if cards do not split evenly. <br>
+   * With two players black gets the first half and white the rest.
+   */
+  static void deal(short[] codes, Deck[] decks) {
+    var from = 0;
+    for (var part = 0; part < decks.length; part++) {
+      var to = from + codes.length / decks.length + ((part < codes.length % decks.length) ? 1 : 0);
+      decks[decks.length - 1 - part].addCodes(codes, from, to);
+      from = to;
+    }
+  }
+
+  static void swap(short[] codes, int i, int j) {
+    var code = codes[i];
+    codes[i] = codes[j];
+    codes[j] = code;
+  }
+}
@@ -0,0 +1,272 @@
+package game;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import cards.VCard;
+
+/**
+ * Stack of cards on the table. <br>
+ * Backed by fixed-capacity ring buffer of card codes (see
+ * {@link VCard#code(int, cards.Suit)}), so polling from the top
+ * and putting cards to the bottom of the deck does not allocate anything. <br>
+ * Capacity should be equal to amount of cards in game, since single deck can
+ * never hold more than that.
+ */
+public class Deck extends AbstractQueue<VCard> implements Serializable {
+  // Card codes, first card of deck is located at `head`
+  private final short[] codes;
+  private int head = 0;
+  private int size = 0;
+
+  // --- Hashing ---
+  // Ordered contents of deck can be hashed incrementally:
+  // hash = keys[c0] + keys[c1] * P + keys[c2] * P^2 + ...
+  // Polling top card subtracts it's key and divides by P, putting card to
+  // the bottom adds it's key multiplied by P^size. All in modulo 2^64.
+  private static final long P = 0x9E3779B97F4A7C15L;
+  // Inverse of P modulo 2^64, P has to be odd
+  private static final long P_INV = inverse(P);
+
+  // Zobrist keys of card codes, hashing is disabled if null
+  private long[] keys = null;
+  private long hash = 0;
+  // P^size
+  private long power = 1;
+
+  public Deck(int capacity) {
+    codes = new short[capacity];
+  }
+
+  // --- Queue ---
+  @Override
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return codes.length;
+  }
+
+  /** Put card to the bottom of deck. Returns false if deck is full */
+  @Override
+  public boolean offer(VCard vCard) {
+    if (vCard == null)
+      throw new NullPointerException();
+    if (size == codes.length)
+      return false;
+    addCode(vCard.code);
+    return true;
+  }
+
+  /** Take card from the top of deck. Returns null if deck is empty */
+  @Override
+  public VCard poll() {
+    if (size == 0)
+      return null;
+    return VCard.of(pollCode());
+  }
+
+  @Override
+  public VCard peek() {
+    if (size == 0)
+      return null;
+    return VCard.of(codes[head]);
+  }
+
+  /** Get card at given position, where 0 is top of deck */
+  public VCard get(int i) {
+    return VCard.of(getCode(i));
+  }
+
+  @Override
+  public void clear() {
+    head = 0;
+    size = 0;
+    hash = 0;
+    power = 1;
+  }
+
+  /**
+   * Enable incremental hashing of deck contents with given keys of card codes.
+   * Pass null to disable it.
+   */
+  public void setKeys(long[] keys) {
+    this.keys = keys;
+    hash = (keys == null) ? 0 : hashWith(keys);
+    power = 1;
+    if (keys != null)
+      for (var i = 0; i < size; i++)
+        power *= P;
+  }
+
+  private long hashWith(long[] keys) {
+    var hash = 0L;
+    var power = 1L;
+    for (var i = 0; i < size; i++) {
+      hash += keys[getCode(i)] * power;
+      power *= P;
+    }
+    return hash;
+  }
+
+  /** Hash of ordered contents of deck, 0 if hashing is disabled */
+  public long hash() {
+    return hash;
+  }
+
+  /** Check if deck has keys to hash its contents, see {@link #setKeys(long[])} */
+  boolean isHashed() {
+    return keys != null;
+  }
+
+  // --- Raw access to codes ---
+  /** Take code of card from the top of deck. Deck must not be empty */
+  protected short pollCode() {
+    var code = codes[head];
+    head = wrap(head + 1);
+    size--;
+    if (keys != null) {
+      hash = (hash - keys[code]) * P_INV;
+      power *= P_INV;
+    }
+    return code;
+  }
+
+  /** Put code of card to the bottom of deck. Deck must not be full */
+  protected void addCode(short code) {
+    if (size == codes.length)
+      throw new IllegalStateException("Deck is full");
+    codes[wrap(head + size)] = code;
+    size++;
+    if (keys != null) {
+      hash += keys[code] * power;
+      power *= P;
+    }
+  }
+
+  /** Put codes of given range to the bottom of deck, first one on top */
+  void addCodes(short[] source, int from, int to) {
+    if (size + to - from > codes.length)
+      throw new IllegalStateException("Deck is full");
+    if (keys == null && head + size + to - from <= codes.length) {
+      System.arraycopy(source, from, codes, head + size, to - from);
+      size += to - from;
+      return;
+    }
+    for (var i = from; i < to; i++)
+      addCode(source[i]);
+  }
+
+  protected short getCode(int i) {
+    if (i < 0 || i >= size)
+      throw new IndexOutOfBoundsException(i);
+    return codes[wrap(head + i)];
+  }
+
+  /**
+   * Move all cards of this deck to the bottom of given deck, keeping their order.
+   * <br>
+   * Cards are copied as whole ranges, instead of one by one.
+   */
+  public void drainTo(Deck target) {
+    if (target.size + size > target.codes.length)
+      throw new IllegalStateException("Deck is full");
+
+    // Whole range is appended to hash at once
+    if (target.keys != null) {
+      if (keys == target.keys) {
+        target.hash += hash * target.power;
+        target.power *= power;
+      } else
+        for (var i = 0; i < size; i++) {
+          target.hash += target.keys[getCode(i)] * target.power;
+          target.power *= P;
+        }
+    }
+
+    var moved = 0;
+    while (moved < size) {
+      // Longest continuous range we can read from this deck
+      var from = wrap(head + moved);
+      var length = Math.min(size - moved, codes.length - from);
+      // And write to the target deck
+      var to = target.wrap(target.head + target.size);
+      length = Math.min(length, target.codes.length - to);
+
+      System.arraycopy(codes, from, target.codes, to, length);
+      target.size += length;
+      moved += length;
+    }
+    clear();
+  }
+
+  /** Replace contents of deck with cards of given deck, in the same order */
+  void copyFrom(Deck source) {
+    clear();
+    for (var i = 0; i < source.size; i++)
+      addCode(source.codes[source.wrap(source.head + i)]);
+  }
+
+  // --- Binary format ---
+  /** Amount of bytes needed to write deck */
+  int encodedSize() {
+    return 4 + size * 2;
+  }
+
+  /** Write size of deck and codes of all cards from top to bottom */
+  void write(ByteBuffer buffer) {
+    buffer.putInt(size);
+    for (var i = 0; i < size; i++)
+      buffer.putShort(codes[wrap(head + i)]);
+  }
+
+  /** Replace contents of deck with cards written by {@link #write(ByteBuffer)} */
+  void read(ByteBuffer buffer, int codeCount) throws IOException {
+    clear();
+    var length = buffer.getInt();
+    if (length < 0 || length > codes.length)
+      throw new IOException("Deck of " + length + " cards does not fit into " + codes.length);
+    for (var i = 0; i < length; i++) {
+      var code = buffer.getShort();
+      if (code < 0 || code >= codeCount)
+        throw new IOException("Unknown card code " + code);
+      addCode(code);
+    }
+  }
+
+  // Newton's iteration, every step doubles amount of correct bits
+  private static long inverse(long x) {
+    var inv = x;
+    for (var i = 0; i < 5; i++)
+      inv *= 2 - x * inv;
+    return inv;
+  }
+
+  private int wrap(int i) {
+    return (i >= codes.length) ? i - codes.length : i;
+  }
+
+  @Override
+  public Iterator<VCard> iterator() {
+    return new Iterator<VCard>() {
+      int i = 0;
+
+      @Override
+      public boolean hasNext() {
+        return i < size;
+      }
+
+      @Override
+      public VCard next() {
+        if (i >= size)
+          throw new NoSuchElementException();
+        return get(i++);
+      }
+    };
+  }
+}
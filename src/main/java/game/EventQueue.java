@@ -1,7 +1,11 @@
 package game;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.LinkedList;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Queue;
 import java.util.function.Consumer;
 
@@ -47,6 +51,8 @@ import cards.VCard;
  * 
  */
 public class EventQueue implements Serializable {
+  private static final long serialVersionUID = 3766069892973221236L;
+
   public enum Player {
     WHITE(0), BLACK(1);
     int idx;
@@ -64,20 +70,22 @@ public class EventQueue implements Serializable {
     /**
      * Indicates if game was started.
      * <hr>
-     * {@link Event#winner} : null <br>
-     * {@link Event#cardAmount} : null <br>
-     * {@link Event#whiteCard} : null <br>
-     * {@link Event#blackCard} : null
+     * {@link Entry#winner()} : null <br>
+     * {@link Entry#cardAmount()} : null <br>
+     * {@link Entry#whiteCard()} : null <br>
+     * {@link Entry#blackCard()} : null
      */
     GAME_START,
 
     /**
      * Indicates if game was finished.
      * <hr>
-     * {@link Event#winner} : Player | null - winner of the game<br>
-     * {@link Event#cardAmount } : Integer - Amount of hidden cards going in winners deck
-     * {@link Event#whiteCard} : null <br>
-     * {@link Event#blackCard} : null
+     * {@link Entry#winner()} : Player | null - winner of the game<br>
+     * {@link Entry#cardAmount()} : Integer - Amount of hidden cards going in winners deck
+     * {@link Entry#whiteCard()} : null <br>
+     * {@link Entry#blackCard()} : null <br>
+     * {@link Entry#loop()} : true if game was stopped, because it would never end.
+     * See {@link Game#setCycleDetection(boolean)}
      */
     GAME_FINISH,
 
@@ -85,10 +93,10 @@ public class EventQueue implements Serializable {
      * Indicates if round was started. <br>
      * NOTE: If there is no visible cards on table, than round is not ongoing.
      * <hr>
-     * {@link Event#winner} : null <br>
-     * {@link Event#cardAmount} : null <br>
-     * {@link Event#whiteCard} : null <br>
-     * {@link Event#blackCard} : null
+     * {@link Entry#winner()} : null <br>
+     * {@link Entry#cardAmount()} : null <br>
+     * {@link Entry#whiteCard()} : null <br>
+     * {@link Entry#blackCard()} : null
      */
     ROUND_START,
 
@@ -96,20 +104,20 @@ public class EventQueue implements Serializable {
      * Indicates if round was finished. <br>
      * NOTE: If there is no visible cards on table, than round is not ongoing.
      * <hr>
-     * {@link Event#winner} : null <br>
-     * {@link Event#cardAmount} : null <br>
-     * {@link Event#whiteCard} : null <br>
-     * {@link Event#blackCard} : null
+     * {@link Entry#winner()} : null <br>
+     * {@link Entry#cardAmount()} : null <br>
+     * {@link Entry#whiteCard()} : null <br>
+     * {@link Entry#blackCard()} : null
      */
     ROUND_FINISH,
 
     /**
      * Indicates if war was started. <br>
      * <hr>
-     * {@link Event#winner} : null <br>
-     * {@link Event#cardAmount} : null <br>
-     * {@link Event#whiteCard} : null <br>
-     * {@link Event#blackCard} : null
+     * {@link Entry#winner()} : null <br>
+     * {@link Entry#cardAmount()} : null <br>
+     * {@link Entry#whiteCard()} : null <br>
+     * {@link Entry#blackCard()} : null
      */
     WAR_START,
 
@@ -120,78 +128,242 @@ public class EventQueue implements Serializable {
      * NOTE: This event holds no winner even tho there is.
      * To get winner see {@link Event#COMPARE_CARDS}
      * <hr>
-     * {@link Event#winner} : null <br>
-     * {@link Event#cardAmount } : null <br>
-     * {@link Event#whiteCard} : null <br>
-     * {@link Event#blackCard} : null
+     * {@link Entry#winner()} : null <br>
+     * {@link Entry#cardAmount()} : null <br>
+     * {@link Entry#whiteCard()} : null <br>
+     * {@link Entry#blackCard()} : null
      */
     WAR_END,
 
     /**
      * Poll cards on start of every round. <br>
      * <hr>
-     * {@link Event#winner} : null <br>
-     * {@link Event#cardAmount } : Integer - Poll 2 (4 in general) cards from every
+     * {@link Entry#winner()} : null <br>
+     * {@link Entry#cardAmount()} : Integer - Poll 2 (4 in general) cards from every
      * player's deck to hidden deck if war is declared <br>
-     * {@link Event#whiteCard} : VCard - Polled card from white deck <br>
-     * {@link Event#blackCard} : VCard - Polled card from black deck
+     * {@link Entry#whiteCard()} : VCard - Polled card from white deck <br>
+     * {@link Entry#blackCard()} : VCard - Polled card from black deck
      */
     POLL_CARDS,
 
     /**
      * Turn upside down cards and move to hidden stack if war was declared.
      * <hr>
-     * {@link Event#winner} : null
+     * {@link Entry#winner()} : null
      * <br>
-     * {@link Event#cardAmount } : null
+     * {@link Entry#cardAmount()} : null
      * <br>
-     * {@link Event#whiteCard} : VCard - Card from white side being hidden. <br>
-     * {@link Event#blackCard} : VCard - Card from black side being hidden.
+     * {@link Entry#whiteCard()} : VCard - Card from white side being hidden. <br>
+     * {@link Entry#blackCard()} : VCard - Card from black side being hidden.
      */
     HIDE_CARDS,
 
     /**
      * Collect all cards on table if player wins the round
      * <hr>
-     * {@link Event#winner} : Player - player who collects all cards on the table.
+     * {@link Entry#winner()} : Player - player who collects all cards on the table.
      * <br>
-     * {@link Event#cardAmount } : Integer - amount of hidden cards player collects.
+     * {@link Entry#cardAmount()} : Integer - amount of hidden cards player collects.
      * <br>
-     * {@link Event#whiteCard} : VCard - Visible card winner is collecting. <br>
-     * {@link Event#blackCard} : VCard - Visible card winner is collecting.
+     * {@link Entry#whiteCard()} : VCard - Visible card winner is collecting. <br>
+     * {@link Entry#blackCard()} : VCard - Visible card winner is collecting.
      */
     COLLECT_CARDS,
 
     /**
      * Compare cards and determine winner of the round. <br>
      * <hr>
-     * {@link Event#winner} : Player | null - winner of the round. If there is no
+     * {@link Entry#winner()} : Player | null - winner of the round. If there is no
      * winner, than its a draw and value is null <br>
-     * {@link Event#cardAmount} : null <br>
-     * {@link Event#whiteCard} : null <br>
-     * {@link Event#blackCard} : null
+     * {@link Entry#cardAmount()} : null <br>
+     * {@link Entry#whiteCard()} : null <br>
+     * {@link Entry#blackCard()} : null
      */
-    COMPARE_CARDS;
+    COMPARE_CARDS,
 
-    public Player winner = null;
+    /**
+     * Player ran out of cards and is out of the game, only at tables of
+     * {@link MultiGame}. Cards they already played stay on table. <br>
+     * <hr>
+     * {@link EventQueue#player(long)} : player who is out <br>
+     * {@link Entry#cardAmount()} : null <br>
+     * {@link Entry#whiteCard()} : null <br>
+     * {@link Entry#blackCard()} : null
+     */
+    PLAYER_OUT;
+  }
 
-    /** Amount of invisible (face down) cards */
-    public Integer cardAmount = null;
-    public VCard whiteCard = null;
-    public VCard blackCard = null;
+  /**
+   * Unpacked event, as read from {@link Game#getEvents()}. Fields missing in
+   * event are null. <br>
+   * Every entry is a value of its own, so it can be kept after the queue
+   * moves on, or passed to other thread.
+   */
+  public record Entry(Event type, Player winner, Integer cardAmount, VCard whiteCard, VCard blackCard,
+      boolean loop) {
+
+    // Entries of events without fields, shared since they are immutable
+    private static final Entry[] PLAIN = new Entry[TYPES.length];
+    static {
+      for (var type : TYPES)
+        PLAIN[type.ordinal()] = new Entry(type);
+    }
 
-    /** Helper function to create event fast */
-    public static Event create(Event e, Player winner, Integer cardAmount, VCard whiteCard, VCard blackCard){
-     e.winner = winner;
-     e.cardAmount = cardAmount;
-     e.whiteCard = whiteCard;
-     e.blackCard = blackCard;
-     return e;
+    /** Event without fields */
+    public Entry(Event type) {
+      this(type, null, null, null, null, false);
     }
 
+    /** Unpack event */
+    public static Entry of(long event) {
+      if ((event & ~0xFL) == 0)
+        return PLAIN[(int) event];
+      var amount = amount(event);
+      var whiteCode = whiteCode(event);
+      var blackCode = blackCode(event);
+      return new Entry(EventQueue.type(event),
+          EventQueue.winner(event),
+          (amount == NO_AMOUNT) ? null : amount,
+          (whiteCode == NO_CARD) ? null : VCard.of(whiteCode),
+          (blackCode == NO_CARD) ? null : VCard.of(blackCode),
+          isLoop(event));
+    }
+
+    /** Pack event into long */
+    public long pack() {
+      return EventQueue.pack(type, winner,
+          (cardAmount == null) ? NO_AMOUNT : cardAmount,
+          (whiteCard == null) ? NO_CARD : whiteCard.code,
+          (blackCard == null) ? NO_CARD : blackCard.code)
+          | ((loop) ? LOOP : 0);
+    }
+  }
+
+  // --- Packed events ---
+  // Every event is packed into single long, lowest bits first:
+  // 0..3   - type, Event.ordinal()
+  // 4..7   - player, 0 if there is none, player's index + 1 otherwise
+  // 8..31  - card amount + 1, 0 if there is none
+  // 32..47 - code of white card + 1, 0 if there is none
+  // 48..62 - code of black card + 1, 0 if there is none
+  // 63     - game is stuck in infinite loop
+  // Codes of cards are below 2^15 - 1, see VCard.MAX_RANKS
+
+  /** Packed value of missing card amount */
+  public static final int NO_AMOUNT = -1;
+  /** Packed value of missing card */
+  public static final short NO_CARD = -1;
+  /** Packed value of missing player, see {@link #player(long)} */
+  public static final int NO_PLAYER = -1;
+  /** Flag of packed {@link Event#GAME_FINISH}, if game would never end */
+  public static final long LOOP = 1L << 63;
+
+  private static final Event[] TYPES = Event.values();
+  private static final Player[] PLAYERS = Player.values();
+
+  /** Mask of all event types, see {@link #mask(Event)} */
+  public static final int ALL_EVENTS = (1 << TYPES.length) - 1;
+
+  /** Bit of given event type in masks */
+  public static int mask(Event type) {
+    return 1 << type.ordinal();
   }
 
-  protected Queue<Event> evQueue = new LinkedList<Event>();
+  /** Pack event into long */
+  public static long pack(Event type, Player winner, int cardAmount, short whiteCode, short blackCode) {
+    return pack(type, (winner == null) ? NO_PLAYER : winner.idx, cardAmount, whiteCode, blackCode);
+  }
+
+  /** Pack event of player with given index into long, see {@link #player(long)} */
+  public static long pack(Event type, int player, int cardAmount, short whiteCode, short blackCode) {
+    return type.ordinal()
+        | (long) ((player + 1) & 0xF) << 4
+        | (long) ((cardAmount + 1) & 0xFFFFFF) << 8
+        | (long) ((whiteCode + 1) & 0xFFFF) << 32
+        | (long) ((blackCode + 1) & 0x7FFF) << 48;
+  }
+
+  public static Event type(long event) {
+    return TYPES[(int) (event & 0xF)];
+  }
+
+  /**
+   * Winner of packed event, or null if there is none. <br>
+   * Null as well for players of {@link MultiGame} other than the first two,
+   * see {@link #player(long)}.
+   */
+  public static Player winner(long event) {
+    var player = player(event);
+    return (player == NO_PLAYER || player >= PLAYERS.length) ? null : PLAYERS[player];
+  }
+
+  /**
+   * Index of player of packed event, or {@link #NO_PLAYER} if there is none.
+   * <br>
+   * Player is the winner in events of {@link Game}, and index of
+   * {@link Player} the same way. Events of every player of {@link MultiGame}
+   * are told apart by it, see {@link MultiGame#events}.
+   */
+  public static int player(long event) {
+    return ((int) (event >>> 4) & 0xF) - 1;
+  }
+
+  /** Card amount of packed event, or {@link #NO_AMOUNT} if there is none */
+  public static int amount(long event) {
+    return ((int) (event >>> 8) & 0xFFFFFF) - 1;
+  }
+
+  /** Code of white card of packed event, or {@link #NO_CARD} if there is none */
+  public static short whiteCode(long event) {
+    return (short) (((int) (event >>> 32) & 0xFFFF) - 1);
+  }
+
+  /** Code of black card of packed event, or {@link #NO_CARD} if there is none */
+  public static short blackCode(long event) {
+    return (short) (((int) (event >>> 48) & 0x7FFF) - 1);
+  }
+
+  /** Check if game of packed event is stuck in infinite loop */
+  public static boolean isLoop(long event) {
+    return (event & LOOP) != 0;
+  }
+
+  // --- Queue ---
+  // Ring buffer of packed events
+  // It is reused between rounds, and grows only if round emits more events
+  // than ever before
+  private long[] ring = new long[16];
+  private int head = 0;
+  private int size = 0;
+
+  /**
+   * View of queue as {@link Entry} values, unpacked when event is read. Use
+   * {@link #cursor()} if you want to avoid that.
+   */
+  protected Queue<Entry> evQueue = new EntryView();
+
+  private transient Cursor cursor = new Cursor();
+
+  // Types of events being stored, others are skipped
+  private int mask = ALL_EVENTS;
+
+  // Listeners with their masks, arrays are replaced on every change, so
+  // listeners can (un)subscribe while events are published
+  private transient Listener[] listeners = null;
+  private transient int[] listenerMasks = null;
+  // Types wanted by at least one listener
+  private transient int listening = 0;
+
+  /**
+   * Receives events synchronously, as soon as they are emitted by the game.
+   * <br>
+   * Event is packed, see {@link EventQueue#type(long)} and other static
+   * methods to read it.
+   */
+  @FunctionalInterface
+  public interface Listener {
+    void onEvent(long event);
+  }
 
   /**
    * Iterate over all evens in queue <br>
@@ -199,12 +371,275 @@ public class EventQueue implements Serializable {
    * <br>
    * {@code events.forEach((e) -> println(e)) }
    */
-  public void forEach(Consumer<? super Event> action) {
+  public void forEach(Consumer<? super Entry> action) {
     evQueue.forEach(action);
-    evQueue.clear();
+    clear();
+  }
+
+  /** Amount of events in queue */
+  public int size() {
+    return size;
+  }
+
+  /** Get packed event at given position */
+  public long get(int i) {
+    if (i < 0 || i >= size)
+      throw new IndexOutOfBoundsException(i);
+    return ring[(head + i) & (ring.length - 1)];
+  }
+
+  /** Get mask of event types being stored */
+  public int getMask() {
+    return mask;
+  }
+
+  /**
+   * Store only given types of events. <br>
+   * {@code events.setMask(EventQueue.mask(Event.GAME_FINISH))}
+   */
+  public void setMask(int mask) {
+    this.mask = mask;
+  }
+
+  /**
+   * Call listener with every emitted event of given types, whether they are
+   * stored in queue or not. Events of type which is neither stored nor
+   * listened to are not created at all. <br>
+   * 
+   * <pre>
+   * events.subscribe(EventQueue.mask(Event.GAME_FINISH) | EventQueue.mask(Event.COMPARE_CARDS),
+   *     e -> stats.add(EventQueue.type(e), EventQueue.winner(e)));
+   * </pre>
+   */
+  public void subscribe(int mask, Listener listener) {
+    var count = (listeners == null) ? 0 : listeners.length;
+    var grown = new Listener[count + 1];
+    var grownMasks = new int[count + 1];
+    if (count > 0) {
+      System.arraycopy(listeners, 0, grown, 0, count);
+      System.arraycopy(listenerMasks, 0, grownMasks, 0, count);
+    }
+    grown[count] = listener;
+    grownMasks[count] = mask;
+    setListeners(grown, grownMasks);
   }
 
-  protected void add(Event e){
-   evQueue.add(e);
+  /** Stop calling given listener */
+  public void unsubscribe(Listener listener) {
+    if (listeners == null)
+      return;
+    for (var i = 0; i < listeners.length; i++) {
+      if (listeners[i] != listener)
+        continue;
+      var shrunk = new Listener[listeners.length - 1];
+      var shrunkMasks = new int[listeners.length - 1];
+      System.arraycopy(listeners, 0, shrunk, 0, i);
+      System.arraycopy(listenerMasks, 0, shrunkMasks, 0, i);
+      System.arraycopy(listeners, i + 1, shrunk, i, shrunk.length - i);
+      System.arraycopy(listenerMasks, i + 1, shrunkMasks, i, shrunk.length - i);
+      setListeners(shrunk, shrunkMasks);
+      return;
+    }
+  }
+
+  private void setListeners(Listener[] listeners, int[] masks) {
+    var listening = 0;
+    for (var m : masks)
+      listening |= m;
+    this.listeners = (listeners.length == 0) ? null : listeners;
+    this.listenerMasks = masks;
+    this.listening = listening;
+  }
+
+  /** Remove all events from queue */
+  public void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  /**
+   * Get cursor over events in queue. Cursor does not allocate anything and does
+   * not flush the queue. <br>
+   * NOTE: Cursor is shared, so every call resets it to the first event. <br>
+   * <br>
+   * 
+   * <pre>
+   * var c = events.cursor();
+   * while (c.next())
+   *   if (c.type() == Event.COMPARE_CARDS)
+   *     println(c.winner());
+   * </pre>
+   */
+  public Cursor cursor() {
+    cursor.i = -1;
+    return cursor;
+  }
+
+  /**
+   * Java deserialization. <br>
+   * Legacy saves kept queue of enums instead of ring buffer, their events are
+   * dropped.
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    cursor = new Cursor();
+    if (ring == null) {
+      ring = new long[16];
+      head = 0;
+      size = 0;
+      evQueue = new EntryView();
+      mask = ALL_EVENTS;
+    }
+  }
+
+  public class Cursor implements Serializable {
+    int i = -1;
+
+    /** Move to next event, returns false if there is no more events */
+    public boolean next() {
+      if (i + 1 >= size)
+        return false;
+      i++;
+      return true;
+    }
+
+    /** Current event packed into long */
+    public long event() {
+      return get(i);
+    }
+
+    public Event type() {
+      return EventQueue.type(event());
+    }
+
+    public Player winner() {
+      return EventQueue.winner(event());
+    }
+
+    public int amount() {
+      return EventQueue.amount(event());
+    }
+
+    public short whiteCode() {
+      return EventQueue.whiteCode(event());
+    }
+
+    public short blackCode() {
+      return EventQueue.blackCode(event());
+    }
+
+    public boolean isLoop() {
+      return EventQueue.isLoop(event());
+    }
+  }
+
+  protected void add(long event) {
+    if (size == ring.length)
+      grow();
+    ring[(head + size) & (ring.length - 1)] = event;
+    size++;
+  }
+
+  protected void add(Event type) {
+    add(type, null, NO_AMOUNT, NO_CARD, NO_CARD, 0);
+  }
+
+  protected void add(Event type, Player winner, int cardAmount, short whiteCode, short blackCode) {
+    add(type, winner, cardAmount, whiteCode, blackCode, 0);
+  }
+
+  protected void add(Event type, Player winner, int cardAmount, short whiteCode, short blackCode, long flags) {
+    add(type, (winner == null) ? NO_PLAYER : winner.idx, cardAmount, whiteCode, blackCode, flags);
+  }
+
+  protected void add(Event type, int player, int cardAmount, short whiteCode, short blackCode) {
+    add(type, player, cardAmount, whiteCode, blackCode, 0);
+  }
+
+  protected void add(Event type, int player, int cardAmount, short whiteCode, short blackCode, long flags) {
+    var bit = mask(type);
+    if (((mask | listening) & bit) == 0)
+      return;
+
+    var event = pack(type, player, cardAmount, whiteCode, blackCode) | flags;
+    if ((mask & bit) != 0)
+      add(event);
+    if ((listening & bit) != 0)
+      publish(event, bit);
+  }
+
+  private void publish(long event, int bit) {
+    var listeners = this.listeners;
+    var masks = this.listenerMasks;
+    for (var i = 0; i < listeners.length; i++)
+      if ((masks[i] & bit) != 0)
+        listeners[i].onEvent(event);
+  }
+
+  private long poll() {
+    var event = ring[head];
+    head = (head + 1) & (ring.length - 1);
+    size--;
+    return event;
+  }
+
+  // Capacity is always power of two
+  private void grow() {
+    var grown = new long[ring.length * 2];
+    for (var i = 0; i < size; i++)
+      grown[i] = get(i);
+    ring = grown;
+    head = 0;
+  }
+
+  private class EntryView extends AbstractQueue<Entry> implements Serializable {
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public boolean offer(Entry e) {
+      EventQueue.this.add(e.pack());
+      return true;
+    }
+
+    @Override
+    public Entry poll() {
+      if (size == 0)
+        return null;
+      return Entry.of(EventQueue.this.poll());
+    }
+
+    @Override
+    public Entry peek() {
+      if (size == 0)
+        return null;
+      return Entry.of(get(0));
+    }
+
+    @Override
+    public void clear() {
+      EventQueue.this.clear();
+    }
+
+    @Override
+    public Iterator<Entry> iterator() {
+      return new Iterator<Entry>() {
+        int i = 0;
+
+        @Override
+        public boolean hasNext() {
+          return i < size;
+        }
+
+        @Override
+        public Entry next() {
+          if (i >= size)
+            throw new NoSuchElementException();
+          return Entry.of(get(i++));
+        }
+      };
+    }
   }
 }
@@ -1,28 +1,39 @@
 package game;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Random;
-import java.util.Stack;
+import java.util.SplittableRandom;
 
 import cards.Card;
+import cards.CardRegistry;
 import cards.Default;
-import cards.Suit;
 import cards.VCard;
+import game.EventQueue.Entry;
 import game.EventQueue.Event;
 import game.EventQueue.Player;
+import game.jfr.DispatchEvent;
+import game.jfr.LoadEvent;
+import game.jfr.RoundEvent;
+import game.jfr.SaveEvent;
+import game.jfr.WarEvent;
+import game.metrics.EngineMetrics;
 
 
 // Liana -> VCard Card Suit Default Usernames Assets file structure (getAssetPath). Game.regıstered cards (card regıstratıon). Player
@@ -32,12 +43,12 @@ import game.EventQueue.Player;
 // Danylo -> Connect frontend and backend. Change vısıbılıty modıfıers and organıze the code structure
 // Omer -> Serialization and Deserialization (save and load game file). Readme.md. gitignore. Wrote docs
 public class Game implements Serializable {
+  private static final long serialVersionUID = 5943774037670474245L;
+
   // Representation of physical ingame table
   // Can be used for lookup any moment of the game
-  public class Table implements Serializable {
-    // Cards of all players during the war
-    List<VCard> invisible = new Stack<VCard>();
-
+  // Two-player view of the table, decks of players are indexed by Player.idx
+  public class Table extends WarTable implements Serializable {
     // Current player's card on table
     private VCard cardWhite;
 
@@ -46,12 +57,15 @@ public class Game implements Serializable {
     // Player's decks
     // We use queue, since it is first input -> first output
     // And we can put new cards in bottom of deck
-    protected Queue<VCard> deckWhite;
-    protected Queue<VCard> deckBlack;
-    // Is war ongoing
-    private boolean isWar = false;
-    // Is game over
-    private boolean isFinished = false;
+    protected Deck deckWhite;
+    protected Deck deckBlack;
+
+    Table() {
+      // Every deck is able to hold all cards in game
+      super(2, cardCount());
+      deckWhite = decks[Player.WHITE.idx];
+      deckBlack = decks[Player.BLACK.idx];
+    }
 
     public VCard getCardWhite() {
       return cardWhite;
@@ -70,40 +84,15 @@ public class Game implements Serializable {
      * Returns -1 if {@link game.EventQueue.Player} specified wrong
      */
     public int getDeckSize(Player player) {
-      if (player == null)
-        return -1;
-      switch (player) {
-        case BLACK:
-          return deckBlack.size();
-        case WHITE:
-          return deckWhite.size();
-        default:
-          return -1;
-      }
+      return (player == null) ? -1 : decks[player.idx].size();
     }
 
-    private Queue<VCard> getDeck(Player player) {
-      if (player == null)
-        return null;
-      switch (player) {
-        case BLACK:
-          return deckBlack;
-        case WHITE:
-          return deckWhite;
-        default:
-          return null;
-      }
+    private Deck getDeck(Player player) {
+      return (player == null) ? null : decks[player.idx];
     }
 
     protected VCard pollCard(Player player) {
-      switch (player) {
-        case BLACK:
-          return deckBlack.poll();
-        case WHITE:
-          return deckWhite.poll();
-        default:
-          return null;
-      }
+      return decks[player.idx].poll();
     }
 
     public boolean isWar() {
@@ -114,8 +103,196 @@ public class Game implements Serializable {
       return isFinished;
     }
 
-    private void finish() {
-      isFinished = true;
+    /**
+     * Check if game was stopped, because it would never end. See
+     * {@link Game#setCycleDetection(boolean)}
+     */
+    public boolean isLoop() {
+      return isLoop;
+    }
+
+    /**
+     * Hash of current state of table, including order of cards in decks. <br>
+     * Returns 0 if cycle detection is disabled, see
+     * {@link Game#setCycleDetection(boolean)}
+     */
+    @Override
+    public long hash() {
+      // Hash of war would be ~0 without keys
+      if (!deckWhite.isHashed())
+        return 0;
+      return CycleDetector.hash(deckWhite.hash(), deckBlack.hash(), invisible.hash(), isWar);
+    }
+
+    /** Get winner of the game. Returns null if game is not over or it is a draw */
+    public Player getWinner() {
+      return (winner < 0) ? null : Player.fromIdx(winner);
+    }
+
+    /** Amount of rounds played */
+    public int getRounds() {
+      return rounds;
+    }
+
+    /** Amount of wars declared */
+    public int getWars() {
+      return wars;
+    }
+
+    /** Longest chain of draws in a single war */
+    public int getLongestWar() {
+      return longestWar;
+    }
+
+    // --- Binary format ---
+    /** Amount of bytes needed to write table */
+    int encodedSize() {
+      return 2 * 2 + 2 + 4 * 4 + deckWhite.encodedSize() + deckBlack.encodedSize() + invisible.encodedSize();
+    }
+
+    /** Write whole state of table, see {@link GameCodec} */
+    void write(ByteBuffer buffer) {
+      buffer.putShort((cardWhite == null) ? EventQueue.NO_CARD : cardWhite.code);
+      buffer.putShort((cardBlack == null) ? EventQueue.NO_CARD : cardBlack.code);
+      buffer.put((byte) ((isWar ? 1 : 0) | (isFinished ? 2 : 0) | (isLoop ? 4 : 0)));
+      buffer.put((byte) winner);
+      buffer.putInt(rounds);
+      buffer.putInt(wars);
+      buffer.putInt(warChain);
+      buffer.putInt(longestWar);
+      deckWhite.write(buffer);
+      deckBlack.write(buffer);
+      invisible.write(buffer);
+    }
+
+    /** Restore state of table written by {@link #write(ByteBuffer)} */
+    void read(ByteBuffer buffer) throws IOException {
+      cardWhite = readCard(buffer);
+      cardBlack = readCard(buffer);
+      var flags = buffer.get();
+      isWar = (flags & 1) != 0;
+      isFinished = (flags & 2) != 0;
+      isLoop = (flags & 4) != 0;
+      var winnerIdx = buffer.get();
+      if (winnerIdx < -1 || winnerIdx > 1)
+        throw new IOException("Unknown winner " + winnerIdx);
+      winner = winnerIdx;
+      inGame = atWar = 3;
+      rounds = buffer.getInt();
+      wars = buffer.getInt();
+      warChain = buffer.getInt();
+      longestWar = buffer.getInt();
+      deckWhite.read(buffer, registry.codeCount());
+      deckBlack.read(buffer, registry.codeCount());
+      invisible.read(buffer, registry.codeCount());
+    }
+
+    private VCard readCard(ByteBuffer buffer) throws IOException {
+      var code = buffer.getShort();
+      if (code == EventQueue.NO_CARD)
+        return null;
+      if (code < 0 || code >= registry.codeCount())
+        throw new IOException("Unknown card code " + code);
+      return registry.get(code);
+    }
+
+    // --- Java serialization ---
+    private static final long serialVersionUID = -919371428410435492L;
+
+    // Decks are written as collections of cards, as legacy saves have them,
+    // statistics are missing in legacy saves
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("invisible", List.class),
+        new ObjectStreamField("cardWhite", VCard.class),
+        new ObjectStreamField("cardBlack", VCard.class),
+        new ObjectStreamField("deckWhite", Queue.class),
+        new ObjectStreamField("deckBlack", Queue.class),
+        new ObjectStreamField("isWar", boolean.class),
+        new ObjectStreamField("isFinished", boolean.class),
+        new ObjectStreamField("winner", Player.class),
+        new ObjectStreamField("isLoop", boolean.class),
+        new ObjectStreamField("rounds", int.class),
+        new ObjectStreamField("wars", int.class),
+        new ObjectStreamField("warChain", int.class),
+        new ObjectStreamField("longestWar", int.class) };
+
+    // Decks of deserialized table, until Game.readObject() moves them into new
+    // table, since table has no game to size its decks while being read
+    private transient Collection<?>[] readDecks;
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      var fields = out.putFields();
+      fields.put("invisible", new ArrayList<VCard>(invisible));
+      fields.put("cardWhite", cardWhite);
+      fields.put("cardBlack", cardBlack);
+      fields.put("deckWhite", new LinkedList<VCard>(deckWhite));
+      fields.put("deckBlack", new LinkedList<VCard>(deckBlack));
+      fields.put("isWar", isWar);
+      fields.put("isFinished", isFinished);
+      fields.put("winner", getWinner());
+      fields.put("isLoop", isLoop);
+      fields.put("rounds", rounds);
+      fields.put("wars", wars);
+      fields.put("warChain", warChain);
+      fields.put("longestWar", longestWar);
+      out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      var fields = in.readFields();
+      readDecks = new Collection<?>[] { (Collection<?>) fields.get("deckWhite", null),
+          (Collection<?>) fields.get("deckBlack", null), (Collection<?>) fields.get("invisible", null) };
+      cardWhite = (VCard) fields.get("cardWhite", null);
+      cardBlack = (VCard) fields.get("cardBlack", null);
+      isWar = fields.get("isWar", false);
+      isFinished = fields.get("isFinished", false);
+      var winner = (Player) fields.get("winner", null);
+      this.winner = (winner == null) ? -1 : winner.idx;
+      isLoop = fields.get("isLoop", false);
+      rounds = fields.get("rounds", 0);
+      wars = fields.get("wars", 0);
+      warChain = fields.get("warChain", 0);
+      longestWar = fields.get("longestWar", 0);
+    }
+
+    /** Bring table to the state of deserialized table */
+    private void copyFromRead(Table source) throws InvalidObjectException {
+      var decks = new Deck[] { deckWhite, deckBlack, invisible };
+      for (var i = 0; i < decks.length; i++) {
+        if (source.readDecks[i] == null)
+          continue;
+        for (var card : source.readDecks[i]) {
+          if (!(card instanceof VCard) || ((VCard) card).code >= registry.codeCount()
+              || decks[i].size() == decks[i].capacity())
+            throw new InvalidObjectException("Invalid deck of table");
+          decks[i].add((VCard) card);
+        }
+      }
+      cardWhite = source.cardWhite;
+      cardBlack = source.cardBlack;
+      isWar = source.isWar;
+      isFinished = source.isFinished;
+      winner = source.winner;
+      isLoop = source.isLoop;
+      rounds = source.rounds;
+      wars = source.wars;
+      warChain = source.warChain;
+      longestWar = source.longestWar;
+    }
+
+    /** Bring table to the state of given table, which may belong to other game */
+    private void copyFrom(Table source) {
+      super.copyFrom(source);
+      cardWhite = source.cardWhite;
+      cardBlack = source.cardBlack;
+    }
+
+    /** Bring table to the state before first round */
+    @Override
+    void reset() {
+      super.reset();
+      cardWhite = null;
+      cardBlack = null;
     }
 
     /** Place given card on visible spots on table */
@@ -134,7 +311,25 @@ public class Game implements Serializable {
 
   // Registered cards in game
   protected List<Card> registeredCards;
-  protected Table table = new Table();
+  // Canonical cards and their codes
+  protected CardRegistry registry;
+  protected Table table;
+  // Detects infinite games, disabled if null
+  protected CycleDetector cycleDetector = null;
+  // Records snapshots of table, disabled if null
+  protected transient GameJournal journal = null;
+  // Records metrics of rounds, disabled if null
+  protected transient EngineMetrics metrics = null;
+  // Copies of registered cards dealt together, 0 after loading legacy save means 1
+  protected int decksInShoe = 1;
+  // Rules of the game, null after loading legacy save means standard
+  private transient Rules rules = Rules.STANDARD;
+  // Round of other than standard rules, standard round is played if null
+  private transient WarRound variant = null;
+  // Flight recorder event of ongoing war, if recording is on
+  private transient WarEvent warEvent = null;
+  // Reused by every deal
+  private transient Dealer dealer = null;
   // We let it be public, because we dont read eventqueue inside game logic
   // Client can do anything with it.
   // NOTE: You can also use game.getEvents();
@@ -143,50 +338,116 @@ public class Game implements Serializable {
   protected String whiteUsername = null;
   protected String blackUsername = "Roboter";
 
+  /** Most cards in game, amounts of cards must fit into packed events */
+  public static final int MAX_CARDS = (1 << 24) - 2;
+
   // --- Constructors ---
   public Game() {
     registeredCards = Arrays.asList(new Default().cards);
+    registry = new CardRegistry(registeredCards);
+    table = new Table();
   }
 
   public Game(Card[] cards) {
     registeredCards = new ArrayList<Card>(Arrays.asList(cards));
+    registry = new CardRegistry(registeredCards);
+    table = new Table();
   }
 
   public Game(List<Card> cards) {
     registeredCards = cards;
+    registry = new CardRegistry(registeredCards);
+    table = new Table();
   }
 
   // --- Save/Load game to/form fs ---
-  /** Load game from fs */
+  /** Load game with default cards from fs */
   public static Game load(String path) throws Exception {
+    return load(path, Arrays.asList(new Default().cards));
+  }
+
+  /**
+   * Load game with given registered cards from fs. <br>
+   * Files written by {@link #save(String, String)} are in binary format (see
+   * {@link GameCodec}). Older saves made with java serialization are loaded as
+   * they are, with cards they were saved with.
+   */
+  public static Game load(String path, List<Card> cards) throws Exception {
+    var event = new LoadEvent();
+    event.begin();
+    ByteBuffer buffer;
+    try (var channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+      buffer = ByteBuffer.allocate((int) channel.size());
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+        ;
+      buffer.flip();
+    }
+
+    if (event.shouldCommit()) {
+      event.path = path;
+      event.bytes = buffer.remaining();
+      event.legacy = !GameCodec.isBinary(buffer);
+    }
+
+    if (GameCodec.isBinary(buffer)) {
+      var game = GameCodec.decode(buffer, cards);
+      event.commit();
+      return game;
+    }
+
+    // Legacy save
     // Reading the object from a file
-    FileInputStream file = new FileInputStream(path);
-    ObjectInputStream in = new ObjectInputStream(file);
+    var in = new ObjectInputStream(new ByteArrayInputStream(buffer.array()));
 
     // Method for deserialization of object
     var game = (Game) in.readObject();
 
     in.close();
-    file.close();
+    event.commit();
 
     return game;
   }
 
+  /**
+   * Java deserialization of legacy saves. <br>
+   * Saves older than {@link CardRegistry} have no registry, and their table
+   * holds decks as collections of cards. Table is rebuilt with decks sized for
+   * this game.
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    if (registeredCards == null || table == null || table.readDecks == null)
+      throw new InvalidObjectException("Game has no cards or table");
+    if (registry == null)
+      registry = new CardRegistry(registeredCards);
+    var read = table;
+    table = new Table();
+    table.copyFromRead(read);
+    if (cycleDetector != null)
+      table.setKeys(cycleDetector.keys);
+    table.reseedCollect();
+  }
+
   /** Save game to fs */
   public void save(String path, String name) throws Exception {
     // Create dirs if does not exists
     Files.createDirectories(Paths.get(path));
 
-    var file = new FileOutputStream(path + "/" + name);
-
-    // Serialize object
-    var out = new ObjectOutputStream(file);
-
-    // Method for serialization of object
-    out.writeObject(this);
+    var event = new SaveEvent();
+    event.begin();
+    var buffer = GameCodec.encode(this);
+    var bytes = buffer.remaining();
+    try (var channel = FileChannel.open(Paths.get(path, name), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+    }
 
-    out.close();
-    file.close();
+    if (event.shouldCommit()) {
+      event.path = Paths.get(path, name).toString();
+      event.bytes = bytes;
+      event.commit();
+    }
   }
 
   // --- Getters and Setters ---
@@ -212,7 +473,7 @@ public class Game implements Serializable {
     }
   }
 
-  public Queue<Event> getEvents(){
+  public Queue<Entry> getEvents(){
     return this.events.evQueue;   
   }
 
@@ -238,10 +499,118 @@ public class Game implements Serializable {
     return table.deckBlack.size();
   }
 
-  /** Get path to png image of given {@link VCard} */
+  /** Get path to png image of given {@link VCard}, see {@link CardRegistry#assets()} */
   public String getAssetPath(VCard vCard) {
-    var card = registeredCards.get(vCard.cardIdx);
-    return card.getAssetPath(vCard.suit);
+    return registry.assets().path(vCard.code);
+  }
+
+  /** Get canonical {@link VCard} of given code */
+  public VCard getCard(short code) {
+    return registry.get(code);
+  }
+
+  /**
+   * Detect games which would never end. <br>
+   * Once state of table repeats, game is finished without a winner and
+   * {@link Event#GAME_FINISH} is marked with {@link Entry#loop()}.
+   */
+  public void setCycleDetection(boolean enabled) {
+    cycleDetector = (enabled) ? new CycleDetector(registry.codeCount()) : null;
+    table.setKeys((enabled) ? cycleDetector.keys : null);
+  }
+
+  public boolean isCycleDetection() {
+    return cycleDetector != null;
+  }
+
+  /**
+   * Hash table with given keys of card codes, without detecting cycles. <br>
+   * Used by {@link Solver}, which detects cycles of its own.
+   */
+  void setHashKeys(long[] keys) {
+    cycleDetector = null;
+    table.setKeys(keys);
+  }
+
+  /**
+   * Bring table to the state of table of given game, which must have the same
+   * registered cards. Journal is detached.
+   */
+  void copyTable(Game source) {
+    if (source.registry.fingerprint() != registry.fingerprint())
+      throw new IllegalArgumentException("Game has different registered cards");
+    if (source.getDecksInShoe() != getDecksInShoe())
+      throw new IllegalArgumentException("Game has " + source.getDecksInShoe() + " decks in shoe, not "
+          + getDecksInShoe());
+    if (cycleDetector != null)
+      cycleDetector.reset();
+    journal = null;
+    warEvent = null;
+    table.copyFrom(source.table);
+  }
+
+  // --- Rules ---
+  /**
+   * Play by given rules from now on. <br>
+   * Rules are resolved once into round of their own, so standard rules still
+   * play the same round as before, without checking any rules. <br>
+   * Order of collected cards with {@link Rules#shuffleCollected()} is seeded
+   * by every deal, even under other rules, so rules can be changed after the
+   * deal too. Table never repeats with {@link Rules#shuffleCollected()}, so
+   * games are not stopped by cycle detection.
+   */
+  public void setRules(Rules rules) {
+    this.rules = rules;
+    variant = (rules.isStandard()) ? null : variantRound();
+  }
+
+  public Rules getRules() {
+    return (rules == null) ? Rules.STANDARD : rules;
+  }
+
+  // Round of current rules shared with MultiGame, with events of both players together
+  private WarRound variantRound() {
+    return new WarRound(table, events, true, rules, registry.size());
+  }
+
+  /** Get registry of cards in game */
+  public CardRegistry getRegistry() {
+    return registry;
+  }
+
+  // --- Shoe ---
+  /**
+   * Deal given amount of copies of registered cards shuffled together, like a
+   * casino shoe. <br>
+   * Table is emptied when amount changes, so decks have to be dispatched
+   * again. Every deck and the war pile hold all cards in the shoe, and are
+   * allocated once here.
+   */
+  public void setDecksInShoe(int decks) {
+    if (decks < 1 || (long) decks * registry.codeCount() > MAX_CARDS)
+      throw new IllegalArgumentException("Shoe of " + decks + " decks of " + registry.codeCount()
+          + " cards does not fit " + MAX_CARDS + " cards");
+    if (decks == getDecksInShoe())
+      return;
+    decksInShoe = decks;
+    table = new Table();
+    if (cycleDetector != null) {
+      cycleDetector.reset();
+      table.setKeys(cycleDetector.keys);
+    }
+    dealer = null;
+    if (variant != null)
+      variant = variantRound();
+    warEvent = null;
+  }
+
+  public int getDecksInShoe() {
+    return (decksInShoe == 0) ? 1 : decksInShoe;
+  }
+
+  /** Amount of all cards in game, including copies in the shoe */
+  public int cardCount() {
+    return registry.codeCount() * getDecksInShoe();
   }
 
   // --- Dispatching decks ---
@@ -257,21 +626,145 @@ public class Game implements Serializable {
     dispatchDecks(seed, false);
   }
 
+  /**
+   * Deal cards shuffled by given random stream. <br>
+   * Streams of {@link #dealRandom(long, long)} let any amount of workers deal
+   * independent and reproducible games.
+   */
+  public void dispatchDecks(SplittableRandom random) {
+    var event = new DispatchEvent();
+    event.begin();
+
+    var codes = dealer().shuffled(random);
+    deal(codes);
+
+    if (event.shouldCommit()) {
+      event.shuffled = true;
+      event.cards = codes.length;
+      event.commit();
+    }
+  }
+
+  /**
+   * Random stream of game with given index, in a sweep of given master seed.
+   * <br>
+   * Stream depends only on master seed and index, and streams of different
+   * indexes are independent of each other.
+   */
+  public static SplittableRandom dealRandom(long masterSeed, long index) {
+    return new SplittableRandom(mix(masterSeed + index * 0x9E3779B97F4A7C15L));
+  }
+
+  // Finalizer of MurmurHash3, different from mixing inside SplittableRandom
+  static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+    z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return z ^ (z >>> 33);
+  }
+
   private void dispatchDecks(int seed, boolean noShuffle) {
+    var event = new DispatchEvent();
+    event.begin();
+
+    var codes = (noShuffle) ? dealer().ordered() : dealer().shuffled(seed);
+    deal(codes);
+
+    if (event.shouldCommit()) {
+      event.seed = seed;
+      event.shuffled = !noShuffle;
+      event.cards = codes.length;
+      event.commit();
+    }
+  }
+
+  private Dealer dealer() {
+    if (dealer == null)
+      dealer = new Dealer(registry, getDecksInShoe());
+    return dealer;
+  }
+
+  // Start new game with black getting first half of codes, white the rest
+  private void deal(short[] codes) {
+    table.reset();
+    if (cycleDetector != null)
+      cycleDetector.reset();
+    // Journal holds single deal only
+    journal = null;
+    warEvent = null;
+    Dealer.deal(codes, table.decks);
+    table.reseedCollect();
+  }
+
+  // --- Simulation ---
+  /**
+   * Play rounds until game is over, but not more than given amount of rounds.
+   * <br>
+   * Events are not stored during simulation, so event queue stays empty. Only
+   * events wanted by listeners of {@link EventQueue#subscribe} are created.
+   */
+  public GameResult playToCompletion(int maxRounds) {
+    return playRounds(maxRounds);
+  }
+
+  /**
+   * Play given amount of rounds, or less if game is over earlier. <br>
+   * Events are not stored during simulation, so event queue stays empty. Only
+   * events wanted by listeners of {@link EventQueue#subscribe} are created.
+   */
+  public GameResult playRounds(int rounds) {
+    var mask = events.getMask();
+    events.setMask(0);
+    try {
+      for (var i = 0; i < rounds && !table.isFinished; i++)
+        playRound();
+    } finally {
+      events.setMask(mask);
+    }
+    return getResult();
+  }
 
-    var cards = new Stack<VCard>();
-    // Iterate over all types of same card.
-    for (var suitId = 0; suitId < 4; suitId++)
-      // Iterate over all cards.
-      for (var cardPrecendence = 0; cardPrecendence < registeredCards.size(); cardPrecendence++)
-        // Add VCard to temporary list.
-        cards.add(new VCard(cardPrecendence, Suit.fromId(suitId)));
+  // --- Metrics ---
+  /** Record metrics of every round into given registry, or stop if null */
+  public void setMetrics(EngineMetrics metrics) {
+    if (this.metrics != null)
+      events.unsubscribe(this.metrics.eventCounter());
+    this.metrics = metrics;
+    if (metrics != null)
+      events.subscribe(EventQueue.ALL_EVENTS, metrics.eventCounter());
+  }
 
-    if (!noShuffle)
-      Collections.shuffle(cards, new Random(seed));
+  public EngineMetrics getMetrics() {
+    return metrics;
+  }
 
-    table.deckBlack = new LinkedList<VCard>(cards.subList(0, (cards.size() / 2)));
-    table.deckWhite = new LinkedList<VCard>(cards.subList((cards.size() / 2), cards.size()));
+  // --- Journal ---
+  /**
+   * Record snapshots of this game into given journal, or stop if null. <br>
+   * NOTE: Journal is detached once new decks are dispatched.
+   */
+  public void setJournal(GameJournal journal) {
+    this.journal = journal;
+  }
+
+  public GameJournal getJournal() {
+    return journal;
+  }
+
+  /**
+   * Bring game to the state after given amount of rounds. <br>
+   * Nearest snapshot from journal is restored, and rest of rounds are replayed
+   * without events. See {@link #setJournal(GameJournal)}
+   */
+  public void seek(int round) throws IOException {
+    if (journal == null)
+      throw new IllegalStateException("Game has no journal");
+    journal.restore(this, round);
+    playRounds(round - table.rounds);
+  }
+
+  /** Summary of the game so far */
+  public GameResult getResult() {
+    return new GameResult(table.getWinner(), table.rounds, table.wars, table.longestWar, !table.isFinished, table.isLoop);
   }
 
   /**
@@ -289,13 +782,13 @@ public class Game implements Serializable {
       winner = (vCardBlack != null) ? Player.BLACK : winner;
 
       // Finish the game
-      table.finish();
+      table.finish((winner == null) ? -1 : winner.idx);
 
       // Can be null
       var winnerDeck = table.getDeck(winner);
 
       events.add(Event.ROUND_FINISH);
-      events.add(Event.create(Event.GAME_FINISH, winner, table.invisible.size(), null, null));
+      events.add(Event.GAME_FINISH, winner, table.invisible.size(), EventQueue.NO_CARD, EventQueue.NO_CARD);
 
       // If there is no winner, than invisible deck is not moving anywhere
       // Since that is a draw, we cannot move all the cards to specific player
@@ -305,17 +798,20 @@ public class Game implements Serializable {
       // found when players have identical stacks at the beginning
       // To get Identical decks you need to call [Game.dispatchDecksNoShuffle]
       if (winner != null) {
+        var before = winnerDeck.size();
 
-        for (var vCard : table.invisible)
-          winnerDeck.add(vCard);
         // Cards from invisible deck are moved out
-        table.invisible.clear();
+        table.invisible.drainTo(winnerDeck);
         // Add one of incoming cards to winner's stack
         winnerDeck.add((winner == Player.WHITE) ? vCardWhite : vCardBlack);
         // Add visible cards on table to winner's stack
-        winnerDeck.add(table.getCardBlack());
-
-        winnerDeck.add(table.getCardWhite());
+        // They are missing if game is over before cards were placed on table
+        if (table.getCardBlack() != null)
+          winnerDeck.add(table.getCardBlack());
+        if (table.getCardWhite() != null)
+          winnerDeck.add(table.getCardWhite());
+        table.collector = winner.idx;
+        table.collected = winnerDeck.size() - before;
 
       }
 
@@ -328,18 +824,100 @@ public class Game implements Serializable {
 
   // Perform actions according to current table
   public void playRound() {
+    // Flight recorder events cost nothing unless recording is on
+    var event = new RoundEvent();
+    event.begin();
+    var wars = table.wars;
+    var warChain = table.warChain;
+
+    if (metrics == null)
+      round();
+    else
+      measuredRound();
+
+    if (event.shouldCommit()) {
+      event.round = table.rounds;
+      event.war = table.isWar;
+      event.cardsMoved = table.collected;
+      event.finished = table.isFinished;
+      event.commit();
+    }
+    if (table.wars > wars || warEvent != null)
+      recordWar(warChain);
+    if (journal != null)
+      journal.record(this);
+  }
+
+  // Begin flight recorder event of new war, or commit the one which ended
+  private void recordWar(int warChain) {
+    if (warEvent == null) {
+      var event = new WarEvent();
+      if (!event.isEnabled())
+        return;
+      event.begin();
+      event.startRound = table.rounds;
+      warEvent = event;
+    } else if (!table.isWar || table.isFinished) {
+      warEvent.end();
+      warEvent.endRound = table.rounds;
+      warEvent.length = Math.max(warChain, table.warChain);
+      warEvent.cardsMoved = table.collected;
+      warEvent.winner = (table.collector < 0) ? null : Player.fromIdx(table.collector).name();
+      warEvent.commit();
+      warEvent = null;
+    }
+  }
+
+  private void measuredRound() {
+    var finished = table.isFinished;
+    var rounds = table.rounds;
+    var wars = table.wars;
+    var warChain = table.warChain;
+    var start = System.nanoTime();
+    round();
+    var nanos = System.nanoTime() - start;
+    metrics.recordRound(nanos, table.rounds > rounds, table.wars > wars, (table.warChain < warChain) ? warChain : 0,
+        !finished && table.isFinished, table.winner < 0, table.isLoop);
+  }
+
+  private void round() {
+    if (variant == null)
+      standardRound();
+    else {
+      variant.play(cycleDetector);
+      // Cards on table are kept only when both players played one
+      var white = table.faceUp[Player.WHITE.idx];
+      var black = table.faceUp[Player.BLACK.idx];
+      var both = white != EventQueue.NO_CARD && black != EventQueue.NO_CARD;
+      table.cardWhite = (both) ? registry.get(white) : null;
+      table.cardBlack = (both) ? registry.get(black) : null;
+    }
+  }
+
+  private void standardRound() {
     // Clear events on each round start
-    events.evQueue.clear();
+    events.clear();
     // Remove visible cards from table, since they are being moved in winner's deck
     // in previous round
     // Or if war was declared, they were moved in invisible deck
     // NOTE: We keep it cached between rounds, to reflect last state on table
     table.cardBlack = null;
     table.cardWhite = null;
+    table.collector = -1;
+    table.collected = 0;
 
     if (table.isFinished)
       return;
 
+    // Same state of table was already seen, so game would never end
+    if (cycleDetector != null && cycleDetector.visit(table.hash())) {
+      table.finish(-1);
+      table.isLoop = true;
+      events.add(Event.GAME_FINISH, null, table.invisible.size(), EventQueue.NO_CARD, EventQueue.NO_CARD, EventQueue.LOOP);
+      return;
+    }
+
+    table.rounds++;
     events.add(Event.ROUND_START);
     // Poll current player's visible cards
     var vCardWhite = table.pollCard(Player.WHITE);
@@ -350,11 +928,6 @@ public class Game implements Serializable {
 
     table.placeCards(vCardWhite, vCardBlack);
 
-    var pollEv = Event.POLL_CARDS;
-    pollEv.blackCard = vCardBlack;
-    pollEv.whiteCard = vCardWhite;
-    pollEv.cardAmount = 0;
-
     if (table.isWar())
       // Pull 4 cards from player's stacks
       for (var i = 0; i < 2; i++) {
@@ -368,24 +941,23 @@ public class Game implements Serializable {
         table.invisible.add(invVCardWhite);
       }
 
-    if (table.isWar())
-      pollEv.cardAmount = 4;
-    events.add(pollEv);
-
-    var compareEv = Event.COMPARE_CARDS;
+    events.add(Event.POLL_CARDS, null, (table.isWar()) ? 4 : 0, vCardWhite.code, vCardBlack.code);
 
     // Compare cards
     if (vCardWhite.cardIdx == vCardBlack.cardIdx) {
-      // Starting the war
-      table.isWar = true;
-
       // Events
-      compareEv.winner = null;
-      events.add(compareEv);
+      events.add(Event.COMPARE_CARDS);
       if (!table.isWar)
         // We dont want to declare if war is already ongoing
         events.add(Event.WAR_START);
-      events.add(Event.create(Event.HIDE_CARDS, null, null, vCardWhite, vCardBlack));
+      events.add(Event.HIDE_CARDS, null, EventQueue.NO_AMOUNT, vCardWhite.code, vCardBlack.code);
+
+      // Starting the war
+      if (!table.isWar)
+        table.wars++;
+      table.isWar = true;
+      table.warChain++;
+      table.longestWar = Math.max(table.longestWar, table.warChain);
 
       // Hide
       table.hideCards(vCardBlack, vCardWhite);
@@ -401,28 +973,24 @@ public class Game implements Serializable {
       var winnerDeck = (whiteWon) ? table.deckWhite : table.deckBlack;
 
       // Events
-      var cardAmount = table.invisible.size();
-      var collectEv = Event.create(Event.COLLECT_CARDS, winner, cardAmount, vCardWhite, vCardBlack);
-      collectEv.cardAmount = cardAmount;
-      compareEv.winner = winner;
-
-      events.add(compareEv);
+      events.add(Event.COMPARE_CARDS, winner, EventQueue.NO_AMOUNT, EventQueue.NO_CARD, EventQueue.NO_CARD);
       if (table.isWar)
         events.add(Event.WAR_END);
-      events.add(collectEv);
+      events.add(Event.COLLECT_CARDS, winner, table.invisible.size(), vCardWhite.code, vCardBlack.code);
 
       table.isWar = false;
+      table.warChain = 0;
 
       // Push back cards to bottom of deck
       winnerDeck.add(vCardBlack);
       winnerDeck.add(vCardWhite);
 
-      // Iterate over all invisible cards and add them as well
+      // Move all invisible cards as well
       // If there is no war, there should be no invisible cards
-      // And the list is empty
-      for (var vCard : table.invisible)
-        winnerDeck.add(vCard);
-      table.invisible.clear();
+      // And the deck is empty
+      table.collector = winner.idx;
+      table.collected = table.invisible.size() + 2;
+      table.invisible.drainTo(winnerDeck);
     }
 
     events.add(Event.ROUND_FINISH);
@@ -0,0 +1,157 @@
+package game;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import cards.Card;
+
+/**
+ * Compact binary format of saved game. <br>
+ * 
+ * <pre>
+ * int    magic, "WARG"
+ * short  version
+ * long   fingerprint of registered cards, see CardRegistry.fingerprint()
+ * int    amount of registered cards
+ * int    decks in shoe, see Game.setDecksInShoe() (since version 2)
+ * byte   flags, 1 - cycle detection is enabled
+ * byte   face-down cards in a war, see Rules (since version 3)
+ * byte   rules, 1 - low beats ace, 2 - last card face up, 4 - shuffle collected
+ *        (since version 3)
+ * long   state of random order of collected cards (since version 3)
+ * string username of white player
+ * string username of black player
+ * table  see Game.Table.write()
+ *
+ * string is int length in bytes (-1 if null) followed by UTF-8 bytes
+ * deck   is int amount of cards followed by short codes of cards
+ * </pre>
+ * 
+ * Whole game is written and read in a single pass over one
+ * {@link ByteBuffer}. Events are not saved, since they are cleared every
+ * round anyway.
+ */
+public class GameCodec {
+  public static final int MAGIC = 0x57415247;
+  public static final short VERSION = 3;
+
+  private static final int HEADER_SIZE = 4 + 2 + 8 + 4 + 4 + 1 + 1 + 1 + 8;
+
+  /** Check if buffer starts with binary save */
+  public static boolean isBinary(ByteBuffer buffer) {
+    return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+  }
+
+  /** Write game into new buffer, ready to be read */
+  public static ByteBuffer encode(Game game) {
+    var white = bytes(game.whiteUsername);
+    var black = bytes(game.blackUsername);
+
+    var size = HEADER_SIZE + stringSize(white) + stringSize(black) + game.table.encodedSize();
+    var buffer = ByteBuffer.allocate(size);
+
+    buffer.putInt(MAGIC);
+    buffer.putShort(VERSION);
+    buffer.putLong(game.registry.fingerprint());
+    buffer.putInt(game.registry.size());
+    buffer.putInt(game.getDecksInShoe());
+    buffer.put((byte) ((game.isCycleDetection()) ? 1 : 0));
+    var rules = game.getRules();
+    buffer.put((byte) rules.faceDown());
+    buffer.put((byte) ((rules.lowBeatsAce() ? 1 : 0) | (rules.lastCardFaceUp() ? 2 : 0)
+        | (rules.shuffleCollected() ? 4 : 0)));
+    buffer.putLong(game.table.collectState);
+    putString(buffer, white);
+    putString(buffer, black);
+    game.table.write(buffer);
+
+    return buffer.flip();
+  }
+
+  /** Read game written by {@link #encode(Game)}, with given registered cards */
+  public static Game decode(ByteBuffer buffer, List<Card> cards) throws IOException {
+    var game = new Game(cards);
+    decodeInto(buffer, game);
+    return game;
+  }
+
+  /** Replace state of given game with one written by {@link #encode(Game)} */
+  public static void decodeInto(ByteBuffer buffer, Game game) throws IOException {
+    try {
+      if (buffer.getInt() != MAGIC)
+        throw new IOException("Not a saved game");
+      var version = buffer.getShort();
+      if (version < 1 || version > VERSION)
+        throw new IOException("Unsupported version of saved game " + version);
+
+      var fingerprint = buffer.getLong();
+      var registered = buffer.getInt();
+      if (fingerprint != game.registry.fingerprint() || registered != game.registry.size())
+        throw new IOException("Game was saved with different registered cards");
+      var decks = (version >= 2) ? buffer.getInt() : 1;
+      if (decks < 1 || (long) decks * game.registry.codeCount() > Game.MAX_CARDS)
+        throw new IOException("Corrupted shoe of " + decks + " decks");
+      game.setDecksInShoe(decks);
+
+      var flags = buffer.get();
+      var cycleDetection = (flags & 1) != 0;
+      if (cycleDetection && game.isCycleDetection())
+        // States seen before belong to another timeline
+        game.cycleDetector.reset();
+      else
+        game.setCycleDetection(cycleDetection);
+      // Older saves keep rules of the game
+      if (version >= 3) {
+        var faceDown = buffer.get();
+        var rules = buffer.get();
+        if (faceDown < 0 || faceDown > 16 || (rules & ~7) != 0)
+          throw new IOException("Corrupted rules " + faceDown + ", " + rules);
+        var saved = new Rules(faceDown, (rules & 1) != 0, (rules & 2) != 0, (rules & 4) != 0);
+        if (!saved.equals(game.getRules()))
+          game.setRules(saved);
+      }
+      var collectState = (version >= 3) ? buffer.getLong() : 0;
+      game.whiteUsername = getString(buffer);
+      game.blackUsername = getString(buffer);
+      game.table.read(buffer);
+      if (version >= 3)
+        game.table.collectState = collectState;
+      else
+        game.table.reseedCollect();
+    } catch (BufferUnderflowException e) {
+      throw new IOException("Saved game is truncated", e);
+    }
+  }
+
+  // --- Strings ---
+  private static byte[] bytes(String s) {
+    return (s == null) ? null : s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static int stringSize(byte[] bytes) {
+    return 4 + ((bytes == null) ? 0 : bytes.length);
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] bytes) {
+    if (bytes == null) {
+      buffer.putInt(-1);
+      return;
+    }
+    buffer.putInt(bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) throws IOException {
+    var length = buffer.getInt();
+    if (length == -1)
+      return null;
+    if (length < 0 || length > buffer.remaining())
+      throw new IOException("Corrupted string of length " + length);
+    var bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,305 @@
+package game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import cards.Card;
+import cards.Default;
+
+/**
+ * Append-only journal of a game. <br>
+ * Since the rest of game is fully determined by the table, journal keeps only
+ * snapshots (see {@link GameCodec}): initial state of game, and then state of
+ * table after every {@code interval} rounds. Any round can be restored by
+ * loading nearest snapshot and replaying at most {@code interval} rounds. <br>
+ * Every record also keeps hashes of tables seen by cycle detection since the
+ * previous one (see {@link Game#setCycleDetection(boolean)}), so restored
+ * game stops a loop at the same round as the game which was recorded. <br>
+ * 
+ * <pre>
+ * Journal file:
+ * int    magic, "WARJ"
+ * short  version
+ * int    interval of snapshots in rounds
+ * Followed by records:
+ * int    round
+ * int    length of snapshot
+ * int    amount of hashes, missing in version 1
+ * bytes  snapshot written by GameCodec.encode()
+ * long[] hashes of tables seen since previous record, missing in version 1
+ * </pre>
+ * 
+ * Index of snapshots is kept in memory and is rebuilt when journal is
+ * opened. Record cut off by crash is removed, unless journal is opened read
+ * only.
+ * 
+ * <pre>
+ * var journal = GameJournal.create(Paths.get("game.journal"), game, 100);
+ * ... play ...
+ * game.seek(3000);
+ * </pre>
+ */
+public class GameJournal implements Closeable {
+  public static final int MAGIC = 0x5741524A;
+  public static final short VERSION = 2;
+
+  private static final int HEADER_SIZE = 4 + 2 + 4;
+
+  private final FileChannel channel;
+  private final int interval;
+  // Records of version 1 have no hashes
+  private final boolean hasHashes;
+  private final int recordHeaderSize;
+  private final boolean readOnly;
+
+  // Index of snapshots, sorted by round
+  private int[] rounds = new int[64];
+  private long[] offsets = new long[64];
+  private int count = 0;
+  // End of last complete record
+  private long end;
+  // Hashes of tables seen since last record, starting with the table of it
+  private long[] pending = new long[64];
+  private int pendingCount = 0;
+
+  private GameJournal(FileChannel channel, int interval, short version, long end, boolean readOnly) {
+    this.channel = channel;
+    this.readOnly = readOnly;
+    this.interval = interval;
+    this.hasHashes = version != 1;
+    this.recordHeaderSize = (hasHashes) ? 4 + 4 + 4 : 4 + 4;
+    this.end = end;
+  }
+
+  /**
+   * Create new journal at given path, record current state of game into it and
+   * attach journal to the game
+   */
+  public static GameJournal create(Path path, Game game, int interval) throws IOException {
+    if (interval <= 0)
+      throw new IllegalArgumentException("Interval should be positive");
+
+    var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    var header = ByteBuffer.allocate(HEADER_SIZE);
+    header.putInt(MAGIC);
+    header.putShort(VERSION);
+    header.putInt(interval);
+    write(channel, header.flip(), 0);
+
+    var journal = new GameJournal(channel, interval, VERSION, HEADER_SIZE, false);
+    journal.append(game);
+    journal.restart(game);
+    game.setJournal(journal);
+    return journal;
+  }
+
+  /** Open existing journal for reading and appending */
+  public static GameJournal open(Path path) throws IOException {
+    return open(path, false);
+  }
+
+  /**
+   * Open existing journal for reading only. File is never changed, and game
+   * restored from it fails once it plays past the last snapshot.
+   */
+  public static GameJournal openReadOnly(Path path) throws IOException {
+    return open(path, true);
+  }
+
+  private static GameJournal open(Path path, boolean readOnly) throws IOException {
+    var channel = (readOnly) ? FileChannel.open(path, StandardOpenOption.READ)
+        : FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      var header = ByteBuffer.allocate(HEADER_SIZE);
+      read(channel, header, 0);
+      if (header.getInt() != MAGIC)
+        throw new IOException("Not a game journal");
+      var version = header.getShort();
+      if (version != 1 && version != VERSION)
+        throw new IOException("Unsupported version of game journal " + version);
+
+      var journal = new GameJournal(channel, header.getInt(), version, HEADER_SIZE, readOnly);
+      journal.scan();
+      return journal;
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /** Restore game with given cards at given round and attach journal to it */
+  public Game restore(List<Card> cards, int round) throws IOException {
+    var game = new Game(cards);
+    game.setJournal(this);
+    game.seek(round);
+    return game;
+  }
+
+  /** Restore game with default cards at given round and attach journal to it */
+  public Game restore(int round) throws IOException {
+    return restore(Arrays.asList(new Default().cards), round);
+  }
+
+  public int getInterval() {
+    return interval;
+  }
+
+  /** Amount of snapshots in journal */
+  public int size() {
+    return count;
+  }
+
+  /** Round of last snapshot */
+  public int lastRound() {
+    return (count == 0) ? -1 : rounds[count - 1];
+  }
+
+  // Called after every round of attached game
+  void record(Game game) {
+    var round = game.table.getRounds();
+    if (round < lastRound())
+      return;
+    if (round == lastRound()) {
+      restart(game);
+      return;
+    }
+    if (round % interval != 0) {
+      // Finished game is not going to visit its table
+      if (!game.table.isFinished())
+        visit(game);
+      return;
+    }
+    try {
+      append(game);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    restart(game);
+  }
+
+  // Table of last record is the first one its game visits next
+  private void restart(Game game) {
+    pendingCount = 0;
+    visit(game);
+  }
+
+  private void visit(Game game) {
+    if (!game.isCycleDetection())
+      return;
+    if (pendingCount == pending.length)
+      pending = Arrays.copyOf(pending, pendingCount * 2);
+    pending[pendingCount++] = game.table.hash();
+  }
+
+  /** Load nearest snapshot before given round into game */
+  void restore(Game game, int round) throws IOException {
+    // Last snapshot with round <= given one
+    var i = Arrays.binarySearch(rounds, 0, count, round);
+    if (i < 0)
+      i = -i - 2;
+    if (i < 0)
+      throw new IOException("Journal has no snapshot before round " + round);
+
+    var header = ByteBuffer.allocate(recordHeaderSize);
+    read(channel, header, offsets[i]);
+    header.getInt();
+    var snapshot = ByteBuffer.allocate(header.getInt());
+    read(channel, snapshot, offsets[i] + recordHeaderSize);
+    GameCodec.decodeInto(snapshot, game);
+
+    // Detector sees every table seen before the snapshot, as it did in the
+    // recorded game
+    if (game.cycleDetector != null && hasHashes)
+      for (var j = 1; j <= i; j++) {
+        header.clear();
+        read(channel, header, offsets[j]);
+        header.getInt();
+        var length = header.getInt();
+        var hashes = ByteBuffer.allocate(header.getInt() * 8);
+        read(channel, hashes, offsets[j] + recordHeaderSize + length);
+        while (hashes.hasRemaining())
+          game.cycleDetector.visit(hashes.getLong());
+      }
+    if (i == count - 1)
+      restart(game);
+  }
+
+  private void append(Game game) throws IOException {
+    if (readOnly)
+      throw new IOException("Game journal is read only");
+    var snapshot = GameCodec.encode(game);
+    var record = ByteBuffer.allocate(recordHeaderSize + snapshot.remaining() + pendingCount * 8);
+    record.putInt(game.table.getRounds());
+    record.putInt(snapshot.remaining());
+    if (hasHashes)
+      record.putInt(pendingCount);
+    record.put(snapshot);
+    if (hasHashes)
+      for (var j = 0; j < pendingCount; j++)
+        record.putLong(pending[j]);
+    write(channel, record.flip(), end);
+
+    index(game.table.getRounds(), end);
+    end += record.capacity();
+  }
+
+  // Rebuild index by reading headers of records
+  private void scan() throws IOException {
+    var size = channel.size();
+    var header = ByteBuffer.allocate(recordHeaderSize);
+    while (end + recordHeaderSize <= size) {
+      header.clear();
+      read(channel, header, end);
+      var round = header.getInt();
+      var length = header.getInt();
+      var hashes = (hasHashes) ? header.getInt() : 0;
+      if (length < 0 || hashes < 0 || end + recordHeaderSize + length + hashes * 8L > size)
+        break;
+      index(round, end);
+      end += recordHeaderSize + length + hashes * 8L;
+    }
+    // Drop record cut off by crash, so next records do not leave its rest
+    // behind them
+    if (size > end && !readOnly)
+      channel.truncate(end);
+  }
+
+  private void index(int round, long offset) {
+    if (count == rounds.length) {
+      rounds = Arrays.copyOf(rounds, count * 2);
+      offsets = Arrays.copyOf(offsets, count * 2);
+    }
+    rounds[count] = round;
+    offsets[count] = offset;
+    count++;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  // --- IO helpers ---
+  private static void write(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining())
+      position += channel.write(buffer, position);
+  }
+
+  private static void read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      var read = channel.read(buffer, position);
+      if (read < 0)
+        throw new IOException("Game journal is truncated");
+      position += read;
+    }
+    buffer.flip();
+  }
+}
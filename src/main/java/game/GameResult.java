@@ -0,0 +1,22 @@
+package game;
+
+import game.EventQueue.Player;
+
+/**
+ * Summary of the game since decks were dispatched.
+ *
+ * @param winner     Winner of the game, null if it is a draw or game is not
+ *                   over yet
+ * @param rounds     Amount of rounds played
+ * @param wars       Amount of wars declared
+ * @param longestWar Longest chain of draws in a single war
+ * @param capped     True if game is not over, because limit of rounds was hit
+ * @param loop       True if game was stopped, because it would never end
+ */
+public record GameResult(Player winner, int rounds, int wars, int longestWar, boolean capped, boolean loop) {
+
+  /** Game is over, but nobody won */
+  public boolean isDraw() {
+    return !capped && !loop && winner == null;
+  }
+}
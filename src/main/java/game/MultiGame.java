@@ -0,0 +1,277 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import cards.Card;
+import cards.CardRegistry;
+import cards.Default;
+import cards.VCard;
+import game.EventQueue.Event;
+import game.EventQueue.Player;
+
+/**
+ * War table of 2 to 8 players, played by any {@link Rules}, see
+ * {@link WarRound}. <br>
+ * <br>
+ * State of players is kept in an array of decks indexed by player, face up
+ * cards in an array of codes and players in game or at war in bit masks, so
+ * round costs time linear in amount of players and allocates nothing. <br>
+ * Two players play exactly the same games as {@link Game} with the same
+ * seed and rules, where player 0 is {@link Player#WHITE} and player 1
+ * {@link Player#BLACK}. Cards are dealt by the same code as in {@link Game},
+ * which stays the two-player API with saves and journal.
+ */
+public class MultiGame {
+  public static final int MAX_PLAYERS = 8;
+
+  /** Physical table, see {@link Game.Table} */
+  public class Table extends WarTable {
+    Table() {
+      // Every deck is able to hold all cards in game
+      super(players, cardCount);
+    }
+
+    /** Amount of cards in deck of given player */
+    public int getDeckSize(int player) {
+      return decks[player].size();
+    }
+
+    /** Two-player view, same as {@link Game.Table#getDeckSize(Player)} */
+    public int getDeckSize(Player player) {
+      return decks[player.idx].size();
+    }
+
+    /** Card given player played face up in last round, null if none */
+    public VCard getCard(int player) {
+      return (faceUp[player] == EventQueue.NO_CARD) ? null : registry.get(faceUp[player]);
+    }
+
+    public int getInvisible() {
+      return invisible.size();
+    }
+
+    /** Player did not run out of cards yet */
+    public boolean isInGame(int player) {
+      return (inGame & (1 << player)) != 0;
+    }
+
+    /** Player is tied for the highest card in ongoing war */
+    public boolean isAtWar(int player) {
+      return isWar && (atWar & (1 << player)) != 0;
+    }
+
+    public boolean isWar() {
+      return isWar;
+    }
+
+    public boolean isFinished() {
+      return isFinished;
+    }
+
+    /** Game was stopped, because it would never end */
+    public boolean isLoop() {
+      return isLoop;
+    }
+
+    /** Winner of the game, -1 if game is not over or it is a draw */
+    public int getWinner() {
+      return winner;
+    }
+
+    public int getRounds() {
+      return rounds;
+    }
+
+    public int getWars() {
+      return wars;
+    }
+
+    public int getLongestWar() {
+      return longestWar;
+    }
+
+    /** Hash of current state of table, 0 if cycle detection is disabled */
+    @Override
+    public long hash() {
+      if (cycleDetector == null)
+        return 0;
+      // Rotate hashes, so decks swapped between players give different hash
+      var hash = Long.rotateLeft(invisible.hash(), 11);
+      for (var p = 0; p < players; p++)
+        hash ^= Long.rotateLeft(decks[p].hash(), p * 21);
+      // Same cards with other players at war or out of game is other state
+      var masks = (long) inGame << 8 | ((isWar) ? atWar | 1 << 16 : 0);
+      return hash ^ masks * 0x9E3779B97F4A7C15L;
+    }
+  }
+
+  /**
+   * Summary of the game since decks were dispatched, see {@link GameResult}.
+   *
+   * @param winner Index of winner, -1 if it is a draw or game is not over yet
+   */
+  public record Result(int winner, int rounds, int wars, int longestWar, boolean capped, boolean loop) {
+  }
+
+  private final int players;
+  private final CardRegistry registry;
+  // Copies of registered cards in the shoe, see Game#setDecksInShoe(int)
+  private final int decksInShoe;
+  private final int cardCount;
+  private final Table table;
+  // Detects infinite games, disabled if null
+  private CycleDetector cycleDetector = null;
+  private final Dealer dealer;
+  private final String[] usernames;
+  private Rules rules = Rules.STANDARD;
+  private WarRound round;
+
+  /**
+   * Events of the table, the same way as {@link Game#events}. <br>
+   * Events of every player are told apart by {@link EventQueue#player(long)}.
+   * Every player who plays a card emits {@link Event#POLL_CARDS}, with the
+   * card face up as white card and amount of cards put face down. Every face
+   * up card moved to the war emits {@link Event#HIDE_CARDS} with that card,
+   * and player who runs out of cards emits {@link Event#PLAYER_OUT}. Player of
+   * {@link Event#COMPARE_CARDS}, {@link Event#COLLECT_CARDS} and
+   * {@link Event#GAME_FINISH} is the winner, amount of the last two is the
+   * amount of hidden cards they collect. Unlike {@link Game#events},
+   * {@link Event#COLLECT_CARDS} carries no cards.
+   */
+  public final EventQueue events = new EventQueue();
+
+  public MultiGame(int players) {
+    this(players, Arrays.asList(new Default().cards));
+  }
+
+  public MultiGame(int players, List<Card> cards) {
+    this(players, cards, 1);
+  }
+
+  /** Game dealing given amount of copies of registered cards, see {@link Game#setDecksInShoe(int)} */
+  public MultiGame(int players, List<Card> cards, int decksInShoe) {
+    if (players < 2 || players > MAX_PLAYERS)
+      throw new IllegalArgumentException("From 2 to " + MAX_PLAYERS + " players can play, not " + players);
+    this.players = players;
+    registry = new CardRegistry(cards);
+    if (decksInShoe < 1 || (long) decksInShoe * registry.codeCount() > Game.MAX_CARDS)
+      throw new IllegalArgumentException("Shoe of " + decksInShoe + " decks does not fit " + Game.MAX_CARDS
+          + " cards");
+    this.decksInShoe = decksInShoe;
+    cardCount = registry.codeCount() * decksInShoe;
+    if (cardCount < players)
+      throw new IllegalArgumentException("Not enough cards for " + players + " players");
+    dealer = new Dealer(registry, decksInShoe);
+    table = new Table();
+    usernames = new String[players];
+    for (var p = 0; p < players; p++)
+      usernames[p] = "Player " + (p + 1);
+    round = new WarRound(table, events, false, rules, registry.size());
+  }
+
+  /** Set username of given player */
+  public void setUsername(int player, String username) {
+    usernames[Objects.checkIndex(player, players)] = username;
+  }
+
+  public String getUsername(int player) {
+    return usernames[player];
+  }
+
+  /** Play by given rules from now on, see {@link Game#setRules(Rules)} */
+  public void setRules(Rules rules) {
+    this.rules = rules;
+    round = new WarRound(table, events, false, rules, registry.size());
+  }
+
+  public Rules getRules() {
+    return rules;
+  }
+
+  public Table getTable() {
+    return table;
+  }
+
+  public CardRegistry getRegistry() {
+    return registry;
+  }
+
+  public int getDecksInShoe() {
+    return decksInShoe;
+  }
+
+  /** Amount of all cards in game, including copies in the shoe */
+  public int cardCount() {
+    return cardCount;
+  }
+
+  /** See {@link Game#setCycleDetection(boolean)} */
+  public void setCycleDetection(boolean enabled) {
+    cycleDetector = (enabled) ? new CycleDetector(registry.codeCount()) : null;
+    table.setKeys((enabled) ? cycleDetector.keys : null);
+  }
+
+  public boolean isCycleDetection() {
+    return cycleDetector != null;
+  }
+
+  // --- Dispatching decks ---
+  /** Deal cards shuffled the same way as {@link Game#dispatchDecks(int)} */
+  public void dispatchDecks(int seed) {
+    deal(dealer.shuffled(seed));
+  }
+
+  /** Deal cards shuffled by given random stream, see {@link Game#dealRandom(long, long)} */
+  public void dispatchDecks(SplittableRandom random) {
+    deal(dealer.shuffled(random));
+  }
+
+  public void dispatchDecksNoShuffle() {
+    deal(dealer.ordered());
+  }
+
+  // Last player gets the first part of codes, like black does in Game
+  private void deal(short[] codes) {
+    table.reset();
+    if (cycleDetector != null)
+      cycleDetector.reset();
+    Dealer.deal(codes, table.decks);
+    table.reseedCollect();
+  }
+
+  // --- Simulation ---
+  /**
+   * Play rounds until game is over, but not more than given amount of rounds.
+   * <br>
+   * Events are not stored, only listeners get them, see
+   * {@link Game#playRounds(int)}.
+   */
+  public Result playToCompletion(int maxRounds) {
+    var mask = events.getMask();
+    events.setMask(0);
+    try {
+      for (var i = 0; i < maxRounds && !table.isFinished; i++)
+        playRound();
+    } finally {
+      events.setMask(mask);
+    }
+    return getResult();
+  }
+
+  public Result getResult() {
+    return new Result(table.winner, table.rounds, table.wars, table.longestWar, !table.isFinished, table.isLoop);
+  }
+
+  /**
+   * Play single round, same as {@link Game#playRound()}. <br>
+   * Players are visited in order of their index, cards are put on table from
+   * the last player to the first, so two players move cards exactly like
+   * {@link Game}.
+   */
+  public void playRound() {
+    round.play(cycleDetector);
+  }
+}
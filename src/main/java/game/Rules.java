@@ -0,0 +1,71 @@
+package game;
+
+import java.io.Serializable;
+import java.util.Locale;
+
+/**
+ * Variant of rules the game is played by, see {@link Game#setRules(Rules)}.
+ *
+ * @param faceDown         Amount of cards every player puts face down in a war
+ * @param lowBeatsAce      Lowest registered card beats the highest one (2
+ *                         beats Ace with default cards)
+ * @param lastCardFaceUp   Player without enough cards for a war plays their
+ *                         last card face up, instead of losing at once
+ * @param shuffleCollected Cards collected by winner of a round are put under
+ *                         their deck in random order
+ */
+public record Rules(int faceDown, boolean lowBeatsAce, boolean lastCardFaceUp, boolean shuffleCollected)
+    implements Serializable {
+  /** Rules described in README */
+  public static final Rules STANDARD = new Rules(2, false, false, false);
+
+  public Rules {
+    if (faceDown < 0 || faceDown > 16)
+      throw new IllegalArgumentException("From 0 to 16 cards can be put face down, not " + faceDown);
+  }
+
+  public boolean isStandard() {
+    return equals(STANDARD);
+  }
+
+  public Rules withFaceDown(int faceDown) {
+    return new Rules(faceDown, lowBeatsAce, lastCardFaceUp, shuffleCollected);
+  }
+
+  public Rules withLowBeatsAce(boolean lowBeatsAce) {
+    return new Rules(faceDown, lowBeatsAce, lastCardFaceUp, shuffleCollected);
+  }
+
+  public Rules withLastCardFaceUp(boolean lastCardFaceUp) {
+    return new Rules(faceDown, lowBeatsAce, lastCardFaceUp, shuffleCollected);
+  }
+
+  public Rules withShuffleCollected(boolean shuffleCollected) {
+    return new Rules(faceDown, lowBeatsAce, lastCardFaceUp, shuffleCollected);
+  }
+
+  /**
+   * Standard rules changed by comma separated list of
+   * {@code face-down=N}, {@code low-beats-ace}, {@code last-card-face-up} and
+   * {@code shuffle-collected}.
+   */
+  public static Rules parse(String list) {
+    var rules = STANDARD;
+    for (var name : list.split(",")) {
+      name = name.trim().toLowerCase(Locale.ROOT);
+      if (name.isEmpty() || name.equals("standard"))
+        continue;
+      if (name.startsWith("face-down=")) {
+        rules = rules.withFaceDown(Integer.parseInt(name.substring("face-down=".length())));
+        continue;
+      }
+      rules = switch (name) {
+        case "low-beats-ace" -> rules.withLowBeatsAce(true);
+        case "last-card-face-up" -> rules.withLastCardFaceUp(true);
+        case "shuffle-collected" -> rules.withShuffleCollected(true);
+        default -> throw new IllegalArgumentException("Unknown rule " + name);
+      };
+    }
+    return rules;
+  }
+}
@@ -0,0 +1,198 @@
+package game;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import cards.Card;
+import cards.Default;
+import game.EventQueue.Player;
+
+/**
+ * Finds how the game ends from any state of table, without changing it. <br>
+ * The rest of the game is fully determined by cards in decks and whether war
+ * is ongoing, and suits never matter. So states are hashed by ranks of cards
+ * only, and every solved state is remembered in {@link TranspositionTable}.
+ * Once the solver meets solved state it stops, instead of playing the rest of
+ * the game, so repeated questions about the same game (e.g. after every
+ * round) cost only few rounds. <br>
+ * <br>
+ * Only distinguished states, about one of every 16, are looked up and
+ * remembered. Every game still passes one of them within few rounds, and the
+ * solver touches the large shared table only rarely, so solving new games is
+ * not much slower than playing them. <br>
+ * <br>
+ * Solver itself is not thread safe, but any amount of solvers on any threads
+ * can share single table. Solvers of different cards or rules never share
+ * states, even in the same table.
+ *
+ * <pre>
+ * var transpositions = new TranspositionTable(1 &lt;&lt; 20);
+ * var solver = new Solver(transpositions);
+ * var outcome = solver.solve(game);
+ * </pre>
+ */
+public class Solver {
+  /**
+   * How the game ends.
+   *
+   * @param winner winner of the game, null for a draw or a game which never ends
+   * @param rounds amount of rounds left until the game is over, -1 if it never
+   *               ends
+   */
+  public record Outcome(Player winner, int rounds) {
+    /** Game never ends */
+    public boolean isLoop() {
+      return rounds < 0;
+    }
+  }
+
+  // Packed outcome: rounds << 2 | kind, never 0
+  private static final long WHITE = 1;
+  private static final long BLACK = 2;
+  private static final long DRAW = 3;
+  // Loop is stored with most rounds, so it is evicted last
+  private static final long LOOP = ((long) Integer.MAX_VALUE << 2) | DRAW;
+
+  // States with top bits of hash clear are distinguished
+  private static final int DISTINGUISHED_SHIFT = 60;
+
+  private final TranspositionTable transpositions;
+  // Game played by the solver, tables of solved games are copied into it
+  private final Game scratch;
+  // States visited by current solve, to find games which never end
+  private final CycleDetector visited = new CycleDetector(0);
+  // Distinguished states visited by current solve, and rounds they were met in
+  private long[] path = new long[64];
+  private int[] pathRounds = new int[64];
+
+  // Statistics
+  private long solved = 0;
+  private long hits = 0;
+  private long roundsPlayed = 0;
+
+  /** Solver of games with default cards */
+  public Solver(TranspositionTable transpositions) {
+    this(transpositions, Arrays.asList(new Default().cards));
+  }
+
+  /** Solver of games with given registered cards */
+  public Solver(TranspositionTable transpositions, List<Card> cards) {
+    this(transpositions, cards, Rules.STANDARD);
+  }
+
+  /**
+   * Solver of games with given registered cards and rules. Games with
+   * {@link Rules#shuffleCollected()} are not determined by their table, so
+   * they can not be solved.
+   */
+  public Solver(TranspositionTable transpositions, List<Card> cards, Rules rules) {
+    if (rules.shuffleCollected())
+      throw new IllegalArgumentException("Game with random order of collected cards can not be solved");
+    this.transpositions = transpositions;
+    scratch = new Game(cards);
+    scratch.setRules(rules);
+    scratch.events.setMask(0);
+
+    // Every suit of a card gets the same key, keys depend only on registered
+    // cards and rules, so all solvers of the same game share states
+    var registry = scratch.getRegistry();
+    var random = new SplittableRandom(registry.fingerprint() ^ rules.hashCode() * 0x9E3779B97F4A7C15L);
+    var rankKeys = new long[registry.size()];
+    for (var i = 0; i < rankKeys.length; i++)
+      rankKeys[i] = random.nextLong();
+    var keys = new long[registry.codeCount()];
+    for (var code = 0; code < keys.length; code++)
+      keys[code] = rankKeys[code >> 2];
+    scratch.setHashKeys(keys);
+  }
+
+  /** Outcome of given game from its current state. Game is not changed */
+  public Outcome solve(Game game) {
+    if (!game.getRules().equals(scratch.getRules()))
+      throw new IllegalArgumentException("Game is played by other rules than " + scratch.getRules());
+    scratch.copyTable(game);
+    return solve();
+  }
+
+  /** Outcome of game dealt with {@link Game#dispatchDecks(int)} */
+  public Outcome solve(int seed) {
+    scratch.dispatchDecks(seed);
+    return solve();
+  }
+
+  private Outcome solve() {
+    var table = scratch.table;
+    var round = 0;
+    var length = 0;
+    long value;
+    while (true) {
+      if (table.isFinished()) {
+        value = (table.isLoop()) ? LOOP : pack(table.getWinner(), 0);
+        break;
+      }
+      var hash = table.hash();
+      if (hash >>> DISTINGUISHED_SHIFT == 0) {
+        value = transpositions.get(hash);
+        if (value != 0) {
+          hits++;
+          break;
+        }
+        if (length == path.length) {
+          path = Arrays.copyOf(path, length * 2);
+          pathRounds = Arrays.copyOf(pathRounds, length * 2);
+        }
+        path[length] = hash;
+        pathRounds[length++] = round;
+      }
+      if (visited.visit(hash)) {
+        value = LOOP;
+        break;
+      }
+      scratch.playRound();
+      round++;
+    }
+    visited.reset();
+    solved++;
+    roundsPlayed += round;
+
+    // Every state on the way ends the same, just later
+    for (var i = 0; i < length; i++)
+      transpositions.put(path[i], (value == LOOP) ? LOOP : value + ((long) (round - pathRounds[i]) << 2));
+    return unpack((value == LOOP) ? LOOP : value + ((long) round << 2));
+  }
+
+  /** Amount of games solved by this solver */
+  public long getSolved() {
+    return solved;
+  }
+
+  /** Amount of games which were finished by state found in the table */
+  public long getHits() {
+    return hits;
+  }
+
+  /** Amount of rounds actually played by this solver */
+  public long getRoundsPlayed() {
+    return roundsPlayed;
+  }
+
+  // --- Packing ---
+  private static long pack(Player winner, int rounds) {
+    var kind = (winner == null) ? DRAW : (winner == Player.WHITE) ? WHITE : BLACK;
+    return ((long) rounds << 2) | kind;
+  }
+
+  private static Outcome unpack(long value) {
+    if (value == LOOP)
+      return new Outcome(null, -1);
+    var kind = value & 3;
+    var winner = (kind == WHITE) ? Player.WHITE : (kind == BLACK) ? Player.BLACK : null;
+    return new Outcome(winner, (int) (value >>> 2));
+  }
+
+  /** Remaining rounds of packed outcome, used for eviction */
+  static long rounds(long value) {
+    return value >>> 2;
+  }
+}
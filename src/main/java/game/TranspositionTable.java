@@ -0,0 +1,91 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of solved states of table, shared by any amount of
+ * {@link Solver}s on any threads. <br>
+ * Entries are pairs of longs in plain arrays, without any locks. Every entry
+ * stores {@code hash ^ value} next to the value, so entry torn by concurrent
+ * writers no longer matches its hash and reads as a miss. <br>
+ * <br>
+ * Table is split into buckets of 4 entries. Full bucket evicts the entry with
+ * the fewest remaining rounds, since it is the cheapest one to solve again.
+ */
+public class TranspositionTable {
+  private static final int BUCKET = 4;
+
+  // hash ^ value, and value, 0 value marks empty entry
+  private final long[] checks;
+  private final long[] values;
+  private final int mask;
+
+  /** Table holding at least given amount of entries, rounded up to power of two */
+  public TranspositionTable(int entries) {
+    if (entries < BUCKET || entries > 1 << 30)
+      throw new IllegalArgumentException("Table must hold from " + BUCKET + " to 2^30 entries");
+    var capacity = Integer.highestOneBit(entries - 1) << 1;
+    checks = new long[capacity];
+    values = new long[capacity];
+    mask = capacity - 1;
+  }
+
+  /** Maximum amount of entries */
+  public int capacity() {
+    return values.length;
+  }
+
+  /** Value stored for given hash, or 0 if there is none */
+  long get(long hash) {
+    var bucket = bucket(hash);
+    for (var i = bucket; i < bucket + BUCKET; i++) {
+      var value = values[i];
+      if (value != 0 && (checks[i] ^ value) == hash)
+        return value;
+    }
+    return 0;
+  }
+
+  /** Store non-zero value of given hash, evicting the least valuable entry of its bucket */
+  void put(long hash, long value) {
+    var bucket = bucket(hash);
+    var victim = bucket;
+    var victimRounds = Long.MAX_VALUE;
+    for (var i = bucket; i < bucket + BUCKET; i++) {
+      var stored = values[i];
+      if (stored == 0 || (checks[i] ^ stored) == hash) {
+        victim = i;
+        break;
+      }
+      if (Solver.rounds(stored) < victimRounds) {
+        victim = i;
+        victimRounds = Solver.rounds(stored);
+      }
+    }
+    // Value is written last, reader seeing new value with old check just misses
+    checks[victim] = hash ^ value;
+    values[victim] = value;
+  }
+
+  /** Amount of stored entries, counted by full scan */
+  public int size() {
+    var size = 0;
+    for (var value : values)
+      if (value != 0)
+        size++;
+    return size;
+  }
+
+  /** Remove all entries, must not race with solvers */
+  public void clear() {
+    Arrays.fill(values, 0);
+    Arrays.fill(checks, 0);
+  }
+
+  private int bucket(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    return (int) hash & mask & -BUCKET;
+  }
+}
@@ -0,0 +1,248 @@
+package game;
+
+import java.util.Arrays;
+
+import cards.VCard;
+import game.EventQueue.Event;
+
+/**
+ * Round of War among any amount of players, by any {@link Rules}. <br>
+ * Played by {@link MultiGame}, and by {@link Game} under rules other than
+ * standard, while standard rules of two players keep a round of their own in
+ * {@link Game}. Every rule is resolved into final field once, when round is
+ * created. <br>
+ * <br>
+ * Every player in game plays a card face up, the highest card collects all
+ * cards on table. Players tied for the highest card go to war among
+ * themselves: each of them puts cards face down and plays another one face
+ * up, while the rest of players wait. Player who can not play a card they are
+ * asked for is out of the game, and cards they already played stay on table.
+ * Last player in game wins. With {@link Rules#lowBeatsAce()} the lowest card
+ * wins over everything once an ace is played.
+ */
+final class WarRound {
+  private final WarTable table;
+  private final EventQueue events;
+  // Events of two-player Game, with cards of both players in single event,
+  // or of every player on its own, see MultiGame.events
+  private final boolean pairEvents;
+
+  private final int faceDown;
+  private final boolean lowBeatsAce;
+  private final boolean lastCardFaceUp;
+  private final boolean shuffleCollected;
+  // Index of the highest card, beaten by the lowest one if lowBeatsAce
+  private final int ace;
+  private final short[] collected;
+
+  WarRound(WarTable table, EventQueue events, boolean pairEvents, Rules rules, int registered) {
+    this.table = table;
+    this.events = events;
+    this.pairEvents = pairEvents;
+    faceDown = rules.faceDown();
+    lowBeatsAce = rules.lowBeatsAce();
+    lastCardFaceUp = rules.lastCardFaceUp();
+    shuffleCollected = rules.shuffleCollected();
+    ace = registered - 1;
+    collected = new short[table.invisible.capacity()];
+  }
+
+  /** Play single round, game is stopped by given detector unless it is null */
+  void play(CycleDetector cycleDetector) {
+    var players = table.decks.length;
+    var decks = table.decks;
+    var faceUp = table.faceUp;
+    var faceDown = table.faceDown;
+    events.clear();
+    Arrays.fill(faceUp, EventQueue.NO_CARD);
+    Arrays.fill(faceDown, 0);
+    table.collector = -1;
+    table.collected = 0;
+
+    if (table.isFinished)
+      return;
+
+    // Random order of collected cards never lets table repeat for sure
+    if (!shuffleCollected && cycleDetector != null && cycleDetector.visit(table.hash())) {
+      table.finish(-1);
+      table.isLoop = true;
+      events.add(Event.GAME_FINISH, EventQueue.NO_PLAYER, table.invisible.size(), EventQueue.NO_CARD,
+          EventQueue.NO_CARD, EventQueue.LOOP);
+      return;
+    }
+
+    table.rounds++;
+    events.add(Event.ROUND_START);
+    var asked = (table.isWar) ? table.atWar & table.inGame : table.inGame;
+    var playing = asked;
+    // Players short of cards for a war put the rest face down, and then play
+    // their last card face up
+    var last = 0;
+    if (table.isWar && lastCardFaceUp)
+      for (var p = 0; p < players; p++)
+        if ((asked & (1 << p)) != 0 && decks[p].size() <= this.faceDown)
+          last |= 1 << p;
+
+    for (var p = 0; p < players; p++)
+      if ((playing & ~last & (1 << p)) != 0) {
+        if (decks[p].isEmpty())
+          playing = out(p, playing);
+        else
+          faceUp[p] = decks[p].pollCode();
+      }
+
+    if (table.isWar)
+      for (var i = 0; i < this.faceDown && Integer.bitCount(table.inGame) > 1; i++)
+        for (var p = players - 1; p >= 0; p--)
+          if ((playing & (1 << p)) != 0 && ((last & (1 << p)) == 0 || decks[p].size() > 1)) {
+            if (decks[p].isEmpty())
+              playing = out(p, playing);
+            else {
+              table.invisible.addCode(decks[p].pollCode());
+              faceDown[p]++;
+            }
+          }
+
+    for (var p = 0; p < players; p++)
+      if ((playing & last & (1 << p)) != 0) {
+        if (decks[p].isEmpty())
+          playing = out(p, playing);
+        else
+          faceUp[p] = decks[p].pollCode();
+      }
+
+    if (pairEvents) {
+      if (playing == asked)
+        events.add(Event.POLL_CARDS, EventQueue.NO_PLAYER, faceDown[0] + faceDown[1], faceUp[0], faceUp[1]);
+    } else
+      for (var p = 0; p < players; p++)
+        if ((asked & (1 << p)) != 0) {
+          if (faceUp[p] != EventQueue.NO_CARD)
+            events.add(Event.POLL_CARDS, p, faceDown[p], faceUp[p], EventQueue.NO_CARD);
+          if ((playing & (1 << p)) == 0)
+            events.add(Event.PLAYER_OUT, p, EventQueue.NO_AMOUNT, EventQueue.NO_CARD, EventQueue.NO_CARD);
+        }
+
+    // Last player in game takes everything, nobody wins if all ran out at once
+    if (Integer.bitCount(table.inGame) <= 1) {
+      var winner = (table.inGame == 0) ? -1 : Integer.numberOfTrailingZeros(table.inGame);
+      events.add(Event.ROUND_FINISH);
+      events.add(Event.GAME_FINISH, winner, table.invisible.size(), EventQueue.NO_CARD, EventQueue.NO_CARD);
+      if (winner >= 0)
+        collect(winner, playing, false);
+      else
+        for (var p = players - 1; p >= 0; p--)
+          if ((playing & (1 << p)) != 0)
+            table.invisible.addCode(faceUp[p]);
+      table.finish(winner);
+      return;
+    }
+
+    // Everybody at war ran out of cards, next winner collects the war
+    if (playing == 0) {
+      endWar();
+      events.add(Event.WAR_END);
+      events.add(Event.ROUND_FINISH);
+      return;
+    }
+
+    // Compare cards, by cardIdx of their codes
+    var highest = -1;
+    var tied = 0;
+    var lowest = 0;
+    for (var p = 0; p < players; p++)
+      if ((playing & (1 << p)) != 0) {
+        var cardIdx = VCard.cardIdx(faceUp[p]);
+        if (cardIdx > highest) {
+          highest = cardIdx;
+          tied = 1 << p;
+        } else if (cardIdx == highest)
+          tied |= 1 << p;
+        if (cardIdx == 0)
+          lowest |= 1 << p;
+      }
+    if (lowBeatsAce && highest == ace && ace > 0 && lowest != 0)
+      tied = lowest;
+
+    if (Integer.bitCount(tied) == 1) {
+      var winner = Integer.numberOfTrailingZeros(tied);
+      events.add(Event.COMPARE_CARDS, winner, EventQueue.NO_AMOUNT, EventQueue.NO_CARD, EventQueue.NO_CARD);
+      if (table.isWar)
+        events.add(Event.WAR_END);
+      if (pairEvents)
+        events.add(Event.COLLECT_CARDS, winner, table.invisible.size(), faceUp[0], faceUp[1]);
+      else
+        events.add(Event.COLLECT_CARDS, winner, table.invisible.size(), EventQueue.NO_CARD, EventQueue.NO_CARD);
+      collect(winner, playing, shuffleCollected);
+      endWar();
+      events.add(Event.ROUND_FINISH);
+      return;
+    }
+
+    // Tied players go to war, or keep on fighting
+    events.add(Event.COMPARE_CARDS);
+    if (!table.isWar)
+      events.add(Event.WAR_START);
+    if (pairEvents)
+      events.add(Event.HIDE_CARDS, EventQueue.NO_PLAYER, EventQueue.NO_AMOUNT, faceUp[0], faceUp[1]);
+    for (var p = players - 1; p >= 0; p--)
+      if ((playing & (1 << p)) != 0) {
+        if (!pairEvents)
+          events.add(Event.HIDE_CARDS, p, EventQueue.NO_AMOUNT, faceUp[p], EventQueue.NO_CARD);
+        table.invisible.addCode(faceUp[p]);
+      }
+    if (!table.isWar)
+      table.wars++;
+    table.isWar = true;
+    table.atWar = tied;
+    table.warChain++;
+    table.longestWar = Math.max(table.longestWar, table.warChain);
+    events.add(Event.ROUND_FINISH);
+  }
+
+  // Player runs out of cards, their face up card stays on table
+  private int out(int player, int playing) {
+    table.inGame &= ~(1 << player);
+    if (table.faceUp[player] != EventQueue.NO_CARD)
+      table.invisible.addCode(table.faceUp[player]);
+    return playing & ~(1 << player);
+  }
+
+  // Face up cards of playing players go under winner's deck, followed by the
+  // war, or the war and the cards together in random order
+  private void collect(int winner, int playing, boolean shuffle) {
+    var deck = table.decks[winner];
+    var before = deck.size();
+    if (shuffle) {
+      var n = table.invisible.size();
+      for (var i = 0; i < n; i++)
+        collected[i] = table.invisible.getCode(i);
+      for (var p = table.decks.length - 1; p >= 0; p--)
+        if ((playing & (1 << p)) != 0)
+          collected[n++] = table.faceUp[p];
+      table.invisible.clear();
+      for (var i = n - 1; i > 0; i--)
+        Dealer.swap(collected, i, nextInt(i + 1));
+      deck.addCodes(collected, 0, n);
+    } else {
+      for (var p = table.decks.length - 1; p >= 0; p--)
+        if ((playing & (1 << p)) != 0)
+          deck.addCode(table.faceUp[p]);
+      table.invisible.drainTo(deck);
+    }
+    table.collector = winner;
+    table.collected = deck.size() - before;
+  }
+
+  private void endWar() {
+    table.isWar = false;
+    table.warChain = 0;
+  }
+
+  // Next number below bound of the stream in collectState. Plain long state
+  // is saved with the game, unlike state of SplittableRandom
+  private int nextInt(int bound) {
+    table.collectState += 0x9E3779B97F4A7C15L;
+    return (int) (((Game.mix(table.collectState) >>> 32) * bound) >>> 32);
+  }
+}
@@ -0,0 +1,135 @@
+package game;
+
+import java.util.Arrays;
+
+/**
+ * State of a table of any amount of players, played by {@link WarRound}.
+ * <br>
+ * Extended by tables of {@link Game} and {@link MultiGame}, which are views
+ * of it. Decks and face up cards are indexed by player, players in game or at
+ * war are bit masks, so nothing grows with players but the decks.
+ */
+abstract class WarTable {
+  // Player's decks, indexed by player
+  final Deck[] decks;
+  // Cards of all players during the war, and cards of players out of game
+  final Deck invisible;
+  // Face up card of every player in current round, NO_CARD if none
+  final short[] faceUp;
+  // Cards every player put face down in current round
+  final int[] faceDown;
+  // Bit of every player still in game
+  int inGame;
+  // Bit of every player tied for the highest card, only valid during the war
+  int atWar;
+  boolean isWar = false;
+  boolean isFinished = false;
+  // Game was stopped, since it would never end
+  boolean isLoop = false;
+  // Winner of the game, -1 if game is not over or it is a draw
+  int winner = -1;
+
+  // Statistics since decks were dispatched
+  int rounds = 0;
+  int wars = 0;
+  // Amount of draws in a row during current war
+  int warChain = 0;
+  int longestWar = 0;
+  // Player who collected cards in last round, -1 if none, and amount of them
+  int collector = -1;
+  int collected = 0;
+  // State of random stream ordering collected cards, see
+  // Rules.shuffleCollected(). Seeded by every deal and saved with the game
+  long collectState = 0;
+
+  /** Table of given players, every deck is able to hold given amount of cards */
+  WarTable(int players, int capacity) {
+    decks = new Deck[players];
+    for (var p = 0; p < players; p++)
+      decks[p] = new Deck(capacity);
+    invisible = new Deck(capacity);
+    faceUp = new short[players];
+    Arrays.fill(faceUp, EventQueue.NO_CARD);
+    faceDown = new int[players];
+    inGame = atWar = (1 << players) - 1;
+  }
+
+  /** Table without players, only used while a legacy save is deserialized */
+  WarTable() {
+    this(0, 0);
+  }
+
+  public int getPlayers() {
+    return decks.length;
+  }
+
+  /** Hash of current state of table, 0 if cycle detection is disabled */
+  public abstract long hash();
+
+  void finish(int winner) {
+    isFinished = true;
+    this.winner = winner;
+  }
+
+  /** Bring table to the state before first round */
+  void reset() {
+    for (var deck : decks)
+      deck.clear();
+    invisible.clear();
+    Arrays.fill(faceUp, EventQueue.NO_CARD);
+    inGame = atWar = (1 << decks.length) - 1;
+    isWar = false;
+    isFinished = false;
+    isLoop = false;
+    winner = -1;
+    rounds = 0;
+    wars = 0;
+    warChain = 0;
+    longestWar = 0;
+    collector = -1;
+    collected = 0;
+  }
+
+  /** Bring table to the state of given table of the same players */
+  void copyFrom(WarTable source) {
+    for (var p = 0; p < decks.length; p++)
+      decks[p].copyFrom(source.decks[p]);
+    invisible.copyFrom(source.invisible);
+    inGame = source.inGame;
+    atWar = source.atWar;
+    isWar = source.isWar;
+    isFinished = source.isFinished;
+    isLoop = source.isLoop;
+    winner = source.winner;
+    rounds = source.rounds;
+    wars = source.wars;
+    warChain = source.warChain;
+    longestWar = source.longestWar;
+    collector = source.collector;
+    collected = source.collected;
+    collectState = source.collectState;
+  }
+
+  void setKeys(long[] keys) {
+    for (var deck : decks)
+      deck.setKeys(keys);
+    invisible.setKeys(keys);
+  }
+
+  /**
+   * Seed order of collected cards by cards on table, so same table collects in
+   * the same order. Used by deals and by saves without the seed.
+   */
+  void reseedCollect() {
+    var seed = 0L;
+    for (var p = decks.length - 1; p >= 0; p--)
+      seed = hash(seed, decks[p]);
+    collectState = hash(seed, invisible);
+  }
+
+  private static long hash(long seed, Deck deck) {
+    for (var i = 0; i < deck.size(); i++)
+      seed = seed * 31 + deck.getCode(i);
+    return seed;
+  }
+}
@@ -0,0 +1,20 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Cards dealt by {@link game.Game#dispatchDecks(int)} and its variants */
+@Name("cardGame.Dispatch")
+@Label("Dispatch Decks")
+@Category({ "Card Game", "Engine" })
+public class DispatchEvent extends jdk.jfr.Event {
+  @Label("Seed")
+  public int seed;
+
+  @Label("Shuffled")
+  public boolean shuffled;
+
+  @Label("Cards")
+  public int cards;
+}
@@ -0,0 +1,22 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Game read by {@link game.Game#load(String, java.util.List)} */
+@Name("cardGame.Load")
+@Label("Load Game")
+@Category({ "Card Game", "Persistence" })
+public class LoadEvent extends jdk.jfr.Event {
+  @Label("Path")
+  public String path;
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes;
+
+  @Label("Legacy")
+  public boolean legacy;
+}
@@ -0,0 +1,27 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Single {@link game.Game#playRound()} */
+@Name("cardGame.Round")
+@Label("Round")
+@Category({ "Card Game", "Engine" })
+@Description("Single round of the game")
+public class RoundEvent extends jdk.jfr.Event {
+  @Label("Round")
+  public int round;
+
+  @Label("War")
+  @Description("War is ongoing after the round")
+  public boolean war;
+
+  @Label("Cards Moved")
+  @Description("Cards collected by winner of the round")
+  public int cardsMoved;
+
+  @Label("Finished")
+  public boolean finished;
+}
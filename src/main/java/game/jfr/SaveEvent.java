@@ -0,0 +1,19 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Game written by {@link game.Game#save(String, String)} */
+@Name("cardGame.Save")
+@Label("Save Game")
+@Category({ "Card Game", "Persistence" })
+public class SaveEvent extends jdk.jfr.Event {
+  @Label("Path")
+  public String path;
+
+  @Label("Bytes")
+  @DataAmount
+  public long bytes;
+}
@@ -0,0 +1,30 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Whole war, from round it started in to round it ended in */
+@Name("cardGame.War")
+@Label("War")
+@Category({ "Card Game", "Engine" })
+@Description("War from its start to its end")
+public class WarEvent extends jdk.jfr.Event {
+  @Label("Start Round")
+  public int startRound;
+
+  @Label("End Round")
+  public int endRound;
+
+  @Label("Length")
+  @Description("Draws in a row")
+  public int length;
+
+  @Label("Cards Moved")
+  @Description("Cards collected by winner of the war")
+  public int cardsMoved;
+
+  @Label("Winner")
+  public String winner;
+}
@@ -0,0 +1,25 @@
+package game.live;
+
+/**
+ * What {@link GamePublisher} does when buffer of a subscriber is full.
+ */
+public enum Backpressure {
+  /** Drop the oldest buffered event, subscriber misses it */
+  DROP_OLDEST,
+
+  /**
+   * Drop all buffered events and replace them with snapshot of the whole game,
+   * followed by events emitted after it. <br>
+   * Snapshot is taken once the round in progress at the moment of overflow is
+   * over, events emitted until then are dropped as well.
+   */
+  CONFLATE,
+
+  /**
+   * Wait until subscriber catches up. <br>
+   * NOTE: This stalls {@link game.Game#playRound()}, and so all other
+   * subscribers of the game, use it only for subscribers which must not miss
+   * anything.
+   */
+  BLOCK
+}
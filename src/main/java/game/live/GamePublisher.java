@@ -0,0 +1,283 @@
+package game.live;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import game.EventQueue;
+import game.EventQueue.Event;
+import game.Game;
+import game.GameCodec;
+
+/**
+ * Broadcasts events of a game to many subscribers. <br>
+ * Every subscriber has its own bounded lock-free buffer, filled by the thread
+ * playing the game and drained on the executor, so slow subscriber only
+ * fills its own buffer. What happens when it is full is decided by
+ * {@link Backpressure} policy of the subscriber. <br>
+ * <br>
+ * Publisher listens to {@link Game#events}, so it has to be created and
+ * closed on the thread playing the game. Closing completes all subscribers
+ * once they receive buffered events.
+ *
+ * <pre>
+ * var publisher = new GamePublisher(game, 1024, Backpressure.CONFLATE);
+ * publisher.subscribe(spectator);
+ * while (!game.getTable().isFinished())
+ *   game.playRound();
+ * publisher.close();
+ * </pre>
+ */
+public class GamePublisher implements Flow.Publisher<Update>, AutoCloseable {
+  // Buffered in place of event, when snapshot should be delivered
+  // Packed event is never -1, because there is no event type 15
+  private static final long SNAPSHOT = -1L;
+
+  private final Game game;
+  private final int bufferSize;
+  private final Backpressure policy;
+  private final Executor executor;
+  private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+  private final EventQueue.Listener listener = this::publish;
+  private final LongAdder dropped = new LongAdder();
+  private volatile boolean closed = false;
+
+  /** Publish events of game, subscribers are served on common pool */
+  public GamePublisher(Game game, int bufferSize, Backpressure policy) {
+    this(game, bufferSize, policy, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Publish events of game, buffering at most {@code bufferSize} events for
+   * every subscriber, with given default policy.
+   */
+  public GamePublisher(Game game, int bufferSize, Backpressure policy, Executor executor) {
+    if (bufferSize < 2)
+      throw new IllegalArgumentException("Buffer must hold at least 2 events");
+    this.game = game;
+    this.bufferSize = bufferSize;
+    this.policy = policy;
+    this.executor = executor;
+    game.events.subscribe(EventQueue.ALL_EVENTS, listener);
+  }
+
+  /** Subscribe with default policy of the publisher */
+  @Override
+  public void subscribe(Flow.Subscriber<? super Update> subscriber) {
+    subscribe(subscriber, policy);
+  }
+
+  /** Subscribe with given policy */
+  public void subscribe(Flow.Subscriber<? super Update> subscriber, Backpressure policy) {
+    Objects.requireNonNull(subscriber);
+    var subscription = new Subscription(subscriber, policy);
+    subscriptions.add(subscription);
+    if (closed)
+      subscription.done = true;
+    subscription.schedule();
+  }
+
+  /** Amount of subscribers which are neither cancelled nor completed */
+  public int getSubscriberCount() {
+    return subscriptions.size();
+  }
+
+  /** Amount of events dropped for all subscribers so far */
+  public long getDropped() {
+    return dropped.sum();
+  }
+
+  /** Stop listening to the game and complete all subscribers */
+  @Override
+  public void close() {
+    if (closed)
+      return;
+    closed = true;
+    game.events.unsubscribe(listener);
+    for (var subscription : subscriptions) {
+      // Game is not playing, so its table is between rounds
+      if (subscription.conflated)
+        subscription.offerSnapshot();
+      subscription.done = true;
+      subscription.schedule();
+    }
+  }
+
+  // Called by the thread playing the game
+  private void publish(long event) {
+    for (var subscription : subscriptions)
+      subscription.offer(event);
+  }
+
+  /**
+   * Buffer of single subscriber, ring of packed events. <br>
+   * Game thread is the only one writing events, but both sides move the
+   * head: subscriber when it reads an event, game thread when it drops the
+   * oldest ones. Reader therefore claims an event by CAS on head, and skips it
+   * if it lost the race.
+   */
+  private final class Subscription implements Flow.Subscription {
+    final Flow.Subscriber<? super Update> subscriber;
+    final Backpressure policy;
+    final long[] ring;
+    final int mask;
+    final AtomicLong head = new AtomicLong();
+    final AtomicLong tail = new AtomicLong();
+    final AtomicReference<ByteBuffer> snapshot = new AtomicReference<ByteBuffer>();
+
+    final AtomicLong requested = new AtomicLong();
+    // Amount of pending drain requests, only single drain runs at a time
+    final AtomicInteger wip = new AtomicInteger();
+    volatile boolean cancelled = false;
+    volatile boolean done = false;
+    volatile Throwable error = null;
+    // Events were dropped and snapshot is not taken yet, only touched by game
+    // thread
+    boolean conflated = false;
+    // Only touched by drain
+    boolean subscribed = false;
+
+    Subscription(Flow.Subscriber<? super Update> subscriber, Backpressure policy) {
+      this.subscriber = subscriber;
+      this.policy = policy;
+      var capacity = Integer.highestOneBit(bufferSize - 1) << 1;
+      this.ring = new long[capacity];
+      this.mask = capacity - 1;
+    }
+
+    // --- Game thread ---
+
+    void offer(long event) {
+      if (conflated) {
+        // Table is in the middle of a round, until round is over
+        dropped.increment();
+        var type = EventQueue.type(event);
+        if ((type == Event.ROUND_FINISH && !game.getTable().isFinished())
+            || (type == Event.GAME_FINISH && EventQueue.isLoop(event)))
+          offerSnapshot();
+        return;
+      }
+
+      var t = tail.get();
+      while (t - head.get() >= bufferSize) {
+        if (cancelled)
+          return;
+        switch (policy) {
+          case DROP_OLDEST -> {
+            var h = head.get();
+            if (head.compareAndSet(h, h + 1))
+              dropped.increment();
+          }
+          case CONFLATE -> {
+            long h;
+            do {
+              h = head.get();
+            } while (!head.compareAndSet(h, t));
+            dropped.add(t - h + 1);
+            conflated = true;
+            return;
+          }
+          case BLOCK -> {
+            schedule();
+            LockSupport.parkNanos(10_000);
+          }
+        }
+      }
+      ring[(int) t & mask] = event;
+      tail.set(t + 1);
+      schedule();
+    }
+
+    /**
+     * Replace dropped events with snapshot of the game, which must be between
+     * rounds. Buffer is empty, since all events were dropped.
+     */
+    void offerSnapshot() {
+      conflated = false;
+      // Snapshot has to be set before marker, so reader which finds marker
+      // always finds snapshot
+      snapshot.set(GameCodec.encode(game).asReadOnlyBuffer());
+      var t = tail.get();
+      ring[(int) t & mask] = SNAPSHOT;
+      tail.set(t + 1);
+      schedule();
+    }
+
+    // --- Subscriber ---
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("Requested " + n + " items, must be positive");
+      } else {
+        long r;
+        do {
+          r = requested.get();
+        } while (!requested.compareAndSet(r, (r + n < 0) ? Long.MAX_VALUE : r + n));
+      }
+      schedule();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      subscriptions.remove(this);
+    }
+
+    void schedule() {
+      if (wip.getAndIncrement() == 0)
+        executor.execute(this::drain);
+    }
+
+    // Deliver buffered events up to demand, never runs concurrently
+    private void drain() {
+      var missed = 1;
+      do {
+        if (!subscribed) {
+          subscribed = true;
+          subscriber.onSubscribe(this);
+        }
+
+        var r = requested.get();
+        var emitted = 0L;
+        while (emitted != r && !cancelled && error == null) {
+          var h = head.get();
+          if (h >= tail.get())
+            break;
+          var event = ring[(int) h & mask];
+          if (!head.compareAndSet(h, h + 1))
+            continue; // Dropped by game thread meanwhile
+          if (event == SNAPSHOT) {
+            var buffer = snapshot.getAndSet(null);
+            if (buffer == null)
+              continue; // Newer snapshot was already delivered
+            subscriber.onNext(Update.snapshot(buffer));
+          } else {
+            subscriber.onNext(Update.event(event));
+          }
+          emitted++;
+        }
+        if (emitted > 0 && r != Long.MAX_VALUE)
+          requested.addAndGet(-emitted);
+
+        if (!cancelled && error != null) {
+          cancel();
+          subscriber.onError(error);
+        } else if (!cancelled && done && head.get() >= tail.get()) {
+          cancel();
+          subscriber.onComplete();
+        }
+
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+  }
+}
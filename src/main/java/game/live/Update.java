@@ -0,0 +1,27 @@
+package game.live;
+
+import java.nio.ByteBuffer;
+
+import game.EventQueue;
+import game.GameCodec;
+
+/**
+ * Single item published by {@link GamePublisher}. <br>
+ * Either packed event (see {@link EventQueue#type(long)}), or snapshot of the
+ * whole game written by {@link GameCodec#encode(game.Game)}, which replaces
+ * events dropped by {@link Backpressure#CONFLATE}.
+ */
+public record Update(long event, ByteBuffer snapshot) {
+
+  public static Update event(long event) {
+    return new Update(event, null);
+  }
+
+  public static Update snapshot(ByteBuffer snapshot) {
+    return new Update(0, snapshot);
+  }
+
+  public boolean isSnapshot() {
+    return snapshot != null;
+  }
+}
@@ -0,0 +1,130 @@
+package game.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import game.EventQueue;
+import game.EventQueue.Event;
+import game.Game;
+
+/**
+ * Opt-in metrics of the game engine. <br>
+ * Registry is fed by every {@link Game} it is attached to with
+ * {@link Game#setMetrics(EngineMetrics)}, and can be shared by games played on
+ * many threads. Games without metrics only pay for a single null check per
+ * round. <br>
+ * <br>
+ * Records time of every round, counts rounds, wars, finished games, draws
+ * and loops, lengths of wars (amount of draws in a row) and events of every type.
+ *
+ * <pre>
+ * var metrics = new EngineMetrics();
+ * game.setMetrics(metrics);
+ * metrics.dumpEvery(Duration.ofSeconds(10), System.out::println, true);
+ * </pre>
+ */
+public class EngineMetrics {
+  /** Wars of this length or longer share last bucket */
+  public static final int WAR_CHAIN_BUCKETS = 16;
+
+  private static final Event[] TYPES = Event.values();
+
+  // Single thread shared by all periodic dumps
+  private static ScheduledExecutorService scheduler = null;
+
+  private final long started = System.nanoTime();
+  private final LatencyHistogram roundTimes = new LatencyHistogram();
+  private final LongAdder rounds = new LongAdder();
+  private final LongAdder wars = new LongAdder();
+  private final LongAdder gamesFinished = new LongAdder();
+  private final LongAdder draws = new LongAdder();
+  private final LongAdder loops = new LongAdder();
+  private final LongAdder[] warChains = new LongAdder[WAR_CHAIN_BUCKETS];
+  private final LongAdder[] events = new LongAdder[TYPES.length];
+
+  private final EventQueue.Listener eventCounter = e -> events[EventQueue.type(e).ordinal()].increment();
+
+  public EngineMetrics() {
+    for (var i = 0; i < warChains.length; i++)
+      warChains[i] = new LongAdder();
+    for (var i = 0; i < events.length; i++)
+      events[i] = new LongAdder();
+  }
+
+  /** Listener counting events, subscribed by {@link Game#setMetrics(EngineMetrics)} */
+  public EventQueue.Listener eventCounter() {
+    return eventCounter;
+  }
+
+  /**
+   * Record single round, called by {@link Game#playRound()}.
+   *
+   * @param nanos      duration of the round
+   * @param played     round was played, game was neither over nor looping
+   * @param warStarted new war was declared in the round
+   * @param warEnded   length of war which ended in the round, or 0
+   * @param finished   game ended in the round
+   * @param draw       game ended without winner
+   * @param loop       game was stopped, since it would never end
+   */
+  public void recordRound(long nanos, boolean played, boolean warStarted, int warEnded, boolean finished,
+      boolean draw, boolean loop) {
+    roundTimes.record(nanos);
+    if (played)
+      rounds.increment();
+    if (warStarted)
+      wars.increment();
+    if (warEnded > 0)
+      warChains[Math.min(warEnded, WAR_CHAIN_BUCKETS - 1)].increment();
+    if (finished) {
+      gamesFinished.increment();
+      if (loop)
+        loops.increment();
+      else if (draw)
+        draws.increment();
+    }
+  }
+
+  /** Current state of all metrics */
+  public MetricsSnapshot snapshot() {
+    var chains = new long[WAR_CHAIN_BUCKETS];
+    for (var i = 0; i < chains.length; i++)
+      chains[i] = warChains[i].sum();
+    var types = new long[TYPES.length];
+    for (var i = 0; i < types.length; i++)
+      types[i] = events[i].sum();
+    return new MetricsSnapshot(System.nanoTime() - started,
+        rounds.sum(), wars.sum(), gamesFinished.sum(), draws.sum(), loops.sum(),
+        chains, types, roundTimes.copy());
+  }
+
+  /**
+   * Pass metrics of every period to given consumer, as text or JSON, until
+   * returned future is cancelled.
+   */
+  public ScheduledFuture<?> dumpEvery(Duration period, Consumer<String> out, boolean json) {
+    var last = new MetricsSnapshot[] { snapshot() };
+    var nanos = period.toNanos();
+    return scheduler().scheduleAtFixedRate(() -> {
+      var current = snapshot();
+      var interval = current.since(last[0]);
+      last[0] = current;
+      out.accept((json) ? interval.toJson() : interval.toText());
+    }, nanos, nanos, TimeUnit.NANOSECONDS);
+  }
+
+  private static synchronized ScheduledExecutorService scheduler() {
+    if (scheduler == null)
+      scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        var thread = new Thread(r, "engine-metrics");
+        thread.setDaemon(true);
+        return thread;
+      });
+    return scheduler;
+  }
+}
@@ -0,0 +1,174 @@
+package game.metrics;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of durations in nanoseconds, in the style of HdrHistogram. <br>
+ * Values below 128 have their own buckets, every higher power of two is split
+ * into 64 buckets, so any value is kept with relative error below 1.6%.
+ * Whole range of long takes 3776 buckets. <br>
+ * Recording is thread safe and does not allocate. Every thread records into
+ * buckets of its own, which are summed when the histogram is read, so threads
+ * never contend for the same counter.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BITS = 7;
+  private static final int SUB = 1 << SUB_BITS;
+  private static final int HALF = SUB / 2;
+  static final int BUCKETS = SUB + (64 - SUB_BITS) * HALF;
+
+  // Buckets written only by owner thread
+  private static final class Recorder {
+    final Thread owner = Thread.currentThread();
+    final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    void add(int index, long count) {
+      // Single writer, so plain read and ordered write are enough
+      counts.lazySet(index, counts.get(index) + count);
+    }
+  }
+
+  private final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(this::newRecorder);
+  private final Queue<Recorder> recorders = new ConcurrentLinkedQueue<Recorder>();
+  // Counts of threads which are gone, guarded by this
+  private final long[] retired;
+
+  public LatencyHistogram() {
+    retired = new long[BUCKETS];
+  }
+
+  private LatencyHistogram(long[] counts) {
+    retired = counts;
+  }
+
+  private Recorder newRecorder() {
+    var recorder = new Recorder();
+    recorders.add(recorder);
+    return recorder;
+  }
+
+  // Sum of buckets of all threads, recorders of finished threads are folded
+  // into retired counts, so threads started for a while do not pile up
+  private synchronized long[] counts() {
+    var counts = retired.clone();
+    for (var it = recorders.iterator(); it.hasNext();) {
+      var recorder = it.next();
+      // Thread which is not alive has done all its writes
+      var dead = !recorder.owner.isAlive();
+      for (var i = 0; i < BUCKETS; i++) {
+        var c = recorder.counts.get(i);
+        counts[i] += c;
+        if (dead)
+          retired[i] += c;
+      }
+      if (dead)
+        it.remove();
+    }
+    return counts;
+  }
+
+  static int index(long value) {
+    if (value < SUB)
+      return (int) Math.max(value, 0);
+    var shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    return SUB + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+  }
+
+  // Lowest value in bucket
+  static long lowest(int index) {
+    if (index < SUB)
+      return index;
+    var shift = (index - SUB) / HALF + 1;
+    return (long) ((index - SUB) % HALF + HALF) << shift;
+  }
+
+  // Highest value in bucket
+  static long highest(int index) {
+    return (index + 1 >= BUCKETS) ? Long.MAX_VALUE : lowest(index + 1) - 1;
+  }
+
+  /** Record single value, negative values are recorded as 0 */
+  public void record(long nanos) {
+    recorder.get().add(index(nanos), 1);
+  }
+
+  /** Amount of recorded values */
+  public long count() {
+    return count(counts());
+  }
+
+  private static long count(long[] counts) {
+    var count = 0L;
+    for (var c : counts)
+      count += c;
+    return count;
+  }
+
+  /**
+   * Value below which given percentile (0 - 100) of recorded values are, or 0
+   * if nothing was recorded.
+   */
+  public long percentile(double percentile) {
+    var counts = counts();
+    var count = count(counts);
+    if (count == 0)
+      return 0;
+    var rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    var seen = 0L;
+    for (var i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank)
+        return highest(i);
+    }
+    return highest(BUCKETS - 1);
+  }
+
+  /** Highest recorded value, rounded up to its bucket, or 0 */
+  public long max() {
+    var counts = counts();
+    for (var i = BUCKETS - 1; i >= 0; i--)
+      if (counts[i] != 0)
+        return highest(i);
+    return 0;
+  }
+
+  /** Mean of recorded values, computed from bucket midpoints */
+  public double mean() {
+    var counts = counts();
+    var count = 0L;
+    var sum = 0.0;
+    for (var i = 0; i < BUCKETS; i++) {
+      var c = counts[i];
+      if (c == 0)
+        continue;
+      count += c;
+      sum += c * (lowest(i) / 2.0 + highest(i) / 2.0);
+    }
+    return (count == 0) ? 0 : sum / count;
+  }
+
+  /** Add all values of other histogram into this one */
+  public void merge(LatencyHistogram other) {
+    var counts = other.counts();
+    var recorder = this.recorder.get();
+    for (var i = 0; i < BUCKETS; i++)
+      if (counts[i] != 0)
+        recorder.add(i, counts[i]);
+  }
+
+  /** Copy of current state */
+  public LatencyHistogram copy() {
+    return new LatencyHistogram(counts());
+  }
+
+  /** Values recorded into this histogram but not into older copy of it */
+  public LatencyHistogram since(LatencyHistogram older) {
+    var delta = counts();
+    var old = older.counts();
+    for (var i = 0; i < BUCKETS; i++)
+      delta[i] -= old[i];
+    return new LatencyHistogram(delta);
+  }
+}
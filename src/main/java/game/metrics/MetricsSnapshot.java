@@ -0,0 +1,107 @@
+package game.metrics;
+
+import java.util.Locale;
+
+import game.EventQueue.Event;
+
+/**
+ * State of {@link EngineMetrics} at one moment. <br>
+ * Snapshot never changes, and can be subtracted from newer one with
+ * {@link #since(MetricsSnapshot)} to get metrics of given interval.
+ */
+public record MetricsSnapshot(
+    long elapsedNanos,
+    long rounds,
+    long wars,
+    long gamesFinished,
+    long draws,
+    long loops,
+    long[] warChains,
+    long[] events,
+    LatencyHistogram roundTimes) {
+
+  /** Amount of events of given type */
+  public long events(Event type) {
+    return events[type.ordinal()];
+  }
+
+  /** Events of given type per second of {@link #elapsedNanos()} */
+  public double eventsPerSecond(Event type) {
+    return perSecond(events(type));
+  }
+
+  /** Rounds per second of {@link #elapsedNanos()} */
+  public double roundsPerSecond() {
+    return perSecond(rounds);
+  }
+
+  private double perSecond(long count) {
+    return (elapsedNanos == 0) ? 0 : count * 1e9 / elapsedNanos;
+  }
+
+  /** Metrics recorded between older snapshot and this one */
+  public MetricsSnapshot since(MetricsSnapshot older) {
+    var chains = new long[warChains.length];
+    for (var i = 0; i < chains.length; i++)
+      chains[i] = warChains[i] - older.warChains[i];
+    var types = new long[events.length];
+    for (var i = 0; i < types.length; i++)
+      types[i] = events[i] - older.events[i];
+    return new MetricsSnapshot(elapsedNanos - older.elapsedNanos,
+        rounds - older.rounds,
+        wars - older.wars,
+        gamesFinished - older.gamesFinished,
+        draws - older.draws,
+        loops - older.loops,
+        chains, types, roundTimes.since(older.roundTimes));
+  }
+
+  /** Human readable, multi-line text */
+  public String toText() {
+    var text = new StringBuilder();
+    text.append(String.format(Locale.ROOT, "elapsed=%.3fs rounds=%d (%.1f/s) wars=%d games=%d draws=%d loops=%d%n",
+        elapsedNanos / 1e9, rounds, roundsPerSecond(), wars, gamesFinished, draws, loops));
+    text.append(String.format(Locale.ROOT, "round time ns: mean=%.0f p50=%d p90=%d p99=%d p99.9=%d max=%d%n",
+        roundTimes.mean(), roundTimes.percentile(50), roundTimes.percentile(90), roundTimes.percentile(99),
+        roundTimes.percentile(99.9), roundTimes.max()));
+    text.append("war chains:");
+    for (var i = 1; i < warChains.length; i++)
+      if (warChains[i] != 0)
+        text.append(' ').append(i).append((i == warChains.length - 1) ? "+=" : "=").append(warChains[i]);
+    text.append(System.lineSeparator()).append("events/s:");
+    for (var type : Event.values())
+      text.append(String.format(Locale.ROOT, " %s=%.1f", type, eventsPerSecond(type)));
+    return text.append(System.lineSeparator()).toString();
+  }
+
+  /** Single line JSON object */
+  public String toJson() {
+    var json = new StringBuilder("{");
+    json.append("\"elapsedNanos\":").append(elapsedNanos);
+    json.append(",\"rounds\":").append(rounds);
+    json.append(",\"wars\":").append(wars);
+    json.append(",\"gamesFinished\":").append(gamesFinished);
+    json.append(",\"draws\":").append(draws);
+    json.append(",\"loops\":").append(loops);
+    json.append(",\"roundTimeNanos\":{");
+    json.append("\"count\":").append(roundTimes.count());
+    json.append(String.format(Locale.ROOT, ",\"mean\":%.1f", roundTimes.mean()));
+    json.append(",\"p50\":").append(roundTimes.percentile(50));
+    json.append(",\"p90\":").append(roundTimes.percentile(90));
+    json.append(",\"p99\":").append(roundTimes.percentile(99));
+    json.append(",\"p999\":").append(roundTimes.percentile(99.9));
+    json.append(",\"max\":").append(roundTimes.max());
+    json.append("},\"warChains\":[");
+    for (var i = 0; i < warChains.length; i++)
+      json.append((i == 0) ? "" : ",").append(warChains[i]);
+    json.append("],\"events\":{");
+    for (var type : Event.values())
+      json.append((type.ordinal() == 0) ? "" : ",").append('"').append(type).append("\":").append(events(type));
+    return json.append("}}").toString();
+  }
+
+  @Override
+  public String toString() {
+    return toText();
+  }
+}
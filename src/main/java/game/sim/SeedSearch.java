@@ -0,0 +1,306 @@
+package game.sim;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongConsumer;
+
+import game.Game;
+import game.GameResult;
+
+/**
+ * Searches range of seeds for extremal games. <br>
+ * Every seed is dealt with {@link Game#dispatchDecks(int)} and played on
+ * {@link ForkJoinPool}, and best {@code k} seeds of every {@link Objective}
+ * are kept. Games stuck in a loop or stopped after maximum of rounds are never
+ * counted. <br>
+ * <br>
+ * Range is searched in blocks. After every block the state of search is
+ * written into checkpoint file (if set), and search started with the same
+ * settings continues after the last finished block.
+ *
+ * <pre>
+ * Checkpoint file:
+ * int    magic, "WARS"
+ * short  version
+ * long   first seed of range
+ * long   end of range (exclusive)
+ * int    k
+ * int    max rounds
+ * int    amount of objectives, followed by their ordinals as bytes
+ * long   next seed to play
+ * For every objective:
+ * int    amount of kept seeds, followed by pairs of long score and long seed
+ * </pre>
+ *
+ * <pre>
+ * var search = new SeedSearch(10, Objective.LONGEST, Objective.MOST_WARS);
+ * search.setCheckpoint(Paths.get("search.checkpoint"));
+ * search.runAll().export(Paths.get("seeds.csv"));
+ * </pre>
+ */
+public class SeedSearch {
+  public static final int MAGIC = 0x57415253;
+  public static final short VERSION = 1;
+
+  // Amount of seeds played by single task without splitting
+  private static final int CHUNK = 256;
+
+  /** What makes a game extremal */
+  public enum Objective {
+    LONGEST, SHORTEST, MOST_WARS, DEEPEST_WAR;
+
+    /** Score of finished game, higher is better */
+    public long score(GameResult result) {
+      return switch (this) {
+        case LONGEST -> result.rounds();
+        case SHORTEST -> -result.rounds();
+        case MOST_WARS -> result.wars();
+        case DEEPEST_WAR -> result.longestWar();
+      };
+    }
+  }
+
+  private final int k;
+  private final Objective[] objectives;
+  private final ForkJoinPool pool;
+  private int maxRounds = 100_000;
+  private int blockSize = 1 << 20;
+  private Path checkpoint = null;
+  private LongConsumer progress = null;
+
+  public SeedSearch(int k, Objective... objectives) {
+    this(ForkJoinPool.commonPool(), k, objectives);
+  }
+
+  public SeedSearch(ForkJoinPool pool, int k, Objective... objectives) {
+    if (objectives.length == 0)
+      throw new IllegalArgumentException("At least one objective is needed");
+    this.pool = pool;
+    this.k = k;
+    this.objectives = objectives.clone();
+  }
+
+  /** Stop every game after given amount of rounds, such games do not count */
+  public void setMaxRounds(int maxRounds) {
+    this.maxRounds = maxRounds;
+  }
+
+  /** Amount of seeds between checkpoints */
+  public void setBlockSize(int blockSize) {
+    this.blockSize = blockSize;
+  }
+
+  /** Save progress into given file after every block, and resume from it */
+  public void setCheckpoint(Path checkpoint) {
+    this.checkpoint = checkpoint;
+  }
+
+  /** Called with next seed to play after every block */
+  public void setProgress(LongConsumer progress) {
+    this.progress = progress;
+  }
+
+  /** Search whole 32-bit seed space */
+  public Result runAll() throws IOException {
+    return run(Integer.MIN_VALUE, Integer.MAX_VALUE + 1L);
+  }
+
+  /**
+   * Search every seed from {@code fromSeed} (inclusive) to {@code toSeed}
+   * (exclusive), or rest of them if checkpoint of the same search exists.
+   */
+  public Result run(long fromSeed, long toSeed) throws IOException {
+    var heaps = new EnumMap<Objective, TopK>(Objective.class);
+    for (var objective : objectives)
+      heaps.put(objective, new TopK(k));
+
+    var next = fromSeed;
+    if (checkpoint != null && Files.exists(checkpoint))
+      next = readCheckpoint(fromSeed, toSeed, heaps);
+
+    while (next < toSeed) {
+      var end = Math.min(toSeed, next + blockSize);
+      var run = new Run();
+      pool.invoke(new Task(run, next, end));
+      for (var worker : run.workers)
+        for (var objective : objectives)
+          heaps.get(objective).merge(worker.heaps.get(objective));
+
+      next = end;
+      if (checkpoint != null)
+        writeCheckpoint(fromSeed, toSeed, next, heaps);
+      if (progress != null)
+        progress.accept(next);
+    }
+    return new Result(heaps);
+  }
+
+  // --- Checkpoint ---
+
+  private void writeCheckpoint(long fromSeed, long toSeed, long next, Map<Objective, TopK> heaps)
+      throws IOException {
+    // Written aside and moved over, so crash never leaves half of file
+    var temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeLong(fromSeed);
+      out.writeLong(toSeed);
+      out.writeInt(k);
+      out.writeInt(maxRounds);
+      out.writeInt(objectives.length);
+      for (var objective : objectives)
+        out.writeByte(objective.ordinal());
+      out.writeLong(next);
+      for (var objective : objectives)
+        heaps.get(objective).write(out);
+    }
+    Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private long readCheckpoint(long fromSeed, long toSeed, Map<Objective, TopK> heaps) throws IOException {
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+      if (in.readInt() != MAGIC)
+        throw new IOException("Not a checkpoint of seed search");
+      var version = in.readShort();
+      if (version != VERSION)
+        throw new IOException("Unsupported version of checkpoint " + version);
+
+      var from = in.readLong();
+      var to = in.readLong();
+      var storedK = in.readInt();
+      var storedMaxRounds = in.readInt();
+      var count = in.readInt();
+      if (count < 0 || count > Objective.values().length)
+        throw new IOException("Corrupted checkpoint, " + count + " objectives");
+      var ordinals = new byte[count];
+      in.readFully(ordinals);
+
+      var expected = new byte[objectives.length];
+      for (var i = 0; i < objectives.length; i++)
+        expected[i] = (byte) objectives[i].ordinal();
+      if (from != fromSeed || to != toSeed || storedK != k || storedMaxRounds != maxRounds
+          || !Arrays.equals(ordinals, expected))
+        throw new IOException("Checkpoint " + checkpoint + " belongs to other search");
+
+      var next = in.readLong();
+      if (next < fromSeed || next > toSeed)
+        throw new IOException("Corrupted checkpoint, next seed " + next + " is out of range");
+      for (var objective : objectives)
+        heaps.get(objective).read(in);
+      return next;
+    }
+  }
+
+  // --- Parallel search ---
+
+  // State of single worker thread during one block
+  private class Worker {
+    final Game game = new Game();
+    final EnumMap<Objective, TopK> heaps = new EnumMap<Objective, TopK>(Objective.class);
+
+    Worker() {
+      game.setCycleDetection(true);
+      for (var objective : objectives)
+        heaps.put(objective, new TopK(k));
+    }
+
+    void play(long seed) {
+      game.dispatchDecks((int) seed);
+      var result = game.playToCompletion(maxRounds);
+      if (result.capped() || result.loop())
+        return;
+      for (var objective : objectives)
+        heaps.get(objective).offer(objective.score(result), seed);
+    }
+  }
+
+  private class Run {
+    final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<Worker>();
+    final ThreadLocal<Worker> worker = ThreadLocal.withInitial(() -> {
+      var w = new Worker();
+      workers.add(w);
+      return w;
+    });
+  }
+
+  private static class Task extends RecursiveAction {
+    final Run run;
+    final long from;
+    final long to;
+
+    Task(Run run, long from, long to) {
+      this.run = run;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= CHUNK) {
+        var worker = run.worker.get();
+        for (var seed = from; seed < to; seed++)
+          worker.play(seed);
+        return;
+      }
+      var middle = from + (to - from) / 2;
+      invokeAll(new Task(run, from, middle), new Task(run, middle, to));
+    }
+  }
+
+  /** Seeds found by search */
+  public class Result {
+    private final Map<Objective, TopK> heaps;
+
+    Result(Map<Objective, TopK> heaps) {
+      this.heaps = heaps;
+    }
+
+    /** Best seeds of given objective, best first */
+    public long[] getSeeds(Objective objective) {
+      return heaps.get(objective).seeds();
+    }
+
+    /**
+     * Write found seeds as CSV:
+     * {@code objective,rank,seed,winner,rounds,wars,longest_war}. <br>
+     * Every seed can be replayed with {@link Game#dispatchDecks(int)}.
+     */
+    public void export(Path path) throws IOException {
+      try (var out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+        export(out);
+      }
+    }
+
+    /** Write found seeds as CSV into given writer, see {@link #export(Path)} */
+    public void export(Writer out) throws IOException {
+      var game = new Game();
+      game.setCycleDetection(true);
+      out.write("objective,rank,seed,winner,rounds,wars,longest_war\n");
+      for (var objective : objectives) {
+        var seeds = getSeeds(objective);
+        for (var rank = 0; rank < seeds.length; rank++) {
+          game.dispatchDecks((int) seeds[rank]);
+          var result = game.playToCompletion(maxRounds);
+          out.write(objective + "," + (rank + 1) + "," + (int) seeds[rank] + ","
+              + ((result.winner() == null) ? "" : result.winner().name()) + "," + result.rounds() + ","
+              + result.wars() + "," + result.longestWar() + "\n");
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package game.sim;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Best {@code k} seeds by score, higher score is better. <br>
+ * Kept as binary min-heap over primitive arrays, so the worst kept seed is at
+ * the root and most games are rejected by a single comparison. Equal scores
+ * prefer lower seed, so result does not depend on order of offers.
+ */
+public class TopK {
+  private final int k;
+  private final long[] scores;
+  private final long[] seeds;
+  private int size = 0;
+
+  public TopK(int k) {
+    if (k < 1)
+      throw new IllegalArgumentException("k must be positive");
+    this.k = k;
+    this.scores = new long[k];
+    this.seeds = new long[k];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** Offer seed with given score, returns true if it was kept */
+  public boolean offer(long score, long seed) {
+    if (size < k) {
+      scores[size] = score;
+      seeds[size] = seed;
+      siftUp(size++);
+      return true;
+    }
+    if (!worse(scores[0], seeds[0], score, seed))
+      return false;
+    scores[0] = score;
+    seeds[0] = seed;
+    siftDown(0);
+    return true;
+  }
+
+  /** Offer all seeds of other heap */
+  public void merge(TopK other) {
+    for (var i = 0; i < other.size; i++)
+      offer(other.scores[i], other.seeds[i]);
+  }
+
+  /** Kept seeds, best first */
+  public long[] seeds() {
+    var order = sortedIndexes();
+    var sorted = new long[size];
+    for (var i = 0; i < size; i++)
+      sorted[i] = seeds[order[i]];
+    return sorted;
+  }
+
+  /** Scores of {@link #seeds()}, in the same order */
+  public long[] scores() {
+    var order = sortedIndexes();
+    var sorted = new long[size];
+    for (var i = 0; i < size; i++)
+      sorted[i] = scores[order[i]];
+    return sorted;
+  }
+
+  private int[] sortedIndexes() {
+    var order = new int[size];
+    for (var i = 0; i < size; i++)
+      order[i] = i;
+    // Insertion sort, heap is small
+    for (var i = 1; i < size; i++)
+      for (var j = i; j > 0 && worse(scores[order[j - 1]], seeds[order[j - 1]], scores[order[j]], seeds[order[j]]); j--) {
+        var swap = order[j];
+        order[j] = order[j - 1];
+        order[j - 1] = swap;
+      }
+    return order;
+  }
+
+  void write(DataOutput out) throws IOException {
+    out.writeInt(size);
+    for (var i = 0; i < size; i++) {
+      out.writeLong(scores[i]);
+      out.writeLong(seeds[i]);
+    }
+  }
+
+  void read(DataInput in) throws IOException {
+    var count = in.readInt();
+    if (count < 0 || count > k)
+      throw new IOException("Heap of " + count + " seeds does not fit into " + k);
+    size = 0;
+    for (var i = 0; i < count; i++)
+      offer(in.readLong(), in.readLong());
+  }
+
+  // First entry is worse than second
+  private static boolean worse(long score, long seed, long otherScore, long otherSeed) {
+    return score < otherScore || (score == otherScore && seed > otherSeed);
+  }
+
+  private void siftUp(int i) {
+    while (i > 0) {
+      var parent = (i - 1) / 2;
+      if (!worse(scores[i], seeds[i], scores[parent], seeds[parent]))
+        return;
+      swap(i, parent);
+      i = parent;
+    }
+  }
+
+  private void siftDown(int i) {
+    while (true) {
+      var left = 2 * i + 1;
+      if (left >= size)
+        return;
+      var child = (left + 1 < size && worse(scores[left + 1], seeds[left + 1], scores[left], seeds[left])) ? left + 1
+          : left;
+      if (!worse(scores[child], seeds[child], scores[i], seeds[i]))
+        return;
+      swap(i, child);
+      i = child;
+    }
+  }
+
+  private void swap(int i, int j) {
+    var score = scores[i];
+    scores[i] = scores[j];
+    scores[j] = score;
+    var seed = seeds[i];
+    seeds[i] = seeds[j];
+    seeds[j] = seed;
+  }
+}
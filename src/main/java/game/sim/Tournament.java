@@ -0,0 +1,175 @@
+package game.sim;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import game.Game;
+import game.Rules;
+import game.metrics.EngineMetrics;
+import game.stats.GameStats;
+
+/**
+ * Plays whole range of seeds on all cores. <br>
+ * Range is split recursively on {@link ForkJoinPool}, so idle workers steal
+ * chunks from busy ones. Every worker thread reuses single {@link Game} and
+ * counts results into it's own {@link TournamentStats}, which are merged once
+ * all games are played. <br>
+ * <br>
+ * Game with given seed is always dealt with {@link Game#dispatchDecks(int)},
+ * or with stream of master seed (see {@link #setMasterSeed(Long)}), so results
+ * are the same for any level of parallelism.
+ * 
+ * <pre>
+ * var stats = new Tournament().run(0, 1_000_000);
+ * println(stats.getWhiteWinRate());
+ * </pre>
+ */
+public class Tournament {
+  // Amount of seeds played by single task without splitting
+  private static final int CHUNK = 256;
+
+  private final ForkJoinPool pool;
+  private int maxRounds = 100_000;
+  private int bucketWidth = 50;
+  private boolean cycleDetection = true;
+  private EngineMetrics metrics = null;
+  private Rules rules = Rules.STANDARD;
+  // Deal with streams of Game.dealRandom, if not null
+  private Long masterSeed = null;
+
+  public Tournament() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  public Tournament(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /** Stop every game after given amount of rounds */
+  public void setMaxRounds(int maxRounds) {
+    this.maxRounds = maxRounds;
+  }
+
+  /** Width of buckets in histogram of game lengths */
+  public void setBucketWidth(int bucketWidth) {
+    this.bucketWidth = bucketWidth;
+  }
+
+  /** Stop games which would never end, see {@link Game#setCycleDetection(boolean)} */
+  public void setCycleDetection(boolean cycleDetection) {
+    this.cycleDetection = cycleDetection;
+  }
+
+  /**
+   * Deal game with seed {@code s} by {@link Game#dealRandom(long, long)} of
+   * given master seed and {@code s}, instead of {@link Game#dispatchDecks(int)}.
+   * Pass null to go back.
+   */
+  public void setMasterSeed(Long masterSeed) {
+    this.masterSeed = masterSeed;
+  }
+
+  /** Play all games by given rules */
+  public void setRules(Rules rules) {
+    this.rules = rules;
+  }
+
+  /** Record metrics of all games into given registry, or stop if null */
+  public void setMetrics(EngineMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /** Play every seed from {@code fromSeed} (inclusive) to {@code toSeed} (exclusive) */
+  public TournamentStats run(long fromSeed, long toSeed) {
+    var run = new Run(false);
+    pool.invoke(new Task(run, fromSeed, toSeed));
+
+    var stats = new TournamentStats(maxRounds, bucketWidth);
+    for (var worker : run.workers)
+      stats.merge(worker.stats);
+    return stats;
+  }
+
+  /**
+   * Play every seed of given range like {@link #run(long, long)}, and collect
+   * streaming sketches of games instead. Every worker fills its own
+   * {@link GameStats}, merged once all games are played.
+   */
+  public GameStats sketch(long fromSeed, long toSeed) {
+    var run = new Run(true);
+    pool.invoke(new Task(run, fromSeed, toSeed));
+
+    var sketch = new GameStats();
+    for (var worker : run.workers)
+      sketch.merge(worker.sketch);
+    return sketch;
+  }
+
+  // State of single worker thread
+  private class Worker {
+    final Game game = new Game();
+    final TournamentStats stats = new TournamentStats(maxRounds, bucketWidth);
+    // Counts finished games by itself, null unless sketching
+    final GameStats sketch;
+
+    Worker(boolean sketching) {
+      game.setCycleDetection(cycleDetection);
+      game.setMetrics(metrics);
+      game.setRules(rules);
+      sketch = (sketching) ? new GameStats() : null;
+      if (sketching)
+        sketch.attach(game);
+    }
+
+    void play(long seed) {
+      if (masterSeed == null)
+        game.dispatchDecks((int) seed);
+      else
+        game.dispatchDecks(Game.dealRandom(masterSeed, seed));
+      var result = game.playToCompletion(maxRounds);
+      if (sketch == null)
+        stats.add(result);
+      else if (result.capped())
+        sketch.add(result, game.getTable().hash());
+    }
+  }
+
+  // State of single call of Tournament.run
+  private class Run {
+    final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<Worker>();
+    final ThreadLocal<Worker> worker;
+
+    Run(boolean sketching) {
+      worker = ThreadLocal.withInitial(() -> {
+        var w = new Worker(sketching);
+        workers.add(w);
+        return w;
+      });
+    }
+  }
+
+  private static class Task extends RecursiveAction {
+    final Run run;
+    final long from;
+    final long to;
+
+    Task(Run run, long from, long to) {
+      this.run = run;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= CHUNK) {
+        var worker = run.worker.get();
+        for (var seed = from; seed < to; seed++)
+          worker.play(seed);
+        return;
+      }
+      var middle = from + (to - from) / 2;
+      invokeAll(new Task(run, from, middle), new Task(run, middle, to));
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package game.sim;
+
+import java.util.Arrays;
+
+import game.GameResult;
+
+/**
+ * Statistics of many simulated games. <br>
+ * Everything is counted in integers, so merging results of workers gives
+ * exactly the same numbers no matter how seeds were split between them.
+ */
+public class TournamentStats {
+  // Games longer than that go to the last bucket of histogram
+  private final int maxRounds;
+  private final int bucketWidth;
+
+  private long games = 0;
+  private long whiteWins = 0;
+  private long blackWins = 0;
+  private long draws = 0;
+  private long loops = 0;
+  private long capped = 0;
+  private long rounds = 0;
+  private long wars = 0;
+  private long gamesWithWar = 0;
+
+  // Amount of games by their length, every bucket holds `bucketWidth` rounds
+  private final long[] lengthHistogram;
+  // Amount of games by longest war chain
+  private final long[] warChainHistogram = new long[16];
+
+  public TournamentStats(int maxRounds, int bucketWidth) {
+    this.maxRounds = maxRounds;
+    this.bucketWidth = bucketWidth;
+    lengthHistogram = new long[maxRounds / bucketWidth + 1];
+  }
+
+  /** Count result of single game */
+  public void add(GameResult result) {
+    games++;
+    rounds += result.rounds();
+    wars += result.wars();
+    if (result.wars() > 0)
+      gamesWithWar++;
+
+    if (result.capped())
+      capped++;
+    else if (result.loop())
+      loops++;
+    else if (result.winner() == null)
+      draws++;
+    else
+      switch (result.winner()) {
+        case WHITE:
+          whiteWins++;
+          break;
+        case BLACK:
+          blackWins++;
+          break;
+      }
+
+    lengthHistogram[Math.min(result.rounds() / bucketWidth, lengthHistogram.length - 1)]++;
+    warChainHistogram[Math.min(result.longestWar(), warChainHistogram.length - 1)]++;
+  }
+
+  /** Add results of another worker to this one */
+  public void merge(TournamentStats other) {
+    if (other.maxRounds != maxRounds || other.bucketWidth != bucketWidth)
+      throw new IllegalArgumentException("Can not merge statistics with different histograms");
+
+    games += other.games;
+    whiteWins += other.whiteWins;
+    blackWins += other.blackWins;
+    draws += other.draws;
+    loops += other.loops;
+    capped += other.capped;
+    rounds += other.rounds;
+    wars += other.wars;
+    gamesWithWar += other.gamesWithWar;
+    for (var i = 0; i < lengthHistogram.length; i++)
+      lengthHistogram[i] += other.lengthHistogram[i];
+    for (var i = 0; i < warChainHistogram.length; i++)
+      warChainHistogram[i] += other.warChainHistogram[i];
+  }
+
+  // --- Getters ---
+  public long getGames() {
+    return games;
+  }
+
+  public long getWhiteWins() {
+    return whiteWins;
+  }
+
+  public long getBlackWins() {
+    return blackWins;
+  }
+
+  public long getDraws() {
+    return draws;
+  }
+
+  /** Games stopped by cycle detection */
+  public long getLoops() {
+    return loops;
+  }
+
+  /** Games stopped, because limit of rounds was hit */
+  public long getCapped() {
+    return capped;
+  }
+
+  public long getRounds() {
+    return rounds;
+  }
+
+  public long getWars() {
+    return wars;
+  }
+
+  public double getWhiteWinRate() {
+    return (games == 0) ? 0 : (double) whiteWins / games;
+  }
+
+  public double getBlackWinRate() {
+    return (games == 0) ? 0 : (double) blackWins / games;
+  }
+
+  /** Average amount of wars per game */
+  public double getWarFrequency() {
+    return (games == 0) ? 0 : (double) wars / games;
+  }
+
+  /** Share of games with at least one war */
+  public double getWarGameRate() {
+    return (games == 0) ? 0 : (double) gamesWithWar / games;
+  }
+
+  public double getAverageRounds() {
+    return (games == 0) ? 0 : (double) rounds / games;
+  }
+
+  public int getBucketWidth() {
+    return bucketWidth;
+  }
+
+  /**
+   * Amount of games by their length. Bucket {@code i} holds games with
+   * {@code i * bucketWidth} to {@code (i + 1) * bucketWidth - 1} rounds, last
+   * bucket holds all longer games as well
+   */
+  public long[] getLengthHistogram() {
+    return lengthHistogram.clone();
+  }
+
+  /** Amount of games by longest war chain, last bucket holds all longer chains */
+  public long[] getWarChainHistogram() {
+    return warChainHistogram.clone();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof TournamentStats))
+      return false;
+    var other = (TournamentStats) o;
+    return games == other.games
+        && whiteWins == other.whiteWins
+        && blackWins == other.blackWins
+        && draws == other.draws
+        && loops == other.loops
+        && capped == other.capped
+        && rounds == other.rounds
+        && wars == other.wars
+        && gamesWithWar == other.gamesWithWar
+        && Arrays.equals(lengthHistogram, other.lengthHistogram)
+        && Arrays.equals(warChainHistogram, other.warChainHistogram);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(games * 31 + rounds) ^ Arrays.hashCode(lengthHistogram);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("games=%d white=%.4f black=%.4f draws=%d loops=%d capped=%d avgRounds=%.2f wars/game=%.4f",
+        games, getWhiteWinRate(), getBlackWinRate(), draws, loops, capped, getAverageRounds(), getWarFrequency());
+  }
+}
@@ -0,0 +1,198 @@
+package game.stats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import game.EventQueue;
+import game.EventQueue.Event;
+import game.Game;
+import game.GameResult;
+
+/**
+ * Statistics of any amount of games in fixed memory. <br>
+ * Outcomes are counted exactly, lengths of games and their longest wars go to
+ * {@link KllSketch}es, and hashes of final tables to {@link HyperLogLog}.
+ * Every worker keeps its own statistics, which merge cheaply, and can be
+ * written to a file and merged by another process. <br>
+ * <br>
+ * Finished games are counted by listener of {@link Event#GAME_FINISH}, so
+ * statistics can be attached to any game, no matter who plays it. Games
+ * stopped after maximum of rounds never finish and have to be added with
+ * {@link #add(GameResult, long)}. Final tables are only hashed when cycle
+ * detection is enabled (see {@link Game#setCycleDetection(boolean)}).
+ *
+ * <pre>
+ * File format:
+ * int    magic, "WARQ"
+ * short  version
+ * long   games, white wins, black wins, draws, loops, capped
+ * sketch rounds, see KllSketch.write()
+ * sketch longest wars
+ * hll    hashes of final tables, see HyperLogLog.write()
+ * </pre>
+ */
+public class GameStats {
+  public static final int MAGIC = 0x57415251;
+  public static final short VERSION = 1;
+
+  private long games = 0;
+  private long whiteWins = 0;
+  private long blackWins = 0;
+  private long draws = 0;
+  private long loops = 0;
+  private long capped = 0;
+  private final KllSketch rounds;
+  private final KllSketch longestWars;
+  private final HyperLogLog finalStates;
+
+  public GameStats() {
+    this(new KllSketch(), new KllSketch(), new HyperLogLog());
+  }
+
+  private GameStats(KllSketch rounds, KllSketch longestWars, HyperLogLog finalStates) {
+    this.rounds = rounds;
+    this.longestWars = longestWars;
+    this.finalStates = finalStates;
+  }
+
+  /**
+   * Count every game finished by given game from now on. Returned listener
+   * can be passed to {@link EventQueue#unsubscribe} to stop.
+   */
+  public EventQueue.Listener attach(Game game) {
+    EventQueue.Listener listener = e -> add(game.getResult(), game.getTable().hash());
+    game.events.subscribe(EventQueue.mask(Event.GAME_FINISH), listener);
+    return listener;
+  }
+
+  /** Count result of single game, with hash of its final table or 0 if unknown */
+  public void add(GameResult result, long finalHash) {
+    games++;
+    if (result.capped())
+      capped++;
+    else if (result.loop())
+      loops++;
+    else if (result.winner() == null)
+      draws++;
+    else
+      switch (result.winner()) {
+        case WHITE -> whiteWins++;
+        case BLACK -> blackWins++;
+      }
+    rounds.add(result.rounds());
+    longestWars.add(result.longestWar());
+    if (finalHash != 0)
+      finalStates.add(finalHash);
+  }
+
+  /** Add statistics of another worker or process to this one */
+  public void merge(GameStats other) {
+    games += other.games;
+    whiteWins += other.whiteWins;
+    blackWins += other.blackWins;
+    draws += other.draws;
+    loops += other.loops;
+    capped += other.capped;
+    rounds.merge(other.rounds);
+    longestWars.merge(other.longestWars);
+    finalStates.merge(other.finalStates);
+  }
+
+  // --- Getters ---
+  public long getGames() {
+    return games;
+  }
+
+  public long getWhiteWins() {
+    return whiteWins;
+  }
+
+  public long getBlackWins() {
+    return blackWins;
+  }
+
+  public long getDraws() {
+    return draws;
+  }
+
+  /** Games stopped by cycle detection */
+  public long getLoops() {
+    return loops;
+  }
+
+  /** Games stopped, because limit of rounds was hit */
+  public long getCapped() {
+    return capped;
+  }
+
+  /** Sketch of lengths of games in rounds */
+  public KllSketch getRounds() {
+    return rounds;
+  }
+
+  /** Sketch of longest chain of draws in a single war of every game */
+  public KllSketch getLongestWars() {
+    return longestWars;
+  }
+
+  /** Estimated amount of distinct final tables */
+  public long getDistinctFinalStates() {
+    return finalStates.estimate();
+  }
+
+  // --- Files ---
+  public void write(Path path) throws IOException {
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeLong(games);
+      out.writeLong(whiteWins);
+      out.writeLong(blackWins);
+      out.writeLong(draws);
+      out.writeLong(loops);
+      out.writeLong(capped);
+      rounds.write(out);
+      longestWars.write(out);
+      finalStates.write(out);
+    }
+  }
+
+  public static GameStats read(Path path) throws IOException {
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != MAGIC)
+        throw new IOException("Not a file of game statistics");
+      var version = in.readShort();
+      if (version != VERSION)
+        throw new IOException("Unsupported version of game statistics " + version);
+
+      var counts = new long[6];
+      for (var i = 0; i < counts.length; i++)
+        counts[i] = in.readLong();
+      var stats = new GameStats(KllSketch.read(in), KllSketch.read(in), HyperLogLog.read(in));
+      stats.games = counts[0];
+      stats.whiteWins = counts[1];
+      stats.blackWins = counts[2];
+      stats.draws = counts[3];
+      stats.loops = counts[4];
+      stats.capped = counts[5];
+      return stats;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT,
+        "games=%d white=%d black=%d draws=%d loops=%d capped=%d distinctFinal~%d%n"
+            + "rounds: min=%d p50=%.0f p90=%.0f p99=%.0f p99.9=%.0f max=%d%n"
+            + "longest war: p50=%.0f p99=%.0f max=%d",
+        games, whiteWins, blackWins, draws, loops, capped, getDistinctFinalStates(),
+        rounds.min(), rounds.quantile(0.5), rounds.quantile(0.9), rounds.quantile(0.99), rounds.quantile(0.999),
+        rounds.max(), longestWars.quantile(0.5), longestWars.quantile(0.99), longestWars.max());
+  }
+}
@@ -0,0 +1,94 @@
+package game.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Approximate amount of distinct 64-bit hashes (HyperLogLog). <br>
+ * Uses {@code 2^precision} registers of one byte, 16 KB for default
+ * precision 14, with standard error about {@code 1.04 / sqrt(2^precision)},
+ * under 1%. Sketches of the same precision merge by taking maximum of every
+ * register, so merging is exact: merged sketch equals sketch of all hashes.
+ */
+public class HyperLogLog {
+  public static final int DEFAULT_PRECISION = 14;
+
+  private final int precision;
+  private final byte[] registers;
+
+  public HyperLogLog() {
+    this(DEFAULT_PRECISION);
+  }
+
+  public HyperLogLog(int precision) {
+    if (precision < 4 || precision > 18)
+      throw new IllegalArgumentException("Precision must be from 4 to 18");
+    this.precision = precision;
+    this.registers = new byte[1 << precision];
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+
+  /** Add hash, which is mixed again, so weak hashes are fine too */
+  public void add(long hash) {
+    hash = mix(hash);
+    var index = (int) (hash >>> (64 - precision));
+    // Marker bit caps rank, when all remaining bits are 0
+    var rank = (byte) (Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1);
+    if (rank > registers[index])
+      registers[index] = rank;
+  }
+
+  /** Add all hashes of other sketch with the same precision */
+  public void merge(HyperLogLog other) {
+    if (other.precision != precision)
+      throw new IllegalArgumentException("Can not merge sketches of precision " + precision + " and "
+          + other.precision);
+    for (var i = 0; i < registers.length; i++)
+      if (other.registers[i] > registers[i])
+        registers[i] = other.registers[i];
+  }
+
+  /** Estimated amount of distinct hashes */
+  public long estimate() {
+    var m = registers.length;
+    var sum = 0.0;
+    var zeros = 0;
+    for (var register : registers) {
+      sum += 1.0 / (1L << register);
+      if (register == 0)
+        zeros++;
+    }
+    var alpha = 0.7213 / (1 + 1.079 / m);
+    var estimate = alpha * m * m / sum;
+    // Linear counting is more precise for small amounts
+    if (estimate <= 2.5 * m && zeros > 0)
+      estimate = m * Math.log((double) m / zeros);
+    return Math.round(estimate);
+  }
+
+  private static long mix(long z) {
+    z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+    z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return z ^ (z >>> 33);
+  }
+
+  // --- Binary format ---
+  /** Byte precision followed by all registers */
+  void write(DataOutput out) throws IOException {
+    out.writeByte(precision);
+    out.write(registers);
+  }
+
+  static HyperLogLog read(DataInput in) throws IOException {
+    var precision = in.readByte();
+    if (precision < 4 || precision > 18)
+      throw new IOException("Corrupted sketch, precision " + precision);
+    var sketch = new HyperLogLog(precision);
+    in.readFully(sketch.registers);
+    return sketch;
+  }
+}
@@ -0,0 +1,147 @@
+package server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Client connection, owned by single {@link Shard}. <br>
+ * Lines are executed one by one. While command waits for reply of another
+ * shard, following lines stay queued, so replies keep order of commands. When
+ * too much output is waiting for slow client, reading from it is paused.
+ */
+class Connection {
+  // Longest accepted line
+  private static final int MAX_LINE = 4096;
+  // Reading is paused while more output is waiting
+  private static final int MAX_PENDING_OUTPUT = 1 << 20;
+
+  private final Shard shard;
+  private final SocketChannel channel;
+  SelectionKey key;
+
+  private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE);
+  private final Deque<ByteBuffer> out = new ArrayDeque<ByteBuffer>();
+  private int pendingOutput = 0;
+
+  private final Deque<String> lines = new ArrayDeque<String>();
+  // Waiting for reply of other shard
+  private boolean waiting = false;
+  private boolean closed = false;
+
+  Connection(Shard shard, SocketChannel channel) {
+    this.shard = shard;
+    this.channel = channel;
+  }
+
+  void read() throws IOException {
+    if (channel.read(in) < 0) {
+      close();
+      return;
+    }
+
+    // Split complete lines
+    in.flip();
+    var start = 0;
+    for (var i = 0; i < in.limit(); i++) {
+      if (in.get(i) != '\n')
+        continue;
+      var end = i > start && in.get(i - 1) == '\r' ? i - 1 : i;
+      lines.add(new String(in.array(), start, end - start, StandardCharsets.UTF_8));
+      start = i + 1;
+    }
+    in.position(start);
+    in.compact();
+
+    if (!in.hasRemaining()) {
+      send("ERR Line too long\n");
+      in.clear();
+    }
+    process();
+  }
+
+  // Execute queued lines until one has to wait for other shard
+  private void process() {
+    while (!waiting && !closed && !lines.isEmpty()) {
+      var line = lines.poll().trim();
+      if (line.isEmpty())
+        continue;
+      // Username is the rest of the line
+      var command = line.split(" +", 4);
+
+      switch (command[0]) {
+        case "QUIT" -> close();
+        case "CREATE" -> send(shard.execute(command));
+        default -> {
+          Shard owner;
+          try {
+            owner = shard.owner(Shard.tableId(command));
+          } catch (IllegalArgumentException e) {
+            send("ERR " + e.getMessage() + "\n");
+            continue;
+          }
+
+          if (owner == shard) {
+            send(shard.execute(command));
+            continue;
+          }
+          waiting = true;
+          owner.submit(() -> {
+            var reply = owner.execute(command);
+            shard.submit(() -> {
+              waiting = false;
+              send(reply);
+              process();
+            });
+          });
+        }
+      }
+    }
+  }
+
+  private void send(String reply) {
+    if (closed)
+      return;
+    var buffer = ByteBuffer.wrap(reply.getBytes(StandardCharsets.UTF_8));
+    out.add(buffer);
+    pendingOutput += buffer.remaining();
+    try {
+      flush();
+    } catch (IOException e) {
+      close();
+    }
+  }
+
+  void flush() throws IOException {
+    while (!out.isEmpty()) {
+      var buffer = out.peek();
+      pendingOutput -= buffer.remaining();
+      channel.write(buffer);
+      pendingOutput += buffer.remaining();
+      if (buffer.hasRemaining())
+        break;
+      out.poll();
+    }
+    if (closed || !key.isValid())
+      return;
+
+    var ops = out.isEmpty() ? 0 : SelectionKey.OP_WRITE;
+    if (pendingOutput < MAX_PENDING_OUTPUT)
+      ops |= SelectionKey.OP_READ;
+    key.interestOps(ops);
+  }
+
+  void close() {
+    closed = true;
+    key.cancel();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Nothing left to do
+    }
+  }
+}
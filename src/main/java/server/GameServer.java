@@ -0,0 +1,123 @@
+package server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+
+/**
+ * Server hosting many tables of the game over TCP. <br>
+ * Work is split into shards, by default one per core. Every shard runs single
+ * non-blocking selector loop, which serves connections and tables pinned to
+ * it, so no game state is ever shared between threads and nothing needs locks.
+ * Commands for table of other shard are passed to it through a mailbox, and
+ * the reply comes back the same way. <br>
+ * <br>
+ * Protocol is line based, UTF-8 text. Every command is answered by zero or
+ * more {@code EVENT} lines followed by single {@code OK} or {@code ERR} line.
+ * Commands of one connection are answered in order.
+ *
+ * <pre>
+ * CREATE [seed [players]]       OK table
+ * NAME table WHITE|BLACK name   OK
+ * STEP table [rounds]           EVENT table type winner amount white black
+ *                               ...
+ *                               OK rounds PLAYING|WHITE|BLACK|DRAW
+ * CLOSE table                   OK
+ * QUIT                          (connection is closed)
+ * </pre>
+ *
+ * Single STEP plays at most 10000 rounds, and stops when game is finished.
+ * Missing winner is sent as {@code -}, missing amount and cards as {@code -1}.
+ * Cards are sent as their codes, see {@link cards.VCard#code}. <br>
+ * Table of more than 2 players is a {@link game.MultiGame}: players are named
+ * and sent by their index instead of {@code WHITE} and {@code BLACK}, and
+ * events are the ones of {@link game.MultiGame#events}.
+ *
+ * <pre>
+ * try (var server = new GameServer(4242)) {
+ *   server.start();
+ *   ...
+ * }
+ * </pre>
+ */
+public class GameServer implements Closeable {
+  private final ServerSocketChannel serverChannel;
+  private final Shard[] shards;
+  private Thread acceptor;
+
+  /** Run server until killed, arguments: [port] [shards] */
+  public static void main(String[] args) throws IOException {
+    var port = args.length > 0 ? Integer.parseInt(args[0]) : 4242;
+    var shards = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    var server = new GameServer(port, shards);
+    server.start();
+    System.out.println("Game server listening on port " + server.getPort() + " with " + shards + " shards");
+    try {
+      Thread.currentThread().join();
+    } catch (InterruptedException e) {
+      server.close();
+    }
+  }
+
+  /** Create server with one shard per core on given port, 0 for any port */
+  public GameServer(int port) throws IOException {
+    this(port, Runtime.getRuntime().availableProcessors());
+  }
+
+  /** Create server with given amount of shards on given port, 0 for any port */
+  public GameServer(int port, int shardCount) throws IOException {
+    if (shardCount < 1)
+      throw new IllegalArgumentException("At least one shard is needed");
+    serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress("localhost", port));
+
+    shards = new Shard[shardCount];
+    for (var i = 0; i < shardCount; i++)
+      shards[i] = new Shard(i, shards);
+  }
+
+  /** Start all shards and accept connections */
+  public void start() {
+    for (var shard : shards)
+      shard.start();
+
+    acceptor = new Thread(this::accept, "game-server-acceptor");
+    acceptor.setDaemon(true);
+    acceptor.start();
+  }
+
+  // Connections are spread over shards in round robin
+  private void accept() {
+    var next = 0;
+    try {
+      while (true) {
+        var channel = serverChannel.accept();
+        shards[next].register(channel);
+        next = (next + 1) % shards.length;
+      }
+    } catch (ClosedChannelException e) {
+      // Server was closed
+    } catch (IOException e) {
+      e.printStackTrace(); // Print any errors
+    }
+  }
+
+  /** Port the server listens on */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  public int getShardCount() {
+    return shards.length;
+  }
+
+  /** Close server, all connections and tables */
+  @Override
+  public void close() throws IOException {
+    serverChannel.close();
+    for (var shard : shards)
+      shard.close();
+  }
+}
@@ -0,0 +1,273 @@
+package server;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import game.EventQueue;
+import game.Game;
+import game.MultiGame;
+import game.EventQueue.Player;
+
+/**
+ * Single event loop of {@link GameServer}. <br>
+ * Shard owns its connections and tables, and only its thread touches them.
+ * Other threads talk to the shard by putting tasks into its mailbox. <br>
+ * Table ids encode owning shard: {@code id = local * shards + shard}.
+ */
+class Shard implements Runnable {
+  // Most rounds played by single STEP, so single reply stays reasonably small
+  static final int MAX_STEP = 10_000;
+
+  final int index;
+  private final Shard[] shards;
+  private final Selector selector;
+  private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<Runnable>();
+  private final Thread thread;
+  private volatile boolean running = true;
+
+  // Tables pinned to this shard, by id, tables of more than two players apart
+  private final Map<Integer, Game> tables = new HashMap<Integer, Game>();
+  private final Map<Integer, MultiGame> multiTables = new HashMap<Integer, MultiGame>();
+  private int nextLocal = 0;
+
+  Shard(int index, Shard[] shards) throws IOException {
+    this.index = index;
+    this.shards = shards;
+    this.selector = Selector.open();
+    this.thread = new Thread(this, "game-server-shard-" + index);
+    this.thread.setDaemon(true);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  /** Run task on the thread of this shard */
+  void submit(Runnable task) {
+    mailbox.add(task);
+    selector.wakeup();
+  }
+
+  /** Take over new connection, may be called from any thread */
+  void register(SocketChannel channel) {
+    submit(() -> {
+      try {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        var connection = new Connection(this, channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+      } catch (IOException e) {
+        close(channel);
+      }
+    });
+  }
+
+  /** Shard owning table with given id */
+  Shard owner(int table) {
+    return shards[Math.floorMod(table, shards.length)];
+  }
+
+  @Override
+  public void run() {
+    try {
+      while (running) {
+        selector.select();
+
+        // Failure of single task or connection does not stop the others
+        Runnable task;
+        while ((task = mailbox.poll()) != null)
+          try {
+            task.run();
+          } catch (RuntimeException e) {
+            e.printStackTrace(); // Print any errors
+          }
+
+        for (var key : selector.selectedKeys()) {
+          var connection = (Connection) key.attachment();
+          try {
+            if (key.isValid() && key.isReadable())
+              connection.read();
+            if (key.isValid() && key.isWritable())
+              connection.flush();
+          } catch (IOException e) {
+            connection.close();
+          } catch (RuntimeException e) {
+            e.printStackTrace(); // Print any errors
+            connection.close();
+          }
+        }
+        selector.selectedKeys().clear();
+      }
+    } catch (IOException e) {
+      e.printStackTrace(); // Print any errors
+    } finally {
+      for (var key : selector.keys())
+        close(key.channel());
+      try {
+        selector.close();
+      } catch (IOException e) {
+        // Nothing left to do
+      }
+    }
+  }
+
+  void close() {
+    running = false;
+    selector.wakeup();
+  }
+
+  private static void close(Channel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // Nothing left to do
+    }
+  }
+
+  // --- Tables, called only on thread of owning shard ---
+
+  /** Execute command on table of this shard, returns whole reply */
+  String execute(String[] command) {
+    var reply = new StringBuilder();
+    try {
+      switch (command[0]) {
+        case "CREATE" -> create(command, reply);
+        case "NAME" -> name(command, reply);
+        case "STEP" -> step(command, reply);
+        case "CLOSE" -> {
+          var id = tableId(command);
+          if (tables.remove(id) == null && multiTables.remove(id) == null)
+            throw new IllegalArgumentException("No table " + command[1]);
+          reply.append("OK\n");
+        }
+        default -> throw new IllegalArgumentException("Unknown command " + command[0]);
+      }
+    } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+      reply.setLength(0);
+      reply.append("ERR ").append(e.getMessage()).append('\n');
+    } catch (RuntimeException e) {
+      // Bug of the game fails only this command
+      e.printStackTrace(); // Print any errors
+      reply.setLength(0);
+      reply.append("ERR ").append(e).append('\n');
+    }
+    return reply.toString();
+  }
+
+  private void create(String[] command, StringBuilder reply) {
+    var players = command.length > 2 ? Integer.parseInt(command[2]) : 2;
+    var id = nextLocal * shards.length + index;
+    if (players == 2) {
+      var game = new Game();
+      game.setCycleDetection(true);
+      if (command.length > 1)
+        game.dispatchDecks(Integer.parseInt(command[1]));
+      else
+        game.dispatchDecks();
+      tables.put(id, game);
+    } else {
+      // Checks amount of players
+      var game = new MultiGame(players);
+      game.setCycleDetection(true);
+      game.dispatchDecks(Integer.parseInt(command[1]));
+      multiTables.put(id, game);
+    }
+
+    nextLocal++;
+    reply.append("OK ").append(id).append('\n');
+  }
+
+  private void name(String[] command, StringBuilder reply) {
+    var multi = multiTables.get(tableId(command));
+    if (command.length < 3)
+      throw new IllegalArgumentException("Missing player");
+    if (command.length < 4)
+      throw new IllegalArgumentException("Missing username");
+    if (multi != null)
+      multi.setUsername(Integer.parseInt(command[2]), command[3]);
+    else
+      table(command).setUsername(Player.valueOf(command[2]), command[3]);
+    reply.append("OK\n");
+  }
+
+  private void step(String[] command, StringBuilder reply) {
+    var id = tableId(command);
+    var multi = multiTables.get(id);
+    var game = (multi == null) ? table(command) : null;
+    var rounds = command.length > 2 ? Integer.parseInt(command[2]) : 1;
+    if (rounds < 0 || rounds > MAX_STEP)
+      throw new IllegalArgumentException("Rounds must be between 0 and " + MAX_STEP);
+
+    if (multi != null) {
+      var table = multi.getTable();
+      for (var i = 0; i < rounds && !table.isFinished(); i++) {
+        multi.playRound();
+        appendEvents(id, multi.events, false, reply);
+      }
+      reply.append("OK ").append(table.getRounds()).append(' ');
+      if (!table.isFinished())
+        reply.append("PLAYING");
+      else if (table.getWinner() < 0)
+        reply.append("DRAW");
+      else
+        reply.append(table.getWinner());
+      reply.append('\n');
+      return;
+    }
+
+    var table = game.getTable();
+    for (var i = 0; i < rounds && !table.isFinished(); i++) {
+      game.playRound();
+      appendEvents(id, game.events, true, reply);
+    }
+
+    reply.append("OK ").append(table.getRounds()).append(' ');
+    if (!table.isFinished())
+      reply.append("PLAYING");
+    else if (table.getWinner() == null)
+      reply.append("DRAW");
+    else
+      reply.append(table.getWinner().name());
+    reply.append('\n');
+  }
+
+  // Player of two-player table is sent by name, of other tables by index
+  private static void appendEvents(int id, EventQueue events, boolean byName, StringBuilder reply) {
+    var c = events.cursor();
+    while (c.next()) {
+      var player = EventQueue.player(c.event());
+      reply.append("EVENT ").append(id).append(' ').append(c.type().name()).append(' ');
+      if (player == EventQueue.NO_PLAYER)
+        reply.append('-');
+      else if (byName)
+        reply.append(c.winner().name());
+      else
+        reply.append(player);
+      reply.append(' ');
+      reply.append(c.amount()).append(' ');
+      reply.append(c.whiteCode()).append(' ');
+      reply.append(c.blackCode()).append('\n');
+    }
+  }
+
+  static int tableId(String[] command) {
+    if (command.length < 2)
+      throw new IllegalArgumentException("Missing table");
+    return Integer.parseInt(command[1]);
+  }
+
+  private Game table(String[] command) {
+    var game = tables.get(tableId(command));
+    if (game == null)
+      throw new IllegalArgumentException("No table " + command[1]);
+    return game;
+  }
+}
@@ -0,0 +1,200 @@
+package app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import game.Game;
+import game.GameJournal;
+import game.MultiGame;
+import game.Rules;
+import game.EventQueue.Player;
+
+public class CliTest {
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final PrintStream err = new PrintStream(new ByteArrayOutputStream());
+
+  @Test
+  public void csvRangeTest() {
+    assertEquals(0, Cli.run(new String[] { "range", "0", "10" }, out, err));
+
+    var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(11, lines.length);
+    assertEquals("seed,winner,rounds,wars,longest_war,capped,loop", lines[0]);
+
+    // Same result as game played directly
+    var game = new Game();
+    game.dispatchDecks(3);
+    var result = game.playToCompletion(100_000);
+    var row = lines[4].split(",", -1);
+    assertEquals("3", row[0]);
+    assertEquals(result.winner() == null ? "" : result.winner().name(), row[1]);
+    assertEquals(Integer.toString(result.rounds()), row[2]);
+    assertEquals(Integer.toString(result.wars()), row[3]);
+  }
+
+  @Test
+  public void binaryGameTest() {
+    assertEquals(0, Cli.run(new String[] { "game", "5", "--format", "binary" }, out, err));
+
+    var buffer = ByteBuffer.wrap(out.toByteArray());
+    assertEquals(4 + 2 + 22, buffer.remaining());
+    assertEquals(Cli.MAGIC, buffer.getInt());
+    assertEquals(Cli.VERSION, buffer.getShort());
+    assertEquals(5L, buffer.getLong());
+  }
+
+  @Test
+  public void shoeTest() {
+    assertEquals(0, Cli.run(new String[] { "game", "3", "--shoe", "2" }, out, err));
+
+    var game = new Game();
+    game.setDecksInShoe(2);
+    game.setCycleDetection(true);
+    game.dispatchDecks(3);
+    var result = game.playToCompletion(100_000);
+    var row = out.toString(StandardCharsets.UTF_8).split("\n")[1].split(",", -1);
+    assertEquals(Integer.toString(result.rounds()), row[2]);
+    assertEquals(2, Cli.run(new String[] { "game", "3", "--shoe", "0" }, out, err));
+  }
+
+  @Test
+  public void playersTest() {
+    assertEquals(0, Cli.run(new String[] { "range", "0", "5", "--players", "4", "--rules", "face-down=1" }, out, err));
+
+    var game = new MultiGame(4);
+    game.setCycleDetection(true);
+    game.setRules(Rules.parse("face-down=1"));
+    game.dispatchDecks(2);
+    var result = game.playToCompletion(100_000);
+    var row = out.toString(StandardCharsets.UTF_8).split("\n")[3].split(",", -1);
+    assertEquals("2", row[0]);
+    assertEquals(result.winner() < 0 ? "" : Integer.toString(result.winner()), row[1]);
+    assertEquals(Integer.toString(result.rounds()), row[2]);
+    assertEquals(2, Cli.run(new String[] { "game", "3", "--players", "9" }, out, err));
+    assertEquals(2, Cli.run(new String[] { "range", "0", "5", "--players", "3", "--stats", "x" }, out, err));
+  }
+
+  @Test
+  public void replayTest() throws Exception {
+    var dir = Files.createTempDirectory("cardGame");
+    var game = new Game();
+    game.setUsername(Player.WHITE, "Player 1");
+    game.setUsername(Player.BLACK, "Player 2");
+    game.dispatchDecks(1);
+    game.playRounds(20);
+    game.save(dir.toString(), "save.bin");
+
+    var expected = game.playToCompletion(100_000);
+    var path = dir.resolve("save.bin");
+    assertEquals(0, Cli.run(new String[] { "replay", path.toString() }, out, err));
+
+    var row = out.toString(StandardCharsets.UTF_8).split("\n")[1].split(",", -1);
+    assertEquals("", row[0]);
+    assertEquals(Integer.toString(expected.rounds()), row[2]);
+
+    Files.delete(path);
+    Files.delete(dir);
+  }
+
+  @Test
+  public void replayJournalTest() throws Exception {
+    var dir = Files.createTempDirectory("cardGame");
+    var path = dir.resolve("game.journal");
+    var game = new Game();
+    // Seed 3 is over in 252 rounds
+    game.dispatchDecks(3);
+    var journal = GameJournal.create(path, game, 10);
+    try {
+      game.playRounds(95);
+    } finally {
+      journal.close();
+    }
+    game.setJournal(null);
+    // Record cut off by crash stays there
+    Files.write(path, new byte[] { 0, 0, 0, 100 }, StandardOpenOption.APPEND);
+    var size = Files.size(path);
+
+    var expected = game.playToCompletion(100_000);
+    assertEquals(0, Cli.run(new String[] { "replay", path.toString(), "--no-cycle-detection" }, out, err));
+
+    var row = out.toString(StandardCharsets.UTF_8).split("\n")[1].split(",", -1);
+    assertEquals(Integer.toString(expected.rounds()), row[2]);
+    // Replay only reads the journal
+    assertEquals(size, Files.size(path));
+
+    Files.delete(path);
+    Files.delete(dir);
+  }
+
+  @Test
+  public void searchTest() {
+    assertEquals(0, Cli.run(new String[] { "search", "0", "300", "--top", "2", "--objectives", "longest,most_wars" },
+        out, err));
+
+    var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(5, lines.length);
+    assertEquals("LONGEST", lines[1].split(",")[0]);
+    assertEquals("MOST_WARS", lines[4].split(",")[0]);
+  }
+
+  // Options search does not use are rejected before anything is played
+  @Test
+  public void searchArgumentsTest() {
+    for (var option : new String[][] { { "--format", "binary" }, { "--master-seed", "1" }, { "--no-cycle-detection" },
+        { "--rules", "face-down=3" }, { "--shoe", "2" }, { "--top", "0" } }) {
+      var args = new ArrayList<String>(List.of("search", "0", "10"));
+      args.addAll(List.of(option));
+      assertEquals(2, Cli.run(args.toArray(new String[0]), out, err), option[0]);
+    }
+    assertEquals(2, Cli.run(new String[] { "search", "-2147483649", "0" }, out, err));
+    assertEquals(2, Cli.run(new String[] { "search", "0", "2147483649" }, out, err));
+    assertEquals(0, out.size());
+  }
+
+  // Options of other commands are rejected before anything is played
+  @Test
+  public void otherCommandArgumentsTest() {
+    for (var args : new String[][] { { "game", "1", "--top", "3" }, { "range", "0", "10", "--objectives", "longest" },
+        { "game", "1", "--checkpoint", "progress.bin" }, { "replay", "save.bin", "--shoe", "2" },
+        { "replay", "save.bin", "--players", "3" }, { "game", "1", "--stats", "stats.bin" } })
+      assertEquals(2, Cli.run(args, out, err), args[0] + " " + args[2]);
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  public void statsTest() throws Exception {
+    var dir = Files.createTempDirectory("cardGame");
+    var first = dir.resolve("first.bin");
+    var second = dir.resolve("second.bin");
+    assertEquals(0, Cli.run(new String[] { "range", "0", "100", "--stats", first.toString() }, out, err));
+    assertEquals(0, Cli.run(new String[] { "range", "100", "250", "--stats", second.toString() }, out, err));
+
+    var merged = new ByteArrayOutputStream();
+    assertEquals(0, Cli.run(new String[] { "stats", first.toString(), second.toString() }, merged, err));
+    assertTrue(merged.toString(StandardCharsets.UTF_8).startsWith("games=250 "));
+
+    Files.delete(first);
+    Files.delete(second);
+    Files.delete(dir);
+  }
+
+  @Test
+  public void badArgumentsTest() {
+    assertEquals(2, Cli.run(new String[] { "range", "0" }, out, err));
+    assertEquals(2, Cli.run(new String[] { "game", "1", "--format", "xml" }, out, err));
+    assertEquals(2, Cli.run(new String[] { "game", "x" }, out, err));
+    assertEquals(2, Cli.run(new String[] { "search", "0", "10", "--objectives", "fastest" }, out, err));
+    assertEquals(0, out.size());
+  }
+}
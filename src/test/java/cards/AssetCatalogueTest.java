@@ -0,0 +1,69 @@
+package cards;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import game.Game;
+
+public class AssetCatalogueTest {
+  // Card without any images
+  public static class Joker extends Card {
+  }
+
+  @Test
+  public void pathsTest() throws IOException {
+    var registry = new CardRegistry(new Default().cards);
+    var assets = registry.assets();
+    assertSame(assets, registry.assets());
+    assertEquals(52, assets.size());
+
+    for (var code = (short) 0; code < assets.size(); code++) {
+      var card = registry.getCard(VCard.cardIdx(code));
+      assertEquals(card.getAssetPath(VCard.suit(code)), assets.path(code));
+      assertEquals(assets.path(code), assets.file(code).getPath().replace('\\', '/'));
+    }
+    assertSame("assets/cards/king/hearts.png".intern(), assets.path(VCard.code(11, Suit.HEARTS)));
+
+    var game = new Game();
+    var king = game.getCard(VCard.code(11, Suit.SPADES));
+    assertSame(game.getRegistry().assets().path(king.code), game.getAssetPath(king));
+
+    // Every PNG of default cards is in assets/cards/
+    assets.validate();
+  }
+
+  // Ranks registered over and over share paths and files
+  @Test
+  public void sharedTest() {
+    var defaults = new Default().cards;
+    var cards = new ArrayList<Card>();
+    for (var i = 0; i < 1000; i++)
+      cards.add(defaults[i % defaults.length]);
+    var assets = new CardRegistry(cards).assets();
+
+    var first = VCard.code(0, Suit.CLUBS);
+    var again = VCard.code(13, Suit.CLUBS);
+    assertSame(assets.path(first), assets.path(again));
+    assertSame(assets.file(first), assets.file(again));
+  }
+
+  @Test
+  public void validateTest() {
+    var cards = new ArrayList<Card>(Arrays.asList(new Default().cards));
+    cards.add(new Joker());
+    var assets = new CardRegistry(cards).assets();
+
+    var e = assertThrows(IOException.class, assets::validate);
+    assertTrue(e.getMessage().contains("assets/cards/joker/spades.png"), e.getMessage());
+    assertFalse(e.getMessage().contains("assets/cards/ace/"), e.getMessage());
+  }
+}
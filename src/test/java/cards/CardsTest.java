@@ -2,6 +2,8 @@ package cards;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
 
@@ -44,4 +46,31 @@ public class CardsTest{
     assertEquals("assets/cards/c4/spades.png", c4.getAssetPath(Suit.SPADES) );
 
   }
+
+  @Test
+  public void CanonicalCardsTest() {
+    var registry = new CardRegistry(new Default().cards);
+    assertEquals(52, registry.codeCount());
+
+    var king = registry.get(11, Suit.HEARTS);
+    assertSame(king, registry.get(11, Suit.HEARTS));
+    assertSame(king, registry.get(king.code));
+    assertSame(king, VCard.of(11, Suit.HEARTS));
+
+    assertThrows(IllegalArgumentException.class, () -> VCard.of((short) -1));
+    assertThrows(IllegalArgumentException.class, () -> VCard.of(VCard.MAX_RANKS, Suit.CLUBS));
+  }
+
+  @Test
+  public void CardCodesTest() {
+    for (var cardIdx = 0; cardIdx < 13; cardIdx++)
+      for (var suit : Suit.values()) {
+        var code = VCard.code(cardIdx, suit);
+        assertEquals(cardIdx, VCard.cardIdx(code));
+        assertEquals(suit, VCard.suit(code));
+        assertEquals(code, new VCard(cardIdx, suit).code);
+      }
+    // Precedence is kept in codes
+    assertTrue(VCard.code(3, Suit.CLUBS) > VCard.code(2, Suit.SPADES));
+  }
 }
@@ -0,0 +1,106 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import cards.Suit;
+import cards.VCard;
+
+public class DeckTest {
+
+  @Test
+  public void pollOrderTest() {
+    var deck = new Deck(52);
+    deck.add(new VCard(3, Suit.CLUBS));
+    deck.add(new VCard(12, Suit.SPADES));
+
+    assertEquals(2, deck.size());
+
+    var first = deck.poll();
+    assertEquals(3, first.cardIdx);
+    assertEquals(Suit.CLUBS, first.suit);
+
+    var second = deck.poll();
+    assertEquals(12, second.cardIdx);
+    assertEquals(Suit.SPADES, second.suit);
+
+    assertEquals(null, deck.poll());
+    assertEquals(0, deck.size());
+  }
+
+  @Test
+  public void fullDeckTest() {
+    var deck = new Deck(2);
+    assertTrue(deck.offer(new VCard(0, Suit.CLUBS)));
+    assertTrue(deck.offer(new VCard(1, Suit.CLUBS)));
+    assertEquals(false, deck.offer(new VCard(2, Suit.CLUBS)));
+  }
+
+  // Cards in both decks are wrapped around the end of buffer
+  @Test
+  public void drainWrappedTest() {
+    var from = new Deck(5);
+    var to = new Deck(8);
+
+    for (var i = 0; i < 4; i++)
+      from.add(new VCard(i, Suit.HEARTS));
+    from.poll();
+    from.poll();
+    for (var i = 4; i < 7; i++)
+      from.add(new VCard(i, Suit.HEARTS));
+
+    for (var i = 0; i < 7; i++)
+      to.add(new VCard(i, Suit.DIAMONDS));
+    for (var i = 0; i < 6; i++)
+      to.poll();
+
+    from.drainTo(to);
+
+    assertEquals(0, from.size());
+    assertEquals(6, to.size());
+
+    assertEquals(Suit.DIAMONDS, to.get(0).suit);
+    for (var i = 1; i < 6; i++) {
+      assertEquals(Suit.HEARTS, to.get(i).suit);
+      assertEquals(i + 1, to.get(i).cardIdx);
+    }
+  }
+
+  // Hash updated on every move should match hash computed from scratch
+  @Test
+  public void incrementalHashTest() {
+    var keys = new CycleDetector(52).keys;
+    var deck = new Deck(52);
+    var pile = new Deck(52);
+    deck.setKeys(keys);
+    pile.setKeys(keys);
+
+    for (var i = 0; i < 13; i++)
+      deck.add(new VCard(i, Suit.CLUBS));
+    for (var i = 0; i < 5; i++)
+      deck.add(deck.poll());
+    pile.add(new VCard(3, Suit.HEARTS));
+    pile.add(new VCard(7, Suit.SPADES));
+    pile.drainTo(deck);
+
+    var copy = new Deck(52);
+    copy.addAll(deck);
+    copy.setKeys(keys);
+
+    assertEquals(copy.hash(), deck.hash());
+    assertEquals(0, pile.hash());
+
+    // Order of cards matters
+    var swapped = new Deck(52);
+    swapped.setKeys(keys);
+    swapped.add(deck.get(1));
+    swapped.add(deck.get(0));
+    var ordered = new Deck(52);
+    ordered.setKeys(keys);
+    ordered.add(deck.get(0));
+    ordered.add(deck.get(1));
+    assertTrue(swapped.hash() != ordered.hash());
+  }
+}
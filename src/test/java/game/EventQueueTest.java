@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 
 import cards.Suit;
 import cards.VCard;
+import game.EventQueue.Entry;
 import game.EventQueue.Event;
 import game.EventQueue.Player;
 
@@ -19,14 +20,14 @@ public class EventQueueTest {
   public void orderTest() {
     var events = new EventQueue();
     var queue = events.evQueue;
-    queue.add(Event.GAME_START);
-    queue.add(Event.ROUND_START);
-    queue.add(Event.ROUND_FINISH);
-    queue.add(Event.GAME_FINISH);
+    queue.add(new Entry(Event.GAME_START));
+    queue.add(new Entry(Event.ROUND_START));
+    queue.add(new Entry(Event.ROUND_FINISH));
+    queue.add(new Entry(Event.GAME_FINISH));
 
     var i = 0;
     events.forEach(e -> {
-      if (i == 0 && e != Event.GAME_START)
+      if (i == 0 && e.type() != Event.GAME_START)
         // It works
         assertTrue(true, "Order is wrong, first element is " + e + ", but should be Event.GAME_START");
     });
@@ -36,10 +37,10 @@ public class EventQueueTest {
   public void flushTest() {
     var events = new EventQueue();
     var queue = events.evQueue;
-    queue.add(Event.GAME_START);
-    queue.add(Event.ROUND_START);
-    queue.add(Event.ROUND_FINISH);
-    queue.add(Event.GAME_FINISH);
+    queue.add(new Entry(Event.GAME_START));
+    queue.add(new Entry(Event.ROUND_START));
+    queue.add(new Entry(Event.ROUND_FINISH));
+    queue.add(new Entry(Event.GAME_FINISH));
 
     events.forEach(e -> {
     });
@@ -63,36 +64,36 @@ public class EventQueueTest {
       game.playRound();
 
       for (var e : game.events.evQueue)
-        if (e == Event.POLL_CARDS) {
+        if (e.type() == Event.POLL_CARDS) {
 
-          hiddenAmount += e.cardAmount;
-          amountW -= 1 + e.cardAmount / 2;
-          amountB -= 1 + e.cardAmount / 2;
+          hiddenAmount += e.cardAmount();
+          amountW -= 1 + e.cardAmount() / 2;
+          amountB -= 1 + e.cardAmount() / 2;
 
-        } else if (e == Event.COLLECT_CARDS) {
+        } else if (e.type() == Event.COLLECT_CARDS) {
 
-          if (e.winner == Player.BLACK)
+          if (e.winner() == Player.BLACK)
             // invisible on table
-            amountB += e.cardAmount + 2;
+            amountB += e.cardAmount() + 2;
           else
             // invisible on table
-            amountW += e.cardAmount + 2;
+            amountW += e.cardAmount() + 2;
 
-          hiddenAmount -= e.cardAmount;
-        } else if (e == Event.HIDE_CARDS)
+          hiddenAmount -= e.cardAmount();
+        } else if (e.type() == Event.HIDE_CARDS)
           hiddenAmount += 2;
-        else if (e == Event.GAME_FINISH) {
-          if (e.winner != null)
-            if (e.winner == Player.BLACK) {
+        else if (e.type() == Event.GAME_FINISH) {
+          if (e.winner() != null)
+            if (e.winner() == Player.BLACK) {
               // invisible on table
-              amountB += e.cardAmount + 1;
+              amountB += e.cardAmount() + 1;
               amountW -= 1;
             } else {
               // invisible on table
-              amountW += e.cardAmount + 1;
+              amountW += e.cardAmount() + 1;
               amountB -= 1;
             }
-          hiddenAmount -= e.cardAmount;
+          hiddenAmount -= e.cardAmount();
         }
       game.events.evQueue.clear();
     }
@@ -110,14 +111,14 @@ public class EventQueueTest {
       var d = new LinkedList<VCard>();
       d.add(new VCard(5, Suit.CLUBS));
       d.add(new VCard(4, Suit.CLUBS));
-      game.table.deckWhite = d;
+      game.table.deckWhite.addAll(d);
     }
     {
       var d = new LinkedList<VCard>();
       d.add(new VCard(3, Suit.CLUBS));
       d.add(new VCard(2, Suit.CLUBS));
       // d.add(new VCard(0, Suit.CLUBS));
-      game.table.deckBlack = d;
+      game.table.deckBlack.addAll(d);
     }
     // Amount of cards in White deck
     var amountW = game.table.deckWhite.size();
@@ -130,24 +131,24 @@ public class EventQueueTest {
 
       game.playRound();
       for (var e : game.events.evQueue)
-        if (e == Event.POLL_CARDS) {
-          hiddenAmount += e.cardAmount;
+        if (e.type() == Event.POLL_CARDS) {
+          hiddenAmount += e.cardAmount();
           // System.out.println(cardAmount);
-          assertEquals(0, e.cardAmount);
+          assertEquals(0, e.cardAmount());
           // amountW -= cardAmount;
-          amountW -= 1 + e.cardAmount / 2;
-          amountB -= 1 + e.cardAmount / 2;
-        } else if (e == Event.COLLECT_CARDS) {
-          assertEquals(0, e.cardAmount);
-          if (e.winner == Player.BLACK) {
+          amountW -= 1 + e.cardAmount() / 2;
+          amountB -= 1 + e.cardAmount() / 2;
+        } else if (e.type() == Event.COLLECT_CARDS) {
+          assertEquals(0, e.cardAmount());
+          if (e.winner() == Player.BLACK) {
             // invisible on table
-            amountB += e.cardAmount + 2;
+            amountB += e.cardAmount() + 2;
           } else {
             // invisible on table
-            amountW += e.cardAmount + 2;
+            amountW += e.cardAmount() + 2;
           }
           hiddenAmount = 0;
-        } else if (e == Event.HIDE_CARDS)
+        } else if (e.type() == Event.HIDE_CARDS)
           hiddenAmount += 2;
 
       game.events.evQueue.clear();
@@ -168,66 +169,66 @@ public class EventQueueTest {
       game.playRound();
 
     game.events.forEach(e -> {
-      switch (e) {
+      switch (e.type()) {
         case COLLECT_CARDS:
-          assertEquals(Player.class, e.winner.getClass());
-          assertEquals(Integer.class, e.cardAmount.getClass());
-          assertEquals(VCard.class, e.whiteCard.getClass());
-          assertEquals(VCard.class, e.blackCard.getClass());
+          assertEquals(Player.class, e.winner().getClass());
+          assertEquals(Integer.class, e.cardAmount().getClass());
+          assertEquals(VCard.class, e.whiteCard().getClass());
+          assertEquals(VCard.class, e.blackCard().getClass());
           break;
         case COMPARE_CARDS:
-          // assertEquals(null, e.winner.getClass() );
-          assertEquals(null, e.cardAmount);
-          assertEquals(null, e.whiteCard);
-          assertEquals(null, e.blackCard);
+          // assertEquals(null, e.winner().getClass() );
+          assertEquals(null, e.cardAmount());
+          assertEquals(null, e.whiteCard());
+          assertEquals(null, e.blackCard());
           break;
         case GAME_FINISH:
-          assertEquals(Player.class, e.winner.getClass());
-          // assertEquals(null, e.cardAmount);
-          assertEquals(null, e.whiteCard);
-          assertEquals(null, e.blackCard);
+          assertEquals(Player.class, e.winner().getClass());
+          // assertEquals(null, e.cardAmount());
+          assertEquals(null, e.whiteCard());
+          assertEquals(null, e.blackCard());
           break;
         case GAME_START:
-          assertEquals(null, e.winner);
-          assertEquals(null, e.cardAmount);
-          assertEquals(null, e.whiteCard);
-          assertEquals(null, e.blackCard);
+          assertEquals(null, e.winner());
+          assertEquals(null, e.cardAmount());
+          assertEquals(null, e.whiteCard());
+          assertEquals(null, e.blackCard());
           break;
         case HIDE_CARDS:
-          assertEquals(null, e.winner);
-          assertEquals(null, e.cardAmount);
-          assertEquals(VCard.class, e.whiteCard.getClass());
-          assertEquals(VCard.class, e.blackCard.getClass());
+          assertEquals(null, e.winner());
+          assertEquals(null, e.cardAmount());
+          assertEquals(VCard.class, e.whiteCard().getClass());
+          assertEquals(VCard.class, e.blackCard().getClass());
           break;
         case POLL_CARDS:
-          assertEquals(null, e.winner);
-          assertEquals(Integer.class, e.cardAmount.getClass());
-          assertEquals(VCard.class, e.whiteCard.getClass());
-          assertEquals(VCard.class, e.blackCard.getClass());
+          assertEquals(null, e.winner());
+          assertEquals(Integer.class, e.cardAmount().getClass());
+          assertEquals(VCard.class, e.whiteCard().getClass());
+          assertEquals(VCard.class, e.blackCard().getClass());
           break;
         case ROUND_FINISH:
-          assertEquals(null, e.winner);
-          assertEquals(null, e.cardAmount);
-          assertEquals(null, e.whiteCard);
-          assertEquals(null, e.blackCard);
+          assertEquals(null, e.winner());
+          assertEquals(null, e.cardAmount());
+          assertEquals(null, e.whiteCard());
+          assertEquals(null, e.blackCard());
           break;
         case ROUND_START:
-          assertEquals(null, e.winner);
-          assertEquals(null, e.cardAmount);
-          assertEquals(null, e.whiteCard);
-          assertEquals(null, e.blackCard);
+          assertEquals(null, e.winner());
+          assertEquals(null, e.cardAmount());
+          assertEquals(null, e.whiteCard());
+          assertEquals(null, e.blackCard());
           break;
         case WAR_END:
-          assertEquals(null, e.winner);
-          assertEquals(null, e.cardAmount);
-          assertEquals(null, e.whiteCard);
-          assertEquals(null, e.blackCard);
+          assertEquals(null, e.winner());
+          assertEquals(null, e.cardAmount());
+          assertEquals(null, e.whiteCard());
+          assertEquals(null, e.blackCard());
           break;
         case WAR_START:
-          assertEquals(null, e.winner);
-          assertEquals(null, e.cardAmount);
-          assertEquals(null, e.whiteCard);
-          assertEquals(null, e.blackCard);
+          assertEquals(null, e.winner());
+          assertEquals(null, e.cardAmount());
+          assertEquals(null, e.whiteCard());
+          assertEquals(null, e.blackCard());
           break;
         default:
           break;
@@ -235,6 +236,172 @@ public class EventQueueTest {
     });
   }
 
+  @Test
+  public void packTest() {
+    var card = VCard.of(11, Suit.SPADES);
+    var event = EventQueue.pack(Event.COLLECT_CARDS, Player.BLACK, 6, card.code, EventQueue.NO_CARD);
+
+    assertEquals(Event.COLLECT_CARDS, EventQueue.type(event));
+    assertEquals(Player.BLACK, EventQueue.winner(event));
+    assertEquals(6, EventQueue.amount(event));
+    assertEquals(card.code, EventQueue.whiteCode(event));
+    assertEquals(EventQueue.NO_CARD, EventQueue.blackCode(event));
+
+    var empty = EventQueue.pack(Event.ROUND_START, null, EventQueue.NO_AMOUNT, EventQueue.NO_CARD, EventQueue.NO_CARD);
+    assertEquals(Event.ROUND_START, EventQueue.type(empty));
+    assertEquals(null, EventQueue.winner(empty));
+    assertEquals(EventQueue.NO_AMOUNT, EventQueue.amount(empty));
+    assertEquals(EventQueue.NO_PLAYER, EventQueue.player(empty));
+
+    // Players of larger tables, highest card codes and the loop flag
+    var last = VCard.of(VCard.MAX_RANKS - 1, Suit.SPADES);
+    var multi = EventQueue.pack(Event.GAME_FINISH, 7, Game.MAX_CARDS, last.code, last.code) | EventQueue.LOOP;
+    assertEquals(Event.GAME_FINISH, EventQueue.type(multi));
+    assertEquals(7, EventQueue.player(multi));
+    assertEquals(null, EventQueue.winner(multi));
+    assertEquals(Game.MAX_CARDS, EventQueue.amount(multi));
+    assertEquals(last.code, EventQueue.whiteCode(multi));
+    assertEquals(last.code, EventQueue.blackCode(multi));
+    assertTrue(EventQueue.isLoop(multi));
+    assertEquals(false, EventQueue.isLoop(event));
+  }
+
+  // Two events of same type in one queue should not share their fields
+  @Test
+  public void noAliasingTest() {
+    var events = new EventQueue();
+    events.add(Event.COMPARE_CARDS, Player.WHITE, EventQueue.NO_AMOUNT, EventQueue.NO_CARD, EventQueue.NO_CARD);
+    events.add(Event.COMPARE_CARDS, Player.BLACK, EventQueue.NO_AMOUNT, EventQueue.NO_CARD, EventQueue.NO_CARD);
+
+    var c = events.cursor();
+    assertTrue(c.next());
+    assertEquals(Player.WHITE, c.winner());
+    assertTrue(c.next());
+    assertEquals(Player.BLACK, c.winner());
+    assertEquals(false, c.next());
+
+    var i = 0;
+    for (var e : events.evQueue)
+      assertEquals((i++ == 0) ? Player.WHITE : Player.BLACK, e.winner());
+    assertEquals(2, i);
+
+    // Entries read earlier are not changed by reading the next ones
+    var first = events.evQueue.poll();
+    var second = events.evQueue.poll();
+    assertEquals(Player.WHITE, first.winner());
+    assertEquals(Player.BLACK, second.winner());
+  }
+
+  @Test
+  public void entryTest() {
+    var card = VCard.of(11, Suit.SPADES);
+    var event = EventQueue.pack(Event.COLLECT_CARDS, Player.BLACK, 6, card.code, EventQueue.NO_CARD);
+    var entry = Entry.of(event);
+    assertEquals(new Entry(Event.COLLECT_CARDS, Player.BLACK, 6, card, null, false), entry);
+    assertEquals(event, entry.pack());
+
+    var loop = EventQueue.pack(Event.GAME_FINISH, null, 0, EventQueue.NO_CARD, EventQueue.NO_CARD) | EventQueue.LOOP;
+    assertTrue(Entry.of(loop).loop());
+    assertEquals(loop, Entry.of(loop).pack());
+
+    // Events without fields are shared
+    var start = EventQueue.pack(Event.ROUND_START, null, EventQueue.NO_AMOUNT, EventQueue.NO_CARD, EventQueue.NO_CARD);
+    assertTrue(Entry.of(start) == Entry.of(start));
+    assertEquals(new Entry(Event.ROUND_START), Entry.of(start));
+  }
+
+  @Test
+  public void growQueueTest() {
+    var events = new EventQueue();
+    for (var i = 0; i < 100; i++)
+      events.add(Event.POLL_CARDS, null, i, EventQueue.NO_CARD, EventQueue.NO_CARD);
+
+    assertEquals(100, events.size());
+    for (var i = 0; i < 100; i++)
+      assertEquals(i, EventQueue.amount(events.get(i)));
+  }
+
+  @Test
+  public void warStartTest() {
+    var game = new Game();
+    game.dispatchDecksNoShuffle();
+
+    var warStarts = 0;
+    var warEnds = 0;
+    while (!game.table.isFinished()) {
+      game.playRound();
+      var c = game.events.cursor();
+      while (c.next())
+        if (c.type() == Event.WAR_START)
+          warStarts++;
+        else if (c.type() == Event.WAR_END)
+          warEnds++;
+    }
+
+    // Identical decks result in single war till the end of game
+    assertEquals(1, warStarts);
+    assertEquals(0, warEnds);
+  }
+
+  // Listener gets only subscribed types, even when nothing is stored
+  @Test
+  public void listenerTest() {
+    var game = new Game();
+    game.dispatchDecks(3);
+
+    var compares = new int[1];
+    var finishes = new int[1];
+    EventQueue.Listener listener = e -> {
+      if (EventQueue.type(e) == Event.COMPARE_CARDS)
+        compares[0]++;
+      else if (EventQueue.type(e) == Event.GAME_FINISH)
+        finishes[0]++;
+      else
+        throw new AssertionError("Unexpected event " + EventQueue.type(e));
+    };
+    game.events.subscribe(EventQueue.mask(Event.COMPARE_CARDS) | EventQueue.mask(Event.GAME_FINISH), listener);
+
+    game.playToCompletion(100_000);
+    assertEquals(0, game.events.size());
+    assertEquals(1, finishes[0]);
+
+    // Same amount as in queue of game played round by round
+    var twin = new Game();
+    twin.dispatchDecks(3);
+    var expected = 0;
+    while (!twin.table.isFinished()) {
+      twin.playRound();
+      var c = twin.events.cursor();
+      while (c.next())
+        if (c.type() == Event.COMPARE_CARDS)
+          expected++;
+    }
+    assertEquals(expected, compares[0]);
+
+    // Nothing is delivered after unsubscribing
+    game.events.unsubscribe(listener);
+    game.dispatchDecks(3);
+    game.playRounds(10);
+    assertEquals(expected, compares[0]);
+  }
+
+  // Listeners see the same events which are stored in queue
+  @Test
+  public void listenerMatchesQueueTest() {
+    var game = new Game();
+    game.dispatchDecks(11);
+    var heard = new LinkedList<Long>();
+    game.events.subscribe(EventQueue.ALL_EVENTS, heard::add);
+
+    for (var i = 0; i < 50; i++) {
+      heard.clear();
+      game.playRound();
+      assertEquals(game.events.size(), heard.size());
+      for (var j = 0; j < heard.size(); j++)
+        assertEquals(game.events.get(j), (long) heard.get(j));
+    }
+  }
+
   // Tests if opening events such as Event.GAME_START or ROUND_START have closing:
   // GAME_END or ROUND_END
   @Test
@@ -1,10 +1,22 @@
 package game;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Test;
 
+import cards.Default;
+import game.EventQueue.Player;
+
 public class FSTest {
 
   @Test
@@ -54,4 +66,98 @@ public class FSTest {
       assertTrue(false, e.toString());
     }
   }
+
+  @Test
+  public void binaryRoundTripTest() throws Exception {
+    var game = new Game();
+    game.setUsername(Player.WHITE, "Zoë");
+    game.dispatchDecks(3);
+    // Stop in the middle of war, so every part of table is used
+    while (!game.table.isWar())
+      game.playRound();
+    game.save("./saves", "binary.cardGame");
+
+    var game2 = Game.load("./saves/binary.cardGame");
+
+    assertEquals("Zoë", game2.getUsername(Player.WHITE));
+    assertEquals(game.getUsername(Player.BLACK), game2.getUsername(Player.BLACK));
+    assertEquals(true, game2.table.isWar());
+    assertEquals(game.table.getRounds(), game2.table.getRounds());
+    assertEquals(game.table.getCardWhite(), game2.table.getCardWhite());
+    assertArrayEquals(game.table.deckWhite.toArray(), game2.table.deckWhite.toArray());
+    assertArrayEquals(game.table.deckBlack.toArray(), game2.table.deckBlack.toArray());
+    assertArrayEquals(game.table.invisible.toArray(), game2.table.invisible.toArray());
+
+    // Both games should continue the same way
+    assertEquals(game.playToCompletion(100_000), game2.playToCompletion(100_000));
+  }
+
+  @Test
+  public void binaryIsSmallerTest() throws Exception {
+    var game = new Game();
+    game.dispatchDecks(0);
+    game.save("./saves", "small.cardGame");
+
+    // Header, usernames, table and 52 cards
+    assertTrue(Files.size(Paths.get("./saves/small.cardGame")) < 200);
+  }
+
+  @Test
+  public void legacyLoadTest() throws Exception {
+    var game = new Game();
+    game.dispatchDecks(0);
+    game.playRounds(10);
+
+    Files.createDirectories(Paths.get("./saves"));
+    try (var out = new ObjectOutputStream(new FileOutputStream("./saves/legacy.cardGame"))) {
+      out.writeObject(game);
+    }
+
+    var game2 = Game.load("./saves/legacy.cardGame");
+    assertEquals(10, game2.table.getRounds());
+    assertArrayEquals(game.table.deckBlack.toArray(), game2.table.deckBlack.toArray());
+  }
+
+  // Saved by java serialization of the first version of the game, dealt with
+  // seed 42 and stopped after 96 rounds during a war
+  @Test
+  public void legacyFileLoadTest() throws Exception {
+    var path = Paths.get(FSTest.class.getResource("legacy-save.cardGame").toURI());
+    var game = Game.load(path.toString());
+    assertEquals("Player 1", game.getUsername(Player.WHITE));
+
+    var table = game.getTable();
+    assertTrue(table.isWar());
+    assertEquals(28, table.getDeckSize(Player.WHITE));
+    assertEquals(22, table.getDeckSize(Player.BLACK));
+    assertEquals(2, table.getInvisible());
+
+    var expected = new Game();
+    expected.dispatchDecks(42);
+    expected.playRounds(96);
+    assertArrayEquals(expected.table.deckWhite.toArray(), table.deckWhite.toArray());
+    assertArrayEquals(expected.table.deckBlack.toArray(), table.deckBlack.toArray());
+    assertArrayEquals(expected.table.invisible.toArray(), table.invisible.toArray());
+    assertEquals(expected.getTable().getCardWhite(), table.getCardWhite());
+
+    // Loaded game goes on as if it was never saved
+    for (var round = 0; round < 100; round++) {
+      expected.playRound();
+      game.playRound();
+      assertEquals(expected.getScoreWhite(), game.getScoreWhite());
+      assertEquals(expected.getScoreBlack(), game.getScoreBlack());
+    }
+  }
+
+  @Test
+  public void differentCardsTest() throws Exception {
+    var game = new Game(Arrays.copyOf(new Default().cards, 5));
+    game.dispatchDecks(0);
+    game.save("./saves", "custom.cardGame");
+
+    assertThrows(IOException.class, () -> Game.load("./saves/custom.cardGame"));
+
+    var game2 = Game.load("./saves/custom.cardGame", Arrays.asList(Arrays.copyOf(new Default().cards, 5)));
+    assertEquals(10, game2.table.deckWhite.size());
+  }
 }
@@ -0,0 +1,148 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+
+public class GameJournalTest {
+
+  // Play reference game to given round
+  private Game playTo(int seed, int round) {
+    var game = new Game();
+    game.dispatchDecks(seed);
+    game.playRounds(round);
+    return game;
+  }
+
+  private void assertSameTable(Game expected, Game actual) {
+    assertEquals(expected.table.getRounds(), actual.table.getRounds());
+    assertEquals(expected.table.isWar(), actual.table.isWar());
+    assertArrayEquals(expected.table.deckWhite.toArray(), actual.table.deckWhite.toArray());
+    assertArrayEquals(expected.table.deckBlack.toArray(), actual.table.deckBlack.toArray());
+    assertArrayEquals(expected.table.invisible.toArray(), actual.table.invisible.toArray());
+  }
+
+  @Test
+  public void seekTest() throws Exception {
+    var path = Files.createTempFile("cardGame", ".journal");
+    var game = new Game();
+    game.dispatchDecks(0);
+
+    try (var journal = GameJournal.create(path, game, 16)) {
+      while (!game.table.isFinished())
+        game.playRound();
+      var rounds = game.table.getRounds();
+      assertEquals(rounds / 16 + 1, journal.size());
+
+      for (var round : new int[] { 0, 1, 16, 17, rounds / 2, rounds - 1, 5 }) {
+        game.seek(round);
+        assertSameTable(playTo(0, round), game);
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  // Restored game stops the loop at the same round, even from snapshot taken
+  // after the loop began
+  @Test
+  public void loopSeekTest() throws Exception {
+    var path = Files.createTempFile("cardGame", ".journal");
+    var game = new Game();
+    game.setCycleDetection(true);
+    var seed = 0;
+    do
+      game.dispatchDecks(seed++);
+    while (!game.playToCompletion(100_000).loop());
+
+    game.dispatchDecks(seed - 1);
+    try (var journal = GameJournal.create(path, game, 10)) {
+      var expected = game.playToCompletion(100_000);
+      var rounds = expected.rounds();
+      for (var round : new int[] { rounds, rounds - 1, rounds - rounds % 10, rounds / 2 }) {
+        game.seek(round);
+        assertEquals(expected, game.playToCompletion(100_000), "Seek to " + round);
+      }
+
+      var restored = journal.restore(journal.lastRound());
+      restored.setJournal(null);
+      assertEquals(expected, restored.playToCompletion(100_000));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void reopenTest() throws Exception {
+    var path = Files.createTempFile("cardGame", ".journal");
+    try {
+      var game = new Game();
+      game.setUsername(EventQueue.Player.WHITE, "Player 1");
+      game.dispatchDecks(7);
+      var created = GameJournal.create(path, game, 10);
+      try {
+        game.playRounds(95);
+      } finally {
+        created.close();
+      }
+
+      try (var journal = GameJournal.open(path)) {
+        assertEquals(10, journal.size());
+        assertEquals(90, journal.lastRound());
+
+        var restored = journal.restore(93);
+        assertSameTable(playTo(7, 93), restored);
+        assertEquals("Player 1", restored.getUsername(EventQueue.Player.WHITE));
+
+        // Journal keeps growing when restored game is played further
+        restored.playRounds(20);
+        assertEquals(110, journal.lastRound());
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  // Record cut off by crash is removed when journal is opened
+  @Test
+  public void corruptTailTest() throws Exception {
+    var path = Files.createTempFile("cardGame", ".journal");
+    try {
+      var game = new Game();
+      game.dispatchDecks(3);
+      var created = GameJournal.create(path, game, 10);
+      try {
+        game.playRounds(35);
+      } finally {
+        created.close();
+      }
+      var size = Files.size(path);
+      var tail = ByteBuffer.allocate(12).putInt(999).putInt(1 << 20).putInt(0);
+      Files.write(path, tail.array(), StandardOpenOption.APPEND);
+
+      // Journal opened read only is left as it is
+      try (var journal = GameJournal.openReadOnly(path)) {
+        assertEquals(4, journal.size());
+        assertEquals(size + 12, Files.size(path));
+      }
+
+      try (var journal = GameJournal.open(path)) {
+        assertEquals(4, journal.size());
+        assertEquals(size, Files.size(path));
+        journal.restore(35).playRounds(20);
+      }
+
+      try (var journal = GameJournal.open(path)) {
+        assertEquals(6, journal.size());
+        assertEquals(50, journal.lastRound());
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
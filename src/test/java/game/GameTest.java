@@ -2,8 +2,12 @@ package game;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Random;
 import java.util.Stack;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -12,6 +16,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.Test;
 
 import cards.Card;
+import cards.Suit;
+import cards.VCard;
 
 public class GameTest {
 
@@ -87,4 +93,54 @@ public class GameTest {
       set.add(path);
     }
   }
+
+  // Seeds deal the same cards as Collections.shuffle with Random always did
+  @Test
+  public void dispatchDecksSeedCompatibilityTest() {
+    var game = new Game();
+    for (var seed : new int[] { 0, 1, 42, -7, Integer.MAX_VALUE }) {
+      var cards = new ArrayList<VCard>();
+      for (var suitId = 0; suitId < 4; suitId++)
+        for (var cardIdx = 0; cardIdx < game.registry.size(); cardIdx++)
+          cards.add(VCard.of(cardIdx, Suit.fromId(suitId)));
+      Collections.shuffle(cards, new Random(seed));
+
+      game.dispatchDecks(seed);
+      assertArrayEquals(cards.subList(0, cards.size() / 2).toArray(), game.table.deckBlack.toArray());
+      assertArrayEquals(cards.subList(cards.size() / 2, cards.size()).toArray(), game.table.deckWhite.toArray());
+    }
+  }
+
+  @Test
+  public void dispatchDecksSplittableTest() {
+    var game = new Game();
+    var other = new Game();
+
+    game.dispatchDecks(Game.dealRandom(5, 100));
+    other.dispatchDecks(Game.dealRandom(5, 100));
+    assertArrayEquals(other.table.deckWhite.toArray(), game.table.deckWhite.toArray());
+    assertArrayEquals(other.table.deckBlack.toArray(), game.table.deckBlack.toArray());
+    assertEquals(26, game.table.deckWhite.size());
+
+    var set = new HashSet<VCard>(game.table.deckWhite);
+    set.addAll(game.table.deckBlack);
+    assertEquals(52, set.size());
+
+    // Other index deals other cards
+    other.dispatchDecks(Game.dealRandom(5, 101));
+    assertTrue(!Arrays.equals(other.table.deckWhite.toArray(), game.table.deckWhite.toArray()));
+  }
+
+  // Table without keys has no hash, not even during a war
+  @Test
+  public void hashWithoutCycleDetectionTest() {
+    var game = new Game();
+    game.dispatchDecks(3);
+    while (!game.table.isWar())
+      game.playRound();
+    assertEquals(0L, game.getTable().hash());
+
+    game.setCycleDetection(true);
+    assertTrue(game.getTable().hash() != 0);
+  }
 }
@@ -77,9 +77,9 @@ public class GameplayTest {
       game.events.forEach(e -> {
 
         // System.out.println("" + e );
-        if (e == Event.COMPARE_CARDS)
-          // System.out.println("Winner: " + e.winner);
-        if (e == Event.COLLECT_CARDS){
+        if (e.type() == Event.COMPARE_CARDS)
+          // System.out.println("Winner: " + e.winner());
+        if (e.type() == Event.COLLECT_CARDS){
           
           // System.out.println("Black: " + e.blackCard.cardIdx);
           // System.out.println("White: " + e.whiteCard.cardIdx);
@@ -148,4 +148,50 @@ public class GameplayTest {
       set.add(path);
     }
   }
+
+  @Test
+  public void playToCompletionTest() {
+    var expected = new Game();
+    expected.dispatchDecks(0);
+    while (!expected.table.isFinished())
+      expected.playRound();
+
+    var game = new Game();
+    game.dispatchDecks(0);
+    var result = game.playToCompletion(100_000);
+
+    assertEquals(expected.table.getRounds(), result.rounds());
+    assertEquals(expected.table.getWinner(), result.winner());
+    assertEquals(expected.table.getWars(), result.wars());
+    assertEquals(false, result.capped());
+    assertEquals(0, game.getEvents().size());
+  }
+
+  @Test
+  public void playToCompletionDrawTest() {
+    var game = new Game();
+    game.dispatchDecksNoShuffle();
+
+    var result = game.playToCompletion(100);
+
+    // See countTurnsNoShuffleTest
+    assertEquals(10, result.rounds());
+    assertEquals(1, result.wars());
+    assertEquals(9, result.longestWar());
+    assertTrue(result.isDraw());
+  }
+
+  @Test
+  public void playRoundsCapTest() {
+    var game = new Game();
+    game.dispatchDecks(0);
+
+    var result = game.playRounds(5);
+    assertEquals(5, result.rounds());
+    assertTrue(result.capped());
+
+    // Events are generated again after simulation
+    game.playRound();
+    assertTrue(game.getEvents().size() > 0);
+  }
 }
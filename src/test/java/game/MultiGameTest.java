@@ -0,0 +1,261 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import game.EventQueue.Event;
+import game.EventQueue.Player;
+
+public class MultiGameTest {
+
+  // Two players play the same games as Game
+  @Test
+  public void twoPlayersTest() {
+    var game = new Game();
+    game.setCycleDetection(true);
+    var multi = new MultiGame(2);
+    multi.setCycleDetection(true);
+    for (var seed = 0; seed < 500; seed++) {
+      game.dispatchDecks(seed);
+      multi.dispatchDecks(seed);
+      var table = game.getTable();
+      var multiTable = multi.getTable();
+      while (!table.isFinished()) {
+        game.playRound();
+        multi.playRound();
+        var message = "Seed " + seed + " round " + table.getRounds();
+        assertEquals(table.isFinished(), multiTable.isFinished(), message);
+        assertEquals(table.getDeckSize(Player.WHITE), multiTable.getDeckSize(Player.WHITE), message);
+        assertEquals(table.getDeckSize(Player.BLACK), multiTable.getDeckSize(1), message);
+        if (!table.isFinished()) {
+          assertEquals(table.isWar(), multiTable.isWar(), message);
+          assertEquals(table.getInvisible(), multiTable.getInvisible(), message);
+          assertEquals(table.getCardWhite(), multiTable.getCard(0), message);
+          assertEquals(table.getCardBlack(), multiTable.getCard(1), message);
+        }
+      }
+
+      var expected = game.getResult();
+      var result = multi.getResult();
+      assertEquals((expected.winner() == null) ? -1 : expected.winner().idx, result.winner(), "Seed " + seed);
+      assertEquals(expected.rounds(), result.rounds(), "Seed " + seed);
+      assertEquals(expected.wars(), result.wars(), "Seed " + seed);
+      assertEquals(expected.longestWar(), result.longestWar(), "Seed " + seed);
+      assertEquals(expected.loop(), result.loop(), "Seed " + seed);
+    }
+  }
+
+  // Game plays other rules by the same round, so two players still match it
+  @Test
+  public void twoPlayersRulesTest() {
+    var variants = new Rules[] { Rules.STANDARD.withFaceDown(1), Rules.STANDARD.withLowBeatsAce(true),
+        Rules.STANDARD.withLastCardFaceUp(true), Rules.STANDARD.withShuffleCollected(true) };
+    for (var rules : variants) {
+      var game = new Game();
+      game.setCycleDetection(true);
+      game.setRules(rules);
+      var multi = new MultiGame(2);
+      multi.setCycleDetection(true);
+      multi.setRules(rules);
+      for (var seed = 0; seed < 100; seed++) {
+        game.dispatchDecks(seed);
+        multi.dispatchDecks(seed);
+        var expected = game.playToCompletion(10_000);
+        var result = multi.playToCompletion(10_000);
+        var message = rules + " seed " + seed;
+        assertEquals((expected.winner() == null) ? -1 : expected.winner().idx, result.winner(), message);
+        assertEquals(expected.rounds(), result.rounds(), message);
+        assertEquals(expected.wars(), result.wars(), message);
+        assertEquals(expected.loop(), result.loop(), message);
+        assertEquals(game.getTable().getDeckSize(Player.WHITE), multi.getTable().getDeckSize(0), message);
+      }
+    }
+  }
+
+  @Test
+  public void rulesCardsAreKeptTest() {
+    var game = new MultiGame(4);
+    game.setRules(Rules.parse("face-down=3, low-beats-ace, last-card-face-up, shuffle-collected"));
+    var table = game.getTable();
+    for (var seed = 0; seed < 50; seed++) {
+      game.dispatchDecks(seed);
+      while (!table.isFinished() && table.getRounds() < 10_000) {
+        game.playRound();
+        var cards = table.getInvisible();
+        for (var p = 0; p < 4; p++)
+          cards += table.getDeckSize(p);
+        assertEquals(52, cards, "Seed " + seed + " round " + table.getRounds());
+      }
+    }
+  }
+
+  @Test
+  public void cardsAreKeptTest() {
+    for (var players = 3; players <= MultiGame.MAX_PLAYERS; players++) {
+      var game = new MultiGame(players);
+      game.setCycleDetection(true);
+      var table = game.getTable();
+      for (var seed = 0; seed < 50; seed++) {
+        game.dispatchDecks(seed);
+        while (!table.isFinished()) {
+          game.playRound();
+          var cards = table.getInvisible();
+          for (var p = 0; p < players; p++) {
+            cards += table.getDeckSize(p);
+            // Players out of game have nothing left
+            if (!table.isInGame(p))
+              assertEquals(0, table.getDeckSize(p));
+          }
+          assertEquals(52, cards, players + " players, seed " + seed + " round " + table.getRounds());
+        }
+
+        var result = game.getResult();
+        if (result.winner() >= 0)
+          assertEquals(52, table.getDeckSize(result.winner()));
+        else
+          assertTrue(result.loop() || table.getInvisible() == 52);
+      }
+    }
+  }
+
+  // Players who are not tied keep their cards until the war is over
+  @Test
+  public void tiedPlayersOnlyTest() {
+    var game = new MultiGame(5);
+    game.setCycleDetection(true);
+    var table = game.getTable();
+    var wars = 0;
+    for (var seed = 0; seed < 100; seed++) {
+      game.dispatchDecks(seed);
+      while (!table.isFinished()) {
+        game.playRound();
+        if (!table.isWar() || table.isFinished())
+          continue;
+
+        var before = new int[5];
+        var atWar = 0;
+        for (var p = 0; p < 5; p++) {
+          before[p] = table.getDeckSize(p);
+          if (table.isAtWar(p))
+            atWar++;
+        }
+        assertTrue(atWar >= 2 && atWar <= 5);
+        var waiting = new boolean[5];
+        for (var p = 0; p < 5; p++)
+          waiting[p] = !table.isAtWar(p);
+        game.playRound();
+        wars++;
+        for (var p = 0; p < 5; p++)
+          if (waiting[p]) {
+            assertEquals(before[p], table.getDeckSize(p));
+            assertEquals(null, table.getCard(p));
+          }
+      }
+    }
+    assertTrue(wars > 100);
+  }
+
+  // Decks rebuilt from events of every round are decks on table
+  @Test
+  public void eventsTest() {
+    for (var players = 2; players <= MultiGame.MAX_PLAYERS; players++) {
+      var game = new MultiGame(players);
+      game.setCycleDetection(true);
+      var table = game.getTable();
+      for (var seed = 0; seed < 20; seed++) {
+        game.dispatchDecks(seed);
+        var decks = new int[players];
+        for (var p = 0; p < players; p++)
+          decks[p] = table.getDeckSize(p);
+        var invisible = 0;
+        var finished = false;
+        while (!table.isFinished()) {
+          game.playRound();
+          // Players whose face up card is on table
+          var played = 0;
+          var c = game.events.cursor();
+          while (c.next()) {
+            var player = EventQueue.player(c.event());
+            switch (c.type()) {
+              case POLL_CARDS -> {
+                decks[player] -= 1 + c.amount();
+                invisible += c.amount();
+                played |= 1 << player;
+              }
+              case PLAYER_OUT -> {
+                assertEquals(0, decks[player]);
+                if ((played & (1 << player)) != 0)
+                  invisible++;
+                played &= ~(1 << player);
+              }
+              case HIDE_CARDS -> {
+                assertEquals(table.getCard(player).code, c.whiteCode());
+                invisible++;
+                played &= ~(1 << player);
+              }
+              case COLLECT_CARDS, GAME_FINISH -> {
+                if (player != EventQueue.NO_PLAYER) {
+                  assertEquals(invisible, c.amount());
+                  decks[player] += invisible + Integer.bitCount(played);
+                  invisible = 0;
+                }
+                finished |= c.type() == Event.GAME_FINISH;
+              }
+              default -> {
+              }
+            }
+          }
+
+          var message = players + " players, seed " + seed + " round " + table.getRounds();
+          assertEquals(table.getInvisible(), invisible, message);
+          for (var p = 0; p < players; p++)
+            assertEquals(table.getDeckSize(p), decks[p], message);
+        }
+        assertTrue(finished);
+      }
+    }
+  }
+
+  // Events are not stored during simulation
+  @Test
+  public void simulationEventsTest() {
+    var game = new MultiGame(4);
+    game.setCycleDetection(true);
+    var finishes = new int[1];
+    game.events.subscribe(EventQueue.mask(Event.GAME_FINISH), e -> finishes[0]++);
+    game.dispatchDecks(3);
+    game.playToCompletion(1_000_000);
+    assertEquals(0, game.events.size());
+    assertEquals(1, finishes[0]);
+  }
+
+  @Test
+  public void gamesEndTest() {
+    for (var players = 2; players <= MultiGame.MAX_PLAYERS; players++) {
+      var game = new MultiGame(players);
+      game.setCycleDetection(true);
+      for (var seed = 0; seed < 20; seed++) {
+        game.dispatchDecks(Game.dealRandom(players, seed));
+        var result = game.playToCompletion(10_000_000);
+        assertFalse(result.capped(), players + " players, seed " + seed);
+      }
+    }
+  }
+
+  @Test
+  public void playersTest() {
+    assertThrows(IllegalArgumentException.class, () -> new MultiGame(1));
+    assertThrows(IllegalArgumentException.class, () -> new MultiGame(MultiGame.MAX_PLAYERS + 1));
+
+    // 52 cards do not split evenly among 3 players
+    var game = new MultiGame(3);
+    game.dispatchDecksNoShuffle();
+    assertEquals(18, game.getTable().getDeckSize(2));
+    assertEquals(17, game.getTable().getDeckSize(1));
+    assertEquals(17, game.getTable().getDeckSize(0));
+  }
+}
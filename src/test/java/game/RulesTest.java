@@ -0,0 +1,234 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import cards.Default;
+import game.EventQueue.Event;
+import game.EventQueue.Player;
+
+public class RulesTest {
+  private static final Rules[] VARIANTS = {
+      Rules.STANDARD.withFaceDown(3),
+      Rules.STANDARD.withFaceDown(0),
+      Rules.STANDARD.withLowBeatsAce(true),
+      Rules.STANDARD.withLastCardFaceUp(true),
+      Rules.STANDARD.withShuffleCollected(true),
+      Rules.parse("face-down=1,low-beats-ace,last-card-face-up,shuffle-collected"),
+  };
+
+  @Test
+  public void parseTest() {
+    assertEquals(Rules.STANDARD, Rules.parse("standard"));
+    assertEquals(new Rules(3, true, false, false), Rules.parse("face-down=3, low-beats-ace"));
+    assertTrue(Rules.parse("").isStandard());
+    assertThrows(IllegalArgumentException.class, () -> Rules.parse("jokers"));
+    assertThrows(IllegalArgumentException.class, () -> Rules.parse("face-down=-1"));
+  }
+
+  // No card is ever lost or duplicated, whatever the rules
+  @Test
+  public void cardsAreKeptTest() {
+    for (var rules : VARIANTS) {
+      var game = new Game();
+      game.setRules(rules);
+      game.setCycleDetection(true);
+      for (var seed = 0; seed < 100; seed++) {
+        game.dispatchDecks(seed);
+        for (var round = 0; round < 5000 && !game.getTable().isFinished(); round++) {
+          game.playRound();
+          var table = game.getTable();
+          assertEquals(52, table.getDeckSize(Player.WHITE) + table.getDeckSize(Player.BLACK) + table.getInvisible(),
+              rules + " seed " + seed + " round " + round);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void faceDownTest() {
+    var game = new Game();
+    game.setRules(Rules.STANDARD.withFaceDown(3));
+    for (var seed = 0;; seed++) {
+      game.dispatchDecks(seed);
+      while (!game.getTable().isFinished() && !game.getTable().isWar())
+        game.playRound();
+      if (game.getTable().isFinished() || game.getScoreWhite() < 4 || game.getScoreBlack() < 4)
+        continue;
+
+      game.playRound();
+      var poll = game.getEvents().stream().filter(e -> e.type() == Event.POLL_CARDS).findFirst().get();
+      assertEquals(6, poll.cardAmount());
+      return;
+    }
+  }
+
+  @Test
+  public void lowBeatsAceTest() {
+    var standard = new Game();
+    var variant = new Game();
+    variant.setRules(Rules.STANDARD.withLowBeatsAce(true));
+    for (var seed = 0;; seed++) {
+      standard.dispatchDecks(seed);
+      var white = standard.getTable().deckWhite.peek().cardIdx;
+      var black = standard.getTable().deckBlack.peek().cardIdx;
+      if (Math.min(white, black) != 0 || Math.max(white, black) != 12)
+        continue;
+
+      variant.dispatchDecks(seed);
+      standard.playRound();
+      variant.playRound();
+      var lowest = (white == 0) ? Player.WHITE : Player.BLACK;
+      assertEquals(27, variant.getTable().getDeckSize(lowest));
+      assertEquals(25, standard.getTable().getDeckSize(lowest));
+      return;
+    }
+  }
+
+  // Encoded table, without rules saved with the game
+  private ByteBuffer table(Game game) {
+    var buffer = ByteBuffer.allocate(game.table.encodedSize());
+    game.table.write(buffer);
+    return buffer.flip();
+  }
+
+  // Games differ only when standard player would lose for lack of cards in a war
+  @Test
+  public void lastCardFaceUpTest() {
+    var standard = new Game();
+    var variant = new Game();
+    variant.setRules(Rules.STANDARD.withLastCardFaceUp(true));
+    standard.setCycleDetection(true);
+    variant.setCycleDetection(true);
+    var differs = 0;
+    for (var seed = 0; seed < 500; seed++) {
+      standard.dispatchDecks(seed);
+      variant.dispatchDecks(seed);
+      while (!standard.getTable().isFinished()) {
+        var war = standard.getTable().isWar();
+        var fewCards = standard.getScoreWhite() < 3 || standard.getScoreBlack() < 3;
+        standard.playRound();
+        variant.playRound();
+        if (!table(standard).equals(table(variant))) {
+          assertTrue(war && fewCards, "Seed " + seed + " differs outside of war");
+          // Standard game is over, variant goes on unless the player had nothing left
+          assertTrue(standard.getTable().isFinished());
+          differs++;
+          break;
+        }
+      }
+    }
+    assertTrue(differs > 0);
+  }
+
+  @Test
+  public void shuffleCollectedTest() {
+    var rules = Rules.STANDARD.withShuffleCollected(true);
+    var first = new Game();
+    first.setRules(rules);
+    first.setCycleDetection(true);
+    var second = new Game();
+    second.setRules(rules);
+    var standard = new Game();
+
+    var different = 0;
+    for (var seed = 0; seed < 100; seed++) {
+      first.dispatchDecks(seed);
+      second.dispatchDecks(seed);
+      standard.dispatchDecks(seed);
+      var result = first.playToCompletion(100_000);
+      // Same deal is played the same way
+      assertEquals(result, second.playToCompletion(100_000));
+      assertFalse(result.loop());
+      if (!result.equals(standard.playToCompletion(100_000)))
+        different++;
+    }
+    assertTrue(different > 50);
+  }
+
+  // Rules and order of collected cards are saved, so loaded game goes on the
+  // same way
+  @Test
+  public void saveRulesTest() throws Exception {
+    var cards = Arrays.asList(new Default().cards);
+    for (var rules : VARIANTS) {
+      var game = new Game();
+      game.dispatchDecks(11);
+      // Rules set after the deal still collect in order seeded by the deal
+      game.setRules(rules);
+      game.playRounds(60);
+
+      var loaded = GameCodec.decode(GameCodec.encode(game), cards);
+      assertEquals(rules, loaded.getRules());
+      assertEquals(game.playToCompletion(100_000), loaded.playToCompletion(100_000), rules.toString());
+    }
+  }
+
+  // Seeking restores position of random order of collected cards
+  @Test
+  public void seekRulesTest() throws Exception {
+    var rules = Rules.STANDARD.withShuffleCollected(true);
+    var path = Files.createTempFile("cardGame", ".journal");
+    try {
+      var game = new Game();
+      game.setRules(rules);
+      game.dispatchDecks(5);
+      var journal = GameJournal.create(path, game, 16);
+      try {
+        game.playRounds(200);
+        var rounds = game.getTable().getRounds();
+        var expected = game.table.deckWhite.toArray();
+        game.seek(rounds / 2);
+        game.playRounds(rounds - rounds / 2);
+        assertArrayEquals(expected, game.table.deckWhite.toArray());
+      } finally {
+        journal.close();
+      }
+
+      try (var reopened = GameJournal.open(path)) {
+        var restored = reopened.restore(150);
+        assertEquals(rules, restored.getRules());
+        var reference = new Game();
+        reference.setRules(rules);
+        reference.dispatchDecks(5);
+        reference.playRounds(150);
+        assertArrayEquals(reference.table.deckWhite.toArray(), restored.table.deckWhite.toArray());
+        assertEquals(reference.playToCompletion(100_000), restored.playToCompletion(100_000));
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void solverRulesTest() {
+    var rules = Rules.STANDARD.withFaceDown(3).withLowBeatsAce(true);
+    var solver = new Solver(new TranspositionTable(1 << 12), Arrays.asList(new Default().cards), rules);
+    var game = new Game();
+    game.setRules(rules);
+    game.setCycleDetection(true);
+    for (var seed = 0; seed < 200; seed++) {
+      game.dispatchDecks(seed);
+      var outcome = solver.solve(game);
+      var result = game.playToCompletion(1_000_000);
+      if (result.loop())
+        assertTrue(outcome.isLoop());
+      else
+        assertEquals(result.rounds(), outcome.rounds());
+    }
+
+    assertThrows(IllegalArgumentException.class, () -> solver.solve(new Game()));
+    assertThrows(IllegalArgumentException.class, () -> new Solver(new TranspositionTable(16),
+        Arrays.asList(new Default().cards), Rules.STANDARD.withShuffleCollected(true)));
+    assertTrue(new Game().getRules().isStandard());
+  }
+}
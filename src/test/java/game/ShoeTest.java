@@ -0,0 +1,150 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import cards.Card;
+import cards.Default;
+import game.EventQueue.Player;
+
+public class ShoeTest {
+
+  // Default cards registered over and over, ranks differ by index only
+  private static List<Card> cards(int ranks) {
+    var defaults = new Default().cards;
+    var cards = new ArrayList<Card>(ranks);
+    for (var i = 0; i < ranks; i++)
+      cards.add(defaults[i % defaults.length]);
+    return cards;
+  }
+
+  private static int cardsOnTable(Game game) {
+    var table = game.getTable();
+    return table.getDeckSize(Player.WHITE) + table.getDeckSize(Player.BLACK) + table.getInvisible();
+  }
+
+  @Test
+  public void dealTest() {
+    var game = new Game();
+    game.setDecksInShoe(6);
+    assertEquals(312, game.cardCount());
+    game.dispatchDecks(7);
+    assertEquals(156, game.getScoreWhite());
+    assertEquals(156, game.getScoreBlack());
+
+    // Every card is dealt once from every deck
+    var counts = new int[game.getRegistry().codeCount()];
+    for (var card : game.getTable().deckWhite)
+      counts[card.code]++;
+    for (var card : game.getTable().deckBlack)
+      counts[card.code]++;
+    for (var count : counts)
+      assertEquals(6, count);
+  }
+
+  @Test
+  public void cardsAreKeptTest() {
+    var rules = new Rules[] { Rules.STANDARD, Rules.STANDARD.withFaceDown(3).withLastCardFaceUp(true),
+        Rules.STANDARD.withShuffleCollected(true) };
+    for (var rule : rules) {
+      var game = new Game();
+      game.setRules(rule);
+      game.setCycleDetection(true);
+      game.setDecksInShoe(4);
+      for (var seed = 0; seed < 20; seed++) {
+        game.dispatchDecks(seed);
+        for (var round = 0; round < 20_000 && !game.getTable().isFinished(); round++) {
+          game.playRound();
+          assertEquals(208, cardsOnTable(game), rule + " seed " + seed + " round " + round);
+        }
+      }
+    }
+  }
+
+  // Thousands of ranks in shoe of 16 decks, 131072 cards
+  @Test
+  public void largeRegistryTest() throws Exception {
+    var cards = cards(2048);
+    var game = new Game(cards);
+    game.setDecksInShoe(16);
+    game.setCycleDetection(true);
+    assertEquals(131072, game.cardCount());
+
+    game.dispatchDecks(Game.dealRandom(1, 2));
+    game.playRounds(200_000);
+    assertEquals(131072, cardsOnTable(game));
+    assertTrue(game.getTable().getRounds() > 0);
+
+    // Save keeps the shoe
+    var saved = GameCodec.encode(game);
+    var loaded = GameCodec.decode(saved.duplicate(), cards);
+    assertEquals(16, loaded.getDecksInShoe());
+    assertEquals(saved, GameCodec.encode(loaded));
+    assertEquals(game.playRounds(1000), loaded.playRounds(1000));
+  }
+
+  @Test
+  public void legacySaveTest() throws Exception {
+    var game = new Game();
+    game.dispatchDecks(3);
+    game.playRounds(50);
+    var saved = GameCodec.encode(game);
+
+    // Version 1 had no shoe after amount of registered cards, and no rules
+    // after flags
+    var legacy = ByteBuffer.allocate(saved.remaining() - 4 - 10);
+    legacy.putInt(saved.getInt());
+    saved.getShort();
+    legacy.putShort((short) 1);
+    legacy.putLong(saved.getLong());
+    legacy.putInt(saved.getInt());
+    assertEquals(1, saved.getInt());
+    legacy.put(saved.get());
+    saved.position(saved.position() + 10);
+    legacy.put(saved);
+
+    var shoe = new Game();
+    shoe.setDecksInShoe(3);
+    GameCodec.decodeInto(legacy.flip(), shoe);
+    assertEquals(1, shoe.getDecksInShoe());
+    // Order of collected cards is seeded by the loaded table instead
+    shoe.table.collectState = game.table.collectState;
+    assertEquals(GameCodec.encode(game), GameCodec.encode(shoe));
+  }
+
+  @Test
+  public void limitsTest() {
+    var game = new Game();
+    assertThrows(IllegalArgumentException.class, () -> game.setDecksInShoe(0));
+    assertThrows(IllegalArgumentException.class, () -> game.setDecksInShoe(Game.MAX_CARDS / 52 + 1));
+
+    // Solver only knows single deck
+    game.setDecksInShoe(2);
+    game.dispatchDecks(1);
+    var solver = new Solver(new TranspositionTable(16));
+    assertThrows(IllegalArgumentException.class, () -> solver.solve(game));
+  }
+
+  @Test
+  public void multiGameTest() {
+    var game = new MultiGame(8, Arrays.asList(new Default().cards), 3);
+    game.setCycleDetection(true);
+    var table = game.getTable();
+    for (var seed = 0; seed < 20; seed++) {
+      game.dispatchDecks(seed);
+      game.playToCompletion(1_000_000);
+      var cards = table.getInvisible();
+      for (var p = 0; p < 8; p++)
+        cards += table.getDeckSize(p);
+      assertEquals(156, cards);
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package game;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class SolverTest {
+
+  // Same as playing the game with cycle detection
+  private static void assertSolved(GameResult expected, Solver.Outcome outcome, String message) {
+    if (expected.loop()) {
+      assertTrue(outcome.isLoop(), message);
+      return;
+    }
+    assertEquals(expected.winner(), outcome.winner(), message);
+    assertEquals(expected.rounds(), outcome.rounds(), message);
+  }
+
+  private static GameResult play(int seed) {
+    var game = new Game();
+    game.setCycleDetection(true);
+    game.dispatchDecks(seed);
+    return game.playToCompletion(1_000_000);
+  }
+
+  @Test
+  public void sameAsPlayedTest() {
+    var solver = new Solver(new TranspositionTable(1 << 16));
+    for (var seed = 0; seed < 2000; seed++)
+      assertSolved(play(seed), solver.solve(seed), "Seed " + seed);
+
+    assertEquals(2000, solver.getSolved());
+  }
+
+  // Asking after every round plays only few rounds, solved states are reused
+  @Test
+  public void repeatedQueryTest() {
+    var solver = new Solver(new TranspositionTable(1 << 12));
+    var game = new Game();
+    game.setCycleDetection(true);
+    game.dispatchDecks(21);
+    var first = solver.solve(game);
+
+    var played = solver.getRoundsPlayed();
+    while (!game.getTable().isFinished()) {
+      game.playRound();
+      var outcome = solver.solve(game);
+      assertEquals(first.winner(), outcome.winner());
+      if (!first.isLoop())
+        assertEquals(first.rounds() - game.getTable().getRounds(), outcome.rounds());
+    }
+    var rounds = game.getTable().getRounds();
+    assertTrue(solver.getHits() > rounds / 2, "Only " + solver.getHits() + " hits");
+    assertTrue(solver.getRoundsPlayed() - played < rounds * 64L, "Played " + (solver.getRoundsPlayed() - played));
+  }
+
+  @Test
+  public void solveDrawAndLoopTest() {
+    var solver = new Solver(new TranspositionTable(1024));
+    var game = new Game();
+    game.setCycleDetection(true);
+    game.dispatchDecksNoShuffle();
+    var outcome = solver.solve(game);
+    assertSolved(game.playToCompletion(1_000_000), outcome, "Identical decks");
+
+    var loops = 0;
+    for (var seed = 0; seed < 5000 && loops == 0; seed++) {
+      var result = play(seed);
+      if (result.loop()) {
+        loops++;
+        assertTrue(solver.solve(seed).isLoop());
+        // Loop is remembered
+        assertTrue(solver.solve(seed).isLoop());
+      }
+    }
+  }
+
+  @Test
+  public void solveDoesNotChangeGameTest() {
+    var solver = new Solver(new TranspositionTable(1 << 12));
+    var game = new Game();
+    game.dispatchDecks(11);
+    game.playRounds(50);
+    var before = GameCodec.encode(game);
+
+    var outcome = solver.solve(game);
+    assertEquals(before, GameCodec.encode(game));
+
+    var result = game.playToCompletion(1_000_000);
+    if (!result.loop() && !result.capped()) {
+      assertEquals(result.winner(), outcome.winner());
+      assertEquals(result.rounds() - 50, outcome.rounds());
+    }
+
+    // Finished game has nothing left
+    var finished = solver.solve(game);
+    assertEquals(0, finished.rounds());
+    assertEquals(game.getTable().getWinner(), finished.winner());
+  }
+
+  // Tiny table evicts all the time, but answers stay the same
+  @Test
+  public void evictionTest() {
+    var transpositions = new TranspositionTable(16);
+    var solver = new Solver(transpositions);
+    for (var seed = 0; seed < 300; seed++)
+      assertSolved(play(seed), solver.solve(seed), "Seed " + seed);
+    assertEquals(16, transpositions.capacity());
+    assertTrue(transpositions.size() <= 16);
+  }
+
+  @Test
+  public void sharedTableTest() throws InterruptedException, ExecutionException {
+    var transpositions = new TranspositionTable(1 << 12);
+    var pool = Executors.newFixedThreadPool(4);
+    try {
+      var futures = new ArrayList<Future<Solver.Outcome[]>>();
+      for (var t = 0; t < 4; t++)
+        futures.add(pool.submit(() -> {
+          var solver = new Solver(transpositions);
+          var outcomes = new Solver.Outcome[1000];
+          for (var seed = 0; seed < outcomes.length; seed++)
+            outcomes[seed] = solver.solve(seed);
+          return outcomes;
+        }));
+
+      for (var future : futures) {
+        var outcomes = future.get();
+        for (var seed = 0; seed < outcomes.length; seed += 7)
+          assertSolved(play(seed), outcomes[seed], "Seed " + seed);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -17,8 +17,8 @@ public class SpecificTest {
   public void drawTest() {
     var game = new Game();
 
-    game.table.deckBlack = new LinkedList<VCard>();
-    game.table.deckWhite = new LinkedList<VCard>();
+    game.table.deckBlack.clear();
+    game.table.deckWhite.clear();
 
     var turns = 0;
     while (!game.table.isFinished()) {
@@ -27,8 +27,8 @@ public class SpecificTest {
     }
 
     for (var e : game.events.evQueue) 
-      if (e == Event.GAME_FINISH)
-        assertEquals(null, e.winner);
+      if (e.type() == Event.GAME_FINISH)
+        assertEquals(null, e.winner());
     
 
     assertEquals(1, turns);
@@ -41,8 +41,8 @@ public class SpecificTest {
     var d = new LinkedList<VCard>();
     d.add(new VCard(0, Suit.CLUBS));
 
-    game.table.deckBlack = d;
-    game.table.deckWhite = new LinkedList<VCard>();
+    game.table.deckBlack.addAll(d);
+    game.table.deckWhite.clear();
 
     var turns = 0;
     while (!game.table.isFinished()) {
@@ -51,8 +51,8 @@ public class SpecificTest {
     }
 
     for (var e : game.events.evQueue) 
-      if (e == Event.GAME_FINISH)
-        assertEquals(Player.BLACK, e.winner);
+      if (e.type() == Event.GAME_FINISH)
+        assertEquals(Player.BLACK, e.winner());
    
     assertEquals(1, turns);
   }
@@ -64,8 +64,8 @@ public class SpecificTest {
     var d = new LinkedList<VCard>();
     d.add(new VCard(0, Suit.CLUBS));
 
-    game.table.deckWhite = d;
-    game.table.deckBlack = new LinkedList<VCard>();
+    game.table.deckWhite.addAll(d);
+    game.table.deckBlack.clear();
 
     var turns = 0;
     while (!game.table.isFinished()) {
@@ -74,8 +74,8 @@ public class SpecificTest {
     }
 
     for (var e : game.events.evQueue) 
-      if (e == Event.GAME_FINISH)
-        assertEquals(Player.WHITE, e.winner);
+      if (e.type() == Event.GAME_FINISH)
+        assertEquals(Player.WHITE, e.winner());
    
     assertEquals(1, turns);
   }
@@ -87,13 +87,13 @@ public class SpecificTest {
       var d = new LinkedList<VCard>();
       d.add(new VCard(3, Suit.CLUBS));
       d.add(new VCard(2, Suit.CLUBS));
-      game.table.deckWhite = d;
+      game.table.deckWhite.addAll(d);
     }
     {
       var d = new LinkedList<VCard>();
       d.add(new VCard(1, Suit.CLUBS));
       // d.add(new VCard(0, Suit.CLUBS));
-      game.table.deckBlack = d;
+      game.table.deckBlack.addAll(d);
     }
 
     var turns = 0;
@@ -103,8 +103,8 @@ public class SpecificTest {
     }
 
     for (var e : game.events.evQueue) 
-      if (e == Event.GAME_FINISH)
-        assertEquals(Player.WHITE, e.winner);
+      if (e.type() == Event.GAME_FINISH)
+        assertEquals(Player.WHITE, e.winner());
    
     assertEquals(2, turns);
   }
@@ -116,13 +116,13 @@ public class SpecificTest {
       var d = new LinkedList<VCard>();
       d.add(new VCard(3, Suit.CLUBS));
       d.add(new VCard(2, Suit.CLUBS));
-      game.table.deckBlack= d;
+      game.table.deckBlack.addAll(d);
     }
     {
       var d = new LinkedList<VCard>();
       d.add(new VCard(1, Suit.CLUBS));
       d.add(new VCard(0, Suit.CLUBS));
-      game.table.deckWhite= d;
+      game.table.deckWhite.addAll(d);
     }
 
     var turns = 0;
@@ -132,8 +132,8 @@ public class SpecificTest {
     }
 
     for (var e : game.events.evQueue) 
-      if (e == Event.GAME_FINISH)
-        assertEquals(Player.BLACK, e.winner);
+      if (e.type() == Event.GAME_FINISH)
+        assertEquals(Player.BLACK, e.winner());
    
     assertEquals(3, turns);
   }
@@ -150,7 +150,7 @@ public class SpecificTest {
       // Goes to invisible stack
       d.add(new VCard(4, Suit.CLUBS));
       d.add(new VCard(3, Suit.CLUBS));
-      game.table.deckBlack = d;
+      game.table.deckBlack.addAll(d);
     }
     {
       var d = new LinkedList<VCard>();
@@ -161,7 +161,7 @@ public class SpecificTest {
       // Goes to invisible stack
       d.add(new VCard(4, Suit.CLUBS));
       d.add(new VCard(3, Suit.CLUBS));
-      game.table.deckWhite = d;
+      game.table.deckWhite.addAll(d);
     }
 
     var turns = 0;
@@ -171,8 +171,8 @@ public class SpecificTest {
     }
 
     for (var e : game.events.evQueue) 
-      if (e == Event.GAME_FINISH)
-        assertEquals(Player.BLACK, e.winner);
+      if (e.type() == Event.GAME_FINISH)
+        assertEquals(Player.BLACK, e.winner());
    
     assertEquals(3, turns);
   }
@@ -191,7 +191,7 @@ public class SpecificTest {
       d.add(new VCard(3, Suit.CLUBS));
       // Post war
       d.add(new VCard(11, Suit.CLUBS));
-      game.table.deckWhite= d;
+      game.table.deckWhite.addAll(d);
     }
     {
       var d = new LinkedList<VCard>();
@@ -204,7 +204,7 @@ public class SpecificTest {
       d.add(new VCard(3, Suit.CLUBS));
       // Post war
       d.add(new VCard(1, Suit.CLUBS));
-      game.table.deckBlack = d;
+      game.table.deckBlack.addAll(d);
     }
 
     var turns = 0;
@@ -214,8 +214,8 @@ public class SpecificTest {
     }
 
     for (var e : game.events.evQueue) 
-      if (e == Event.GAME_FINISH)
-        assertEquals(Player.WHITE, e.winner);
+      if (e.type() == Event.GAME_FINISH)
+        assertEquals(Player.WHITE, e.winner());
    
     assertEquals(4, turns);
   }
@@ -267,13 +267,13 @@ public class SpecificTest {
       var d = new LinkedList<VCard>();
       d.add(new VCard(0, Suit.CLUBS));
       d.add(new VCard(1, Suit.CLUBS));
-      game.table.deckBlack = d;
+      game.table.deckBlack.addAll(d);
     }
     {
       var d = new LinkedList<VCard>();
       d.add(new VCard(1, Suit.CLUBS));
       d.add(new VCard(0, Suit.CLUBS));
-      game.table.deckWhite = d;
+      game.table.deckWhite.addAll(d);
     }
 
     var turns = 0;
@@ -285,4 +285,57 @@ public class SpecificTest {
 
     assertEquals(false, game.table.isFinished());
   }
+
+  @Test
+  public void infiniteGameDetectedTest() {
+    // Same layout as in infiniteGameTest
+    var game = new Game();
+    game.setCycleDetection(true);
+    {
+      var d = new LinkedList<VCard>();
+      d.add(new VCard(0, Suit.CLUBS));
+      d.add(new VCard(1, Suit.CLUBS));
+      game.table.deckBlack.addAll(d);
+    }
+    {
+      var d = new LinkedList<VCard>();
+      d.add(new VCard(1, Suit.CLUBS));
+      d.add(new VCard(0, Suit.CLUBS));
+      game.table.deckWhite.addAll(d);
+    }
+
+    var turns = 0;
+    while (!game.table.isFinished() && turns < 1000) {
+      game.playRound();
+      turns += 1;
+    }
+
+    assertEquals(true, game.table.isFinished());
+    assertEquals(true, game.table.isLoop());
+    assertEquals(null, game.table.getWinner());
+
+    var finished = false;
+    for (var e : game.events.evQueue)
+      if (e.type() == Event.GAME_FINISH) {
+        finished = true;
+        assertEquals(true, e.loop());
+        assertEquals(null, e.winner());
+      }
+    assertEquals(true, finished);
+  }
+
+  // Games which end normally should not be affected by cycle detection
+  @Test
+  public void cycleDetectionFiniteGameTest() {
+    var expected = new Game();
+    expected.dispatchDecks(0);
+    var expectedResult = expected.playToCompletion(100_000);
+
+    var game = new Game();
+    game.setCycleDetection(true);
+    game.dispatchDecks(0);
+    var result = game.playToCompletion(100_000);
+
+    assertEquals(expectedResult, result);
+  }
 }
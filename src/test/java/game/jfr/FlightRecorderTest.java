@@ -0,0 +1,67 @@
+package game.jfr;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.util.HashMap;
+
+import org.junit.jupiter.api.Test;
+
+import game.Game;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderTest {
+
+  @Test
+  public void recordGameTest() throws Exception {
+    var dir = Files.createTempDirectory("cardGame");
+    var file = dir.resolve("game.jfr");
+    var game = new Game();
+    var rounds = 0;
+
+    try (var recording = new Recording()) {
+      for (var name : new String[] { "Round", "War", "Dispatch", "Save", "Load" })
+        recording.enable("cardGame." + name).withoutThreshold();
+      recording.start();
+
+      game.dispatchDecks(3);
+      while (!game.getTable().isFinished() && rounds < 1000) {
+        game.playRound();
+        rounds++;
+      }
+      game.save(dir.toString(), "save.bin");
+      Game.load(dir.resolve("save.bin").toString());
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    var counts = new HashMap<String, Integer>();
+    var wars = 0;
+    for (var event : RecordingFile.readAllEvents(file)) {
+      var name = event.getEventType().getName();
+      counts.merge(name, 1, Integer::sum);
+      if (name.equals("cardGame.War")) {
+        assertTrue(event.getInt("endRound") > event.getInt("startRound"));
+        assertTrue(event.getInt("length") >= 1);
+        wars++;
+      }
+      if (name.equals("cardGame.Save"))
+        assertTrue(event.getLong("bytes") > 0);
+    }
+
+    assertEquals(rounds, (int) counts.get("cardGame.Round"));
+    assertEquals(1, (int) counts.get("cardGame.Dispatch"));
+    assertEquals(1, (int) counts.get("cardGame.Save"));
+    assertEquals(1, (int) counts.get("cardGame.Load"));
+    // War still going on when recording stopped is not recorded
+    var started = game.getTable().getWars();
+    assertTrue(wars == started || wars == started - 1, wars + " of " + started);
+
+    Files.delete(file);
+    Files.delete(dir.resolve("save.bin"));
+    Files.delete(dir);
+  }
+}
@@ -0,0 +1,245 @@
+package game.live;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import cards.Default;
+import game.EventQueue;
+import game.EventQueue.Player;
+import game.Game;
+import game.GameCodec;
+
+public class GamePublisherTest {
+
+  // Collects all updates, requests given amount up front
+  private static class Collector implements Flow.Subscriber<Update> {
+    final List<Update> updates = new ArrayList<Update>();
+    final CountDownLatch completed = new CountDownLatch(1);
+    final long initial;
+    Flow.Subscription subscription;
+
+    Collector(long initial) {
+      this.initial = initial;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      if (initial > 0)
+        subscription.request(initial);
+    }
+
+    @Override
+    public void onNext(Update item) {
+      synchronized (updates) {
+        updates.add(item);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      throw new AssertionError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      completed.countDown();
+    }
+
+    void await() throws InterruptedException {
+      assertTrue(completed.await(10, TimeUnit.SECONDS), "Subscriber was not completed");
+    }
+  }
+
+  // All events emitted by game while playing given rounds
+  private List<Long> play(Game game, int rounds) {
+    var events = new ArrayList<Long>();
+    EventQueue.Listener listener = events::add;
+    game.events.subscribe(EventQueue.ALL_EVENTS, listener);
+    for (var i = 0; i < rounds; i++)
+      game.playRound();
+    game.events.unsubscribe(listener);
+    return events;
+  }
+
+  private List<Long> events(List<Update> updates) {
+    var events = new ArrayList<Long>();
+    for (var update : updates)
+      if (!update.isSnapshot())
+        events.add(update.event());
+    return events;
+  }
+
+  @Test
+  public void fanOutTest() throws Exception {
+    var game = new Game();
+    game.dispatchDecks(5);
+    var publisher = new GamePublisher(game, 1 << 16, Backpressure.BLOCK);
+    var collectors = new Collector[] { new Collector(Long.MAX_VALUE), new Collector(Long.MAX_VALUE),
+        new Collector(Long.MAX_VALUE) };
+    for (var collector : collectors)
+      publisher.subscribe(collector);
+
+    var expected = play(game, 200);
+    publisher.close();
+
+    for (var collector : collectors) {
+      collector.await();
+      assertEquals(expected, events(collector.updates));
+    }
+    assertEquals(0, publisher.getSubscriberCount());
+    assertEquals(0L, publisher.getDropped());
+  }
+
+  @Test
+  public void dropOldestTest() throws Exception {
+    var game = new Game();
+    game.dispatchDecks(5);
+    var publisher = new GamePublisher(game, 8, Backpressure.DROP_OLDEST);
+    var slow = new Collector(0);
+    publisher.subscribe(slow);
+
+    var expected = play(game, 50);
+    publisher.close();
+    while (slow.subscription == null)
+      Thread.onSpinWait();
+    slow.subscription.request(Long.MAX_VALUE);
+    slow.await();
+
+    // Only the last events are left
+    assertEquals(expected.subList(expected.size() - 8, expected.size()), events(slow.updates));
+    assertEquals((long) expected.size() - 8, publisher.getDropped());
+  }
+
+  @Test
+  public void conflateTest() throws Exception {
+    var game = new Game();
+    game.dispatchDecks(5);
+    var publisher = new GamePublisher(game, 16, Backpressure.CONFLATE);
+    var slow = new Collector(0);
+    publisher.subscribe(slow);
+
+    var expected = play(game, 50);
+    publisher.close();
+    while (slow.subscription == null)
+      Thread.onSpinWait();
+    slow.subscription.request(Long.MAX_VALUE);
+    slow.await();
+
+    // Snapshot first, then events emitted after it
+    var first = slow.updates.get(0);
+    assertTrue(first.isSnapshot());
+    var snapshot = GameCodec.decode(first.snapshot().duplicate(), Arrays.asList(new Default().cards));
+    assertTrue(snapshot.getTable().getRounds() <= 50);
+
+    var events = events(slow.updates);
+    assertTrue(events.size() < 16);
+    assertEquals(expected.subList(expected.size() - events.size(), expected.size()), events);
+  }
+
+  // Table rebuilt from snapshot and events after it is the table of the game
+  @Test
+  public void conflateRebuildTest() throws Exception {
+    var cards = Arrays.asList(new Default().cards);
+    for (var bufferSize : new int[] { 2, 5, 16 }) {
+      for (var seed = 0; seed < 20; seed++) {
+        var game = new Game();
+        game.dispatchDecks(seed);
+        var publisher = new GamePublisher(game, bufferSize, Backpressure.CONFLATE, Runnable::run);
+        var slow = new Collector(0);
+        publisher.subscribe(slow);
+        for (var round = 0; round < 40 && !game.getTable().isFinished(); round++)
+          game.playRound();
+        publisher.close();
+        slow.subscription.request(Long.MAX_VALUE);
+        slow.await();
+
+        var message = "Buffer " + bufferSize + ", seed " + seed;
+        var first = slow.updates.get(0);
+        assertTrue(first.isSnapshot(), message);
+        var rebuilt = GameCodec.decode(first.snapshot().duplicate(), cards).getTable();
+        var white = rebuilt.getDeckSize(Player.WHITE);
+        var black = rebuilt.getDeckSize(Player.BLACK);
+        var invisible = rebuilt.getInvisible();
+        var rounds = rebuilt.getRounds();
+        var finished = rebuilt.isFinished();
+        for (var event : events(slow.updates)) {
+          switch (EventQueue.type(event)) {
+            case ROUND_START -> rounds++;
+            case POLL_CARDS -> {
+              var down = EventQueue.amount(event) / 2;
+              white -= 1 + down;
+              black -= 1 + down;
+              invisible += 2 * down;
+            }
+            case HIDE_CARDS -> invisible += 2;
+            case COLLECT_CARDS -> {
+              if (EventQueue.winner(event) == Player.WHITE)
+                white += invisible + 2;
+              else
+                black += invisible + 2;
+              invisible = 0;
+            }
+            case GAME_FINISH -> finished = true;
+            default -> {
+            }
+          }
+        }
+
+        var table = game.getTable();
+        assertEquals(table.getRounds(), rounds, message);
+        assertEquals(table.isFinished(), finished, message);
+        if (!table.isFinished()) {
+          assertEquals(table.getDeckSize(Player.WHITE), white, message);
+          assertEquals(table.getDeckSize(Player.BLACK), black, message);
+          assertEquals(table.getInvisible(), invisible, message);
+        }
+        assertEquals(0, publisher.getSubscriberCount());
+      }
+    }
+  }
+
+  // Blocked game waits for slow subscriber, which gets everything
+  @Test
+  public void blockTest() throws Exception {
+    var game = new Game();
+    game.dispatchDecks(5);
+    var publisher = new GamePublisher(game, 4, Backpressure.BLOCK);
+    var collector = new Collector(Long.MAX_VALUE);
+    publisher.subscribe(collector);
+
+    var expected = play(game, 100);
+    publisher.close();
+    collector.await();
+
+    assertEquals(expected, events(collector.updates));
+  }
+
+  // Blocking subscriber does not make others drop events
+  @Test
+  public void mixedPoliciesTest() throws Exception {
+    var game = new Game();
+    game.dispatchDecks(9);
+    var publisher = new GamePublisher(game, 64, Backpressure.DROP_OLDEST);
+    var fast = new Collector(Long.MAX_VALUE);
+    var blocking = new Collector(Long.MAX_VALUE);
+    publisher.subscribe(fast);
+    publisher.subscribe(blocking, Backpressure.BLOCK);
+
+    var expected = play(game, 100);
+    publisher.close();
+    fast.await();
+    blocking.await();
+
+    assertEquals(expected, events(blocking.updates));
+  }
+}
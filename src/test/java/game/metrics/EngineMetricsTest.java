@@ -0,0 +1,106 @@
+package game.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import game.EventQueue.Event;
+import game.Game;
+import game.sim.Tournament;
+
+public class EngineMetricsTest {
+
+  @Test
+  public void histogramTest() {
+    var histogram = new LatencyHistogram();
+    for (var i = 1; i <= 100_000; i++)
+      histogram.record(i * 10L);
+
+    assertEquals(100_000L, histogram.count());
+    for (var p : new double[] { 50, 90, 99, 99.9 }) {
+      var expected = p / 100 * 1_000_000;
+      var actual = histogram.percentile(p);
+      assertTrue(Math.abs(actual - expected) / expected < 0.02, p + ": " + actual);
+    }
+    assertTrue(Math.abs(histogram.mean() - 500_005) / 500_005 < 0.02);
+    assertTrue(histogram.max() >= 1_000_000);
+  }
+
+  // Values recorded by threads which are gone are kept
+  @Test
+  public void threadsTest() throws Exception {
+    var histogram = new LatencyHistogram();
+    var threads = new Thread[4];
+    for (var t = 0; t < threads.length; t++) {
+      var offset = t;
+      threads[t] = new Thread(() -> {
+        for (var i = 0; i < 10_000; i++)
+          histogram.record(offset * 1000 + i % 1000);
+      });
+      threads[t].start();
+    }
+    for (var thread : threads)
+      thread.join();
+
+    assertEquals(40_000L, histogram.count());
+    histogram.record(5);
+    assertEquals(40_001L, histogram.count());
+    assertTrue(histogram.max() >= 3999);
+    assertEquals(40_001L, histogram.copy().count());
+  }
+
+  // Every value falls into bucket which contains it
+  @Test
+  public void bucketsTest() {
+    for (var value : new long[] { 0, 1, 127, 128, 129, 255, 256, 1000, 123_456_789, Long.MAX_VALUE }) {
+      var index = LatencyHistogram.index(value);
+      assertTrue(index < LatencyHistogram.BUCKETS);
+      assertTrue(LatencyHistogram.lowest(index) <= value, Long.toString(value));
+      assertTrue(LatencyHistogram.highest(index) >= value, Long.toString(value));
+    }
+  }
+
+  @Test
+  public void gameMetricsTest() {
+    var metrics = new EngineMetrics();
+    var game = new Game();
+    game.setCycleDetection(true);
+    game.setMetrics(metrics);
+    game.dispatchDecks(3);
+    var result = game.playToCompletion(100_000);
+
+    var snapshot = metrics.snapshot();
+    assertEquals((long) result.rounds(), snapshot.rounds());
+    assertEquals((long) result.wars(), snapshot.wars());
+    assertEquals(1L, snapshot.gamesFinished());
+    assertEquals(result.isDraw() && !result.loop() ? 1L : 0L, snapshot.draws());
+    assertEquals(result.loop() ? 1L : 0L, snapshot.loops());
+    assertEquals(snapshot.rounds(), snapshot.events(Event.ROUND_START));
+    assertEquals(1L, snapshot.events(Event.GAME_FINISH));
+    assertTrue(snapshot.roundTimes().count() >= snapshot.rounds());
+    assertTrue(snapshot.toJson().contains("\"rounds\":" + result.rounds()));
+
+    // Detached game records nothing more
+    game.setMetrics(null);
+    game.dispatchDecks(4);
+    game.playRounds(100);
+    assertEquals(snapshot.rounds(), metrics.snapshot().rounds());
+    assertEquals(0L, metrics.snapshot().since(snapshot).events(Event.ROUND_START));
+  }
+
+  @Test
+  public void tournamentMetricsTest() {
+    var metrics = new EngineMetrics();
+    var tournament = new Tournament();
+    tournament.setMetrics(metrics);
+    var stats = tournament.run(0, 500);
+
+    var snapshot = metrics.snapshot();
+    assertEquals(stats.getRounds(), snapshot.rounds());
+    assertEquals(stats.getWars(), snapshot.wars());
+    assertEquals(500L, snapshot.gamesFinished());
+    assertEquals(stats.getDraws(), snapshot.draws());
+    assertEquals(stats.getLoops(), snapshot.loops());
+  }
+}
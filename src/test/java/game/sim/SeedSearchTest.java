@@ -0,0 +1,119 @@
+package game.sim;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import game.Game;
+import game.sim.SeedSearch.Objective;
+
+public class SeedSearchTest {
+
+  @Test
+  public void topKTest() {
+    var top = new TopK(3);
+    top.offer(5, 10);
+    top.offer(7, 11);
+    top.offer(1, 12);
+    top.offer(7, 9); // Tie prefers lower seed
+    top.offer(6, 13);
+    top.offer(7, 14);
+
+    assertEquals(3, top.size());
+    assertArrayEquals(new long[] { 9, 11, 14 }, top.seeds());
+    assertArrayEquals(new long[] { 7, 7, 7 }, top.scores());
+  }
+
+  @Test
+  public void sameAsSequentialTest() throws IOException {
+    var expected = new TopK[Objective.values().length];
+    for (var i = 0; i < expected.length; i++)
+      expected[i] = new TopK(5);
+    var game = new Game();
+    game.setCycleDetection(true);
+    for (var seed = -200; seed < 800; seed++) {
+      game.dispatchDecks(seed);
+      var result = game.playToCompletion(100_000);
+      if (result.capped() || result.loop())
+        continue;
+      for (var objective : Objective.values())
+        expected[objective.ordinal()].offer(objective.score(result), seed);
+    }
+
+    var pool = new ForkJoinPool(4);
+    try {
+      var search = new SeedSearch(pool, 5, Objective.values());
+      search.setBlockSize(300);
+      var result = search.run(-200, 800);
+      for (var objective : Objective.values())
+        assertArrayEquals(expected[objective.ordinal()].seeds(), result.getSeeds(objective));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void checkpointTest() throws IOException {
+    var directory = Files.createTempDirectory("search");
+    var checkpoint = directory.resolve("search.checkpoint");
+    try {
+      var expected = new SeedSearch(4, Objective.LONGEST, Objective.MOST_WARS).run(0, 1000);
+
+      // Interrupted after first block
+      var interrupted = new SeedSearch(4, Objective.LONGEST, Objective.MOST_WARS);
+      interrupted.setBlockSize(400);
+      interrupted.setCheckpoint(checkpoint);
+      interrupted.setProgress(next -> {
+        throw new IllegalStateException("Interrupted at " + next);
+      });
+      assertThrows(IllegalStateException.class, () -> interrupted.run(0, 1000));
+
+      var played = new long[] { 0 };
+      var resumed = new SeedSearch(4, Objective.LONGEST, Objective.MOST_WARS);
+      resumed.setBlockSize(400);
+      resumed.setCheckpoint(checkpoint);
+      resumed.setProgress(next -> played[0]++);
+      var result = resumed.run(0, 1000);
+      assertEquals(2, played[0]); // Blocks 400-800 and 800-1000
+      assertArrayEquals(expected.getSeeds(Objective.LONGEST), result.getSeeds(Objective.LONGEST));
+      assertArrayEquals(expected.getSeeds(Objective.MOST_WARS), result.getSeeds(Objective.MOST_WARS));
+
+      // Checkpoint of other search is refused
+      var other = new SeedSearch(4, Objective.SHORTEST);
+      other.setCheckpoint(checkpoint);
+      assertThrows(IOException.class, () -> other.run(0, 1000));
+    } finally {
+      Files.deleteIfExists(checkpoint);
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  public void exportTest() throws IOException {
+    var result = new SeedSearch(3, Objective.DEEPEST_WAR).run(0, 500);
+    var out = new StringWriter();
+    result.export(out);
+
+    var lines = out.toString().split("\n");
+    assertEquals(4, lines.length);
+    assertEquals("objective,rank,seed,winner,rounds,wars,longest_war", lines[0]);
+
+    var seed = result.getSeeds(Objective.DEEPEST_WAR)[0];
+    var game = new Game();
+    game.setCycleDetection(true);
+    game.dispatchDecks((int) seed);
+    var expected = game.playToCompletion(100_000);
+    var row = lines[1].split(",", -1);
+    assertEquals("DEEPEST_WAR", row[0]);
+    assertEquals("1", row[1]);
+    assertEquals(Long.toString(seed), row[2]);
+    assertEquals(Integer.toString(expected.longestWar()), row[6]);
+  }
+}
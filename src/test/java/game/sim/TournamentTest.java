@@ -0,0 +1,64 @@
+package game.sim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import game.Game;
+
+public class TournamentTest {
+
+  @Test
+  public void countGamesTest() {
+    var stats = new Tournament().run(0, 1000);
+
+    assertEquals(1000, stats.getGames());
+    assertEquals(1000, stats.getWhiteWins() + stats.getBlackWins() + stats.getDraws() + stats.getLoops()
+        + stats.getCapped());
+
+    var histogram = 0L;
+    for (var amount : stats.getLengthHistogram())
+      histogram += amount;
+    assertEquals(1000, histogram);
+  }
+
+  @Test
+  public void sameAsSequentialTest() {
+    var expected = new TournamentStats(100_000, 50);
+    var game = new Game();
+    game.setCycleDetection(true);
+    for (var seed = 100; seed < 600; seed++) {
+      game.dispatchDecks(seed);
+      expected.add(game.playToCompletion(100_000));
+    }
+
+    assertEquals(expected, new Tournament().run(100, 600));
+  }
+
+  @Test
+  public void reproducibleTest() {
+    var single = new ForkJoinPool(1);
+    var many = new ForkJoinPool(4);
+    try {
+      assertEquals(new Tournament(single).run(0, 3000), new Tournament(many).run(0, 3000));
+    } finally {
+      single.shutdown();
+      many.shutdown();
+    }
+  }
+
+  // Streams of master seed give the same results on any amount of threads
+  @Test
+  public void masterSeedTest() {
+    var single = new Tournament(new ForkJoinPool(1));
+    single.setMasterSeed(77L);
+    var parallel = new Tournament();
+    parallel.setMasterSeed(77L);
+
+    var stats = parallel.run(0, 2000);
+    assertEquals(single.run(0, 2000), stats);
+    assertEquals(2000, stats.getGames());
+  }
+}
@@ -0,0 +1,81 @@
+package game.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+import game.Game;
+import game.sim.Tournament;
+
+public class GameStatsTest {
+
+  // Exact counters agree with exact statistics of tournament
+  @Test
+  public void sameCountsAsTournamentTest() {
+    var tournament = new Tournament();
+    tournament.setMaxRounds(2000);
+    var exact = tournament.run(0, 5000);
+    var sketch = tournament.sketch(0, 5000);
+
+    assertEquals(exact.getGames(), sketch.getGames());
+    assertEquals(exact.getWhiteWins(), sketch.getWhiteWins());
+    assertEquals(exact.getBlackWins(), sketch.getBlackWins());
+    assertEquals(exact.getDraws(), sketch.getDraws());
+    assertEquals(exact.getLoops(), sketch.getLoops());
+    assertEquals(exact.getCapped(), sketch.getCapped());
+    assertEquals(5000, sketch.getRounds().count());
+
+    // Median falls into the same bucket of exact histogram, give or take one
+    var histogram = exact.getLengthHistogram();
+    var bucket = 0;
+    for (var games = 0L; games * 2 < exact.getGames(); bucket++)
+      games += histogram[bucket];
+    var median = sketch.getRounds().quantile(0.5) / exact.getBucketWidth();
+    assertTrue(median >= bucket - 2 && median <= bucket + 1, "Median " + median + " bucket " + (bucket - 1));
+  }
+
+  @Test
+  public void listenerTest() {
+    var stats = new GameStats();
+    var game = new Game();
+    game.setCycleDetection(true);
+    var listener = stats.attach(game);
+
+    var longest = 0;
+    for (var seed = 0; seed < 300; seed++) {
+      game.dispatchDecks(seed);
+      var result = game.playToCompletion(100_000);
+      longest = Math.max(longest, result.rounds());
+    }
+    assertEquals(300, stats.getGames());
+    assertEquals(longest, stats.getRounds().max());
+    assertEquals(300, stats.getDistinctFinalStates(), 3);
+
+    game.events.unsubscribe(listener);
+    game.dispatchDecks(1);
+    game.playToCompletion(100_000);
+    assertEquals(300, stats.getGames());
+  }
+
+  @Test
+  public void fileTest() throws IOException {
+    var path = Files.createTempFile("stats", ".bin");
+    try {
+      var stats = new Tournament().sketch(0, 2000);
+      stats.write(path);
+      var read = GameStats.read(path);
+
+      assertEquals(stats.getGames(), read.getGames());
+      assertEquals(stats.getWhiteWins(), read.getWhiteWins());
+      assertEquals(stats.getDistinctFinalStates(), read.getDistinctFinalStates());
+      assertEquals(stats.getRounds().quantile(0.9), read.getRounds().quantile(0.9), 0);
+      assertTrue(read.toString().startsWith("games=2000 "));
+    } finally {
+      Files.delete(path);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package game.stats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class SketchTest {
+
+  private static void assertQuantiles(long[] sorted, KllSketch sketch) {
+    for (var fraction : new double[] { 0.01, 0.1, 0.5, 0.9, 0.99 }) {
+      var exact = sorted[(int) Math.ceil(fraction * sorted.length) - 1];
+      // Rank of estimated value is within 2% of wanted rank
+      var rank = (double) upperBound(sorted, (long) sketch.quantile(fraction)) / sorted.length;
+      var lower = (double) lowerBound(sorted, (long) sketch.quantile(fraction)) / sorted.length;
+      assertTrue(rank >= fraction - 0.02 && lower <= fraction + 0.02,
+          "Quantile " + fraction + " exact " + exact + " estimated " + sketch.quantile(fraction));
+    }
+    assertEquals(sorted[0], sketch.min());
+    assertEquals(sorted[sorted.length - 1], sketch.max());
+  }
+
+  private static int lowerBound(long[] sorted, long value) {
+    var i = Arrays.binarySearch(sorted, value);
+    if (i < 0)
+      return -i - 1;
+    while (i > 0 && sorted[i - 1] == value)
+      i--;
+    return i;
+  }
+
+  private static int upperBound(long[] sorted, long value) {
+    var i = lowerBound(sorted, value);
+    while (i < sorted.length && sorted[i] == value)
+      i++;
+    return i;
+  }
+
+  @Test
+  public void kllQuantilesTest() {
+    var random = new SplittableRandom(1);
+    var values = new long[200_000];
+    var sketch = new KllSketch();
+    for (var i = 0; i < values.length; i++) {
+      // Skewed like lengths of games
+      values[i] = (long) (100 * Math.exp(random.nextGaussian()));
+      sketch.add(values[i]);
+    }
+    Arrays.sort(values);
+
+    assertEquals(values.length, sketch.count());
+    assertQuantiles(values, sketch);
+  }
+
+  @Test
+  public void kllMergeTest() throws IOException {
+    var random = new SplittableRandom(2);
+    var values = new long[100_000];
+    var parts = new KllSketch[8];
+    for (var i = 0; i < parts.length; i++)
+      parts[i] = new KllSketch();
+    for (var i = 0; i < values.length; i++) {
+      values[i] = random.nextLong(1_000_000);
+      parts[i % parts.length].add(values[i]);
+    }
+    Arrays.sort(values);
+
+    var merged = new KllSketch();
+    for (var part : parts)
+      merged.merge(read(part));
+    assertEquals(values.length, merged.count());
+    assertQuantiles(values, merged);
+  }
+
+  private static KllSketch read(KllSketch sketch) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    sketch.write(new DataOutputStream(bytes));
+    return KllSketch.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  @Test
+  public void hyperLogLogTest() {
+    var left = new HyperLogLog();
+    var right = new HyperLogLog();
+    for (var i = 0L; i < 300_000; i++) {
+      left.add(i);
+      // Half of hashes are shared
+      right.add(i + 150_000);
+    }
+    assertEquals(300_000, left.estimate(), 300_000 * 0.03);
+
+    left.merge(right);
+    assertEquals(450_000, left.estimate(), 450_000 * 0.03);
+
+    var small = new HyperLogLog();
+    for (var i = 0; i < 10; i++)
+      for (var hash = 0L; hash < 100; hash++)
+        small.add(hash * 31);
+    assertEquals(100, small.estimate(), 2);
+  }
+}
@@ -0,0 +1,205 @@
+package server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import game.Game;
+import game.MultiGame;
+
+public class GameServerTest {
+
+  // Blocking client for the line protocol
+  private static class Client implements AutoCloseable {
+    final Socket socket;
+    final BufferedReader in;
+    final PrintWriter out;
+
+    Client(GameServer server) throws Exception {
+      socket = new Socket("localhost", server.getPort());
+      in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    void send(String line) {
+      out.print(line + "\n");
+      out.flush();
+    }
+
+    // Read lines until the final OK or ERR line, which is returned
+    String reply(List<String> events) throws Exception {
+      while (true) {
+        var line = in.readLine();
+        if (!line.startsWith("EVENT "))
+          return line;
+        if (events != null)
+          events.add(line);
+      }
+    }
+
+    String call(String line) throws Exception {
+      send(line);
+      return reply(null);
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  @Test
+  public void stepTest() throws Exception {
+    try (var server = new GameServer(0, 2)) {
+      server.start();
+      try (var client = new Client(server)) {
+        var create = client.call("CREATE 42");
+        assertTrue(create.startsWith("OK "));
+        var id = create.substring(3);
+        assertEquals("OK", client.call("NAME " + id + " WHITE Alice Smith"));
+
+        var events = new ArrayList<String>();
+        client.send("STEP " + id + " 5");
+        assertEquals("OK 5 PLAYING", client.reply(events));
+
+        // Same events as game played directly
+        var game = new Game();
+        game.dispatchDecks(42);
+        var expected = 0;
+        for (var i = 0; i < 5; i++) {
+          game.playRound();
+          expected += game.events.size();
+        }
+        assertEquals(expected, events.size());
+        assertEquals("EVENT " + id + " ROUND_START - -1 -1 -1", events.get(0));
+      }
+    }
+  }
+
+  // Table of more players names and sends them by index
+  @Test
+  public void multiTableTest() throws Exception {
+    try (var server = new GameServer(0, 1)) {
+      server.start();
+      try (var client = new Client(server)) {
+        var id = client.call("CREATE 42 4").substring(3);
+        assertEquals("OK", client.call("NAME " + id + " 3 Dave"));
+        assertTrue(client.call("NAME " + id + " WHITE Alice").startsWith("ERR"));
+        assertTrue(client.call("CREATE 42 9").startsWith("ERR"));
+
+        var events = new ArrayList<String>();
+        client.send("STEP " + id + " 10000");
+        var reply = client.reply(events);
+
+        var game = new MultiGame(4);
+        game.setCycleDetection(true);
+        game.dispatchDecks(42);
+        var result = game.playToCompletion(10_000);
+        var status = (result.capped()) ? "PLAYING" : (result.winner() < 0) ? "DRAW" : "" + result.winner();
+        assertEquals("OK " + result.rounds() + " " + status, reply);
+        assertTrue(events.stream().anyMatch(e -> e.startsWith("EVENT " + id + " POLL_CARDS 3 ")));
+      }
+    }
+  }
+
+  // Table created on one shard, played by connection of other shard
+  @Test
+  public void crossShardTest() throws Exception {
+    try (var server = new GameServer(0, 2)) {
+      server.start();
+      try (var first = new Client(server); var second = new Client(server)) {
+        var id = first.call("CREATE 7").substring(3);
+
+        // Pipelined commands are answered in order
+        second.send("STEP " + id + " 1");
+        second.send("STEP " + id + " 2");
+        second.send("STEP " + id);
+        assertEquals("OK 1 PLAYING", second.reply(null));
+        assertEquals("OK 3 PLAYING", second.reply(null));
+        assertEquals("OK 4 PLAYING", second.reply(null));
+
+        assertEquals("OK 5 PLAYING", first.call("STEP " + id));
+        assertEquals("OK", second.call("CLOSE " + id));
+        assertTrue(first.call("STEP " + id).startsWith("ERR"));
+      }
+    }
+  }
+
+  @Test
+  public void manyTablesTest() throws Exception {
+    try (var server = new GameServer(0, 4)) {
+      server.start();
+      var pool = Executors.newFixedThreadPool(8);
+      var tasks = new ArrayList<Callable<Void>>();
+      for (var c = 0; c < 8; c++) {
+        var offset = c * 10;
+        tasks.add(() -> {
+          try (var client = new Client(server)) {
+            for (var seed = offset; seed < offset + 10; seed++) {
+              var id = client.call("CREATE " + seed).substring(3);
+              var game = new Game();
+              game.setCycleDetection(true);
+              game.dispatchDecks(seed);
+              var result = game.playToCompletion(Shard.MAX_STEP);
+
+              var reply = client.call("STEP " + id + " " + Shard.MAX_STEP);
+              assertTrue(reply.startsWith("OK " + result.rounds() + " "), reply);
+            }
+          }
+          return null;
+        });
+      }
+      for (var future : pool.invokeAll(tasks))
+        future.get();
+      pool.shutdown();
+    }
+  }
+
+  // Task failing on shard thread does not stop the shard
+  @Test
+  public void failedTaskTest() throws Exception {
+    var shards = new Shard[1];
+    shards[0] = new Shard(0, shards);
+    shards[0].start();
+    try {
+      shards[0].submit(() -> {
+        throw new IllegalStateException("Failed task");
+      });
+      var reply = new CompletableFuture<String>();
+      shards[0].submit(() -> reply.complete(shards[0].execute(new String[] { "CREATE", "1" })));
+      assertEquals("OK 0\n", reply.get(10, TimeUnit.SECONDS));
+    } finally {
+      shards[0].close();
+    }
+  }
+
+  @Test
+  public void errorTest() throws Exception {
+    try (var server = new GameServer(0, 1)) {
+      server.start();
+      try (var client = new Client(server)) {
+        assertTrue(client.call("STEP 99").startsWith("ERR"));
+        assertTrue(client.call("STEP x").startsWith("ERR"));
+        assertTrue(client.call("DANCE 1").startsWith("ERR"));
+        var id = client.call("CREATE").substring(3);
+        assertTrue(client.call("NAME " + id + " GREEN Bob").startsWith("ERR"));
+        assertTrue(client.call("STEP " + id + " 100000000").startsWith("ERR"));
+        assertEquals("OK 1 PLAYING", client.call("STEP " + id));
+      }
+    }
+  }
+}